@@ -2,9 +2,12 @@ package com.example.java_solana_lp_option;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.example.java_solana_lp_option.config.HttpTransport;
 import com.example.java_solana_lp_option.config.SolanaConfig;
 
 @SpringBootApplication
@@ -13,7 +16,11 @@ import com.example.java_solana_lp_option.config.SolanaConfig;
 public class JavaSolanaLpOptionApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(JavaSolanaLpOptionApplication.class, args);
+		SpringApplication application = new SpringApplication(JavaSolanaLpOptionApplication.class);
+		// JDK HttpClient 的連線保持時間是 JVM 全域設定，需在任何 HttpClient 建立前設定
+		application.addListeners((ApplicationListener<ApplicationEnvironmentPreparedEvent>) event ->
+			HttpTransport.configureKeepAlive(event.getEnvironment()));
+		application.run(args);
 	System.out.println("hello world");
 	}
 
@@ -1,16 +1,25 @@
 package com.example.java_solana_lp_option.analyzer;
 
+import com.example.java_solana_lp_option.config.HttpTransport;
+import com.example.java_solana_lp_option.config.UpstreamRateLimiter;
 import com.example.java_solana_lp_option.config.SolanaConfig;
+import com.example.java_solana_lp_option.service.NodeHealthMonitor;
+import com.example.java_solana_lp_option.service.NodeHealthSnapshot;
+import com.example.java_solana_lp_option.service.PositionValuationService;
+import com.example.java_solana_lp_option.service.PositionValuationService.PositionValuation;
+import com.example.java_solana_lp_option.service.RpcEndpointRouter;
 import com.example.java_solana_lp_option.service.SolanaService;
+import com.example.java_solana_lp_option.util.TickMath;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
 import java.util.*;
 
@@ -21,21 +30,28 @@ public class CLMMPositionAnalyzer {
     private final ObjectMapper objectMapper;
     private final SolanaConfig solanaConfig;
     private final SolanaService solanaService;
+    private final NodeHealthMonitor nodeHealthMonitor;
+    private final PositionValuationService valuationService;
+    private final Counter rateLimitedRetries;
+    private final Counter errorRetries;
     
     // 常數定義
     private static final String DEFAULT_CLMM_POSITION = "BSoUetj6UWvZFYrSnA9KsejAzQZWXUTfFCsB2EWk3LYh";
     private static final String WSOL_MINT = "So11111111111111111111111111111111111111112";
     
-    public CLMMPositionAnalyzer(SolanaConfig solanaConfig, SolanaService solanaService) {
+    public CLMMPositionAnalyzer(SolanaConfig solanaConfig, SolanaService solanaService, HttpTransport httpTransport,
+                                NodeHealthMonitor nodeHealthMonitor, PositionValuationService valuationService,
+                                MeterRegistry meterRegistry) {
         this.solanaConfig = solanaConfig;
         this.solanaService = solanaService;
+        this.nodeHealthMonitor = nodeHealthMonitor;
+        this.valuationService = valuationService;
+        this.rateLimitedRetries = retryCounter(meterRegistry, "rate_limited");
+        this.errorRetries = retryCounter(meterRegistry, "error");
         this.objectMapper = new ObjectMapper();
         
-        // 設定 RestTemplate 超時
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(solanaConfig.getConnectTimeout());
-        factory.setReadTimeout(solanaConfig.getReadTimeout());
-        this.restTemplate = new RestTemplate(factory);
+        // 使用共用的連線池傳輸層
+        this.restTemplate = new RestTemplate(httpTransport.requestFactory(UpstreamRateLimiter.RAYDIUM_API));
     }
     
     // 內部類別定義
@@ -256,13 +272,12 @@ public class CLMMPositionAnalyzer {
                     throw e; // 直接拋出，不重試
                 }
                 
+                // 429 已由傳輸層依 Retry-After 暫停 Raydium 令牌桶，重試時會自動等到額度恢復
                 if (errorMessage != null && (errorMessage.contains("429") || errorMessage.contains("Too Many Requests"))) {
                     System.out.printf("⚠️  %s 遇到 API 限制 (嘗試 %d/%d)%n", operation, attempt, solanaConfig.getMaxRetries());
                     
                     if (attempt < solanaConfig.getMaxRetries()) {
-                        long delayMs = solanaConfig.getRetryDelay() * (long) Math.pow(2, attempt - 1);
-                        System.out.printf("⏳ 等待 %dms 後重試...%n", delayMs);
-                        delay(delayMs);
+                        rateLimitedRetries.increment();
                         continue;
                     }
                 }
@@ -272,6 +287,7 @@ public class CLMMPositionAnalyzer {
                     throw new RuntimeException(operation + " 超過最大重試次數", e);
                 }
                 
+                errorRetries.increment();
                 delay(1000);
             }
         }
@@ -280,12 +296,21 @@ public class CLMMPositionAnalyzer {
     }
     
     /**
-     * 從 tick 計算價格
+     * Raydium API 的重試次數；reason 為 rate_limited（429）或 error（其他錯誤）
+     */
+    private static Counter retryCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("upstream.retries")
+            .description("上游 API 重試次數")
+            .tag("upstream", UpstreamRateLimiter.RAYDIUM_API)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * 從 tick 計算價格（查表，不呼叫 Math.pow）
      */
     private double calculatePriceFromTick(int tick, int decimalsA, int decimalsB) {
-        double basePrice = Math.pow(1.0001, tick);
-        double adjustmentFactor = Math.pow(10, decimalsA - decimalsB);
-        return basePrice * adjustmentFactor;
+        return TickMath.priceAtTick(tick, decimalsA, decimalsB);
     }
     
     /**
@@ -480,8 +505,9 @@ public class CLMMPositionAnalyzer {
             System.out.println("🔍 從區塊鏈讀取 Position 帳戶數據...");
             
             if (solanaConfig.isEnableBlockchainData()) {
-                // 檢查 Solana 節點連接狀態
-                if (!solanaService.checkConnectionHealth()) {
+                // 檢查 Solana 節點連接狀態（讀取背景監控的快照）
+                NodeHealthSnapshot nodeStatus = nodeHealthMonitor.getStatus();
+                if (!nodeStatus.isHealthy()) {
                     System.out.println("❌ Solana 節點連接失敗，使用模擬數據");
                     return createMockPositionRange();
                 }
@@ -489,7 +515,7 @@ public class CLMMPositionAnalyzer {
                 System.out.printf("🔗 使用 Solana 節點: %s (%s)%n", 
                     solanaConfig.getRpcUrl(), 
                     solanaConfig.getNetworkDisplayName());
-                System.out.printf("📡 節點版本: %s%n", solanaService.getNodeVersion());
+                System.out.printf("📡 節點版本: %s%n", nodeStatus.getVersion());
                 
                 // 使用實際的區塊鏈服務查找 Position 帳戶
                 SolanaService.PositionAccountInfo positionInfo = solanaService.findCLMMPositionAccount(positionNftMint);
@@ -553,12 +579,26 @@ public class CLMMPositionAnalyzer {
         System.out.printf("區塊鏈數據: %s%n", solanaConfig.isEnableBlockchainData() ? "啟用" : "模擬");
         
         if (solanaConfig.isEnableBlockchainData()) {
-            boolean isHealthy = solanaService.checkConnectionHealth();
-            System.out.printf("節點狀態: %s%n", isHealthy ? "✅ 正常" : "❌ 異常");
+            // 健康狀態由背景監控定期更新，這裡只讀取快照
+            NodeHealthSnapshot nodeStatus = nodeHealthMonitor.getStatus();
+            System.out.printf("節點狀態: %s%n", nodeStatus.isHealthy() ? "✅ 正常" : "❌ 異常");
+            
+            if (nodeStatus.isHealthy()) {
+                System.out.printf("節點版本: %s (slot %d, %d ms 前檢查)%n",
+                    nodeStatus.getVersion(), nodeStatus.getSlot(), nodeStatus.getAgeMillis());
+            }
             
-            if (isHealthy) {
-                String version = solanaService.getNodeVersion();
-                System.out.printf("節點版本: %s%n", version);
+            for (RpcEndpointRouter.Endpoint endpoint : solanaService.getRpcEndpoints()) {
+                System.out.printf("  %s %s | p50=%dms p99=%dms 錯誤率=%.1f%% slot落後=%d 熔斷=%s(%d 次)%n",
+                    endpoint.isEjected() ? "⛔" : "✅", endpoint.getUrl(),
+                    endpoint.getP50Latency(), endpoint.getP99Latency(),
+                    endpoint.getErrorRate() * 100, endpoint.getSlotLag(),
+                    endpoint.getBreaker().getState(), endpoint.getBreaker().getTripCount());
+            }
+            
+            if (solanaConfig.isRpcHedgingEnabled()) {
+                System.out.printf("對沖請求: %d 次, 勝出 %d 次%n",
+                    solanaService.getHedgeCount(), solanaService.getHedgeWinCount());
             }
         } else {
             System.out.println("節點狀態: ⚠️ 已停用，使用模擬數據");
@@ -601,7 +641,10 @@ public class CLMMPositionAnalyzer {
             CLMMPositionData clmmData = fetchCLMMPositionData(tokenExtensions.getUri());
             
             if (clmmData == null) {
-                System.out.println("❌ 無法獲取 CLMM Position 數據");
+                System.out.println("❌ 無法獲取 CLMM Position 數據，改用鏈上估值");
+                if (displayOnChainValuation(mintAddress)) {
+                    return;
+                }
                 System.out.println("📋 Position 摘要:");
                 System.out.printf("   地址: %s%n", mintAddress);
                 System.out.printf("   狀態: 無法存取或已關閉%n");
@@ -610,7 +653,7 @@ public class CLMMPositionAnalyzer {
             }
             
             // 3. 顯示詳細分析
-            displayCLMMAnalysis(clmmData, mintAddress);
+            displayCLMMAnalysis(clmmData, mintAddress, true);
             
         } catch (org.springframework.web.client.HttpClientErrorException.NotFound e) {
             System.out.println("❌ Position 不存在或已過期");
@@ -636,10 +679,88 @@ public class CLMMPositionAnalyzer {
         }
     }
     
+    /**
+     * 以鏈上資料估值單一 Position（不呼叫 Raydium API）；區塊鏈數據停用或找不到 Position 時回傳 null
+     */
+    private PositionValuation valuateOnChain(String mintAddress) {
+        if (!solanaConfig.isEnableBlockchainData()) {
+            return null;
+        }
+        try {
+            List<SolanaService.PositionAccountInfo> positions = solanaService.findPositionsByNftMints(List.of(mintAddress));
+            if (positions.isEmpty()) {
+                return null;
+            }
+            return valuationService.valuate(positions.get(0));
+        } catch (Exception e) {
+            System.err.printf("⚠️ 鏈上估值失敗: %s%n", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 顯示鏈上估值結果；無法估值時回傳 false
+     */
+    private boolean displayOnChainValuation(String mintAddress) {
+        PositionValuation valuation = valuateOnChain(mintAddress);
+        if (valuation == null) {
+            System.out.println("❌ 無法以鏈上資料估值");
+            return false;
+        }
+        
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("📋 CLMM Position 鏈上估值報告");
+        System.out.println("=".repeat(80));
+        System.out.printf("🎯 Position NFT: %s%n", mintAddress);
+        System.out.printf("池 ID: %s%n", valuation.getPoolId());
+        System.out.printf("代幣 A: %s%n", valuation.getMintA());
+        System.out.printf("代幣 B: %s%n", valuation.getMintB());
+        System.out.printf("當前價格: %.6f (代幣 B / 代幣 A)%n", valuation.getCurrentPrice());
+        
+        System.out.println("\n💧 流動性位置詳情:");
+        System.out.println("-".repeat(50));
+        System.out.printf("位置價值: %s%n", formatUsdValue(valuation.getUsdValue()));
+        System.out.printf("代幣 A 數量: %.6f%n", valuation.getAmountA());
+        System.out.printf("代幣 B 數量: %.6f%n", valuation.getAmountB());
+        System.out.printf("價格區間: %.6f - %.6f (tick %d 到 %d)%n",
+            valuation.getLowerPrice(), valuation.getUpperPrice(), valuation.getTickLower(), valuation.getTickUpper());
+        System.out.printf("當前 tick: %d %s%n", valuation.getTickCurrent(), valuation.isInRange() ? "✅ 區間內" : "⚠️ 區間外");
+        
+        displayOnChainFees(valuation);
+        
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("✅ 分析完成！");
+        return true;
+    }
+    
+    /**
+     * 顯示由手續費成長值計算的未領取手續費與獎勵
+     */
+    private void displayOnChainFees(PositionValuation valuation) {
+        System.out.println("\n💸 未領取收益 (鏈上計算):");
+        System.out.println("-".repeat(30));
+        if (!valuation.isFeesAvailable()) {
+            System.out.println("❌ 無法取得 tick array，未計算");
+            return;
+        }
+        
+        System.out.printf("總美元價值: %s%n", formatUsdValue(valuation.getFeesUsdValue()));
+        System.out.printf("  代幣 A 手續費: %.6f%n", valuation.getFeesA());
+        System.out.printf("  代幣 B 手續費: %.6f%n", valuation.getFeesB());
+        for (PositionValuationService.RewardAmount reward : valuation.getRewards()) {
+            if (Double.isNaN(reward.getAmount())) {
+                System.out.printf("  獎勵 %s: %s (最小單位，未計入總價值)%n", shortAddress(reward.getMint()), reward.getRawAmount());
+            } else {
+                System.out.printf("  獎勵 %s: %.6f (%s)%n", shortAddress(reward.getMint()), reward.getAmount(),
+                    formatUsdValue(reward.getUsdValue()));
+            }
+        }
+    }
+    
     /**
      * 顯示詳細的 CLMM Position 分析
      */
-    private void displayCLMMAnalysis(CLMMPositionData data, String mintAddress) {
+    private void displayCLMMAnalysis(CLMMPositionData data, String mintAddress, boolean onChainFees) {
         System.out.println("\n" + "=".repeat(80));
         System.out.println("📋 CLMM Position 詳細分析報告");
         System.out.println("=".repeat(80));
@@ -690,9 +811,14 @@ public class CLMMPositionAnalyzer {
             // 分析代幣數量
             analyzeTokenAmounts(data, pos);
             
-            // 未領取收益分析
+            // 未領取收益分析；API 未提供時改由鏈上手續費成長值計算
             if (pos.getUnclaimedFee() != null) {
                 analyzeUnclaimedFees(data, pos.getUnclaimedFee());
+            } else if (onChainFees) {
+                PositionValuation valuation = valuateOnChain(mintAddress);
+                if (valuation != null) {
+                    displayOnChainFees(valuation);
+                }
             }
         }
         
@@ -912,7 +1038,8 @@ public class CLMMPositionAnalyzer {
     }
     
     /**
-     * 批次分析多個 Position
+     * 批次分析多個 Position：先以 valuateCLMMPositions 一次批次估值全部 Position（同一池子只讀取一次），
+     * 只有鏈上找不到的 Position 才逐一呼叫 Raydium API
      */
     public void analyzeBatchCLMMPositions(List<String> mintAddresses) {
         System.out.println("🚀 批次 CLMM Position 分析器");
@@ -924,13 +1051,29 @@ public class CLMMPositionAnalyzer {
         List<String> successList = new ArrayList<>();
         List<String> failedList = new ArrayList<>();
         
-        for (int i = 0; i < mintAddresses.size(); i++) {
-            String mintAddress = mintAddresses.get(i);
-            System.out.printf("\n🔄 [%d/%d] 分析 Position: %s%n", i + 1, mintAddresses.size(), mintAddress);
+        List<String> remaining = new ArrayList<>();
+        for (String mintAddress : mintAddresses) {
+            remaining.add(mintAddress.trim());
+        }
+        if (solanaConfig.isEnableBlockchainData()) {
+            for (PositionValuation valuation : valuateCLMMPositions(remaining)) {
+                if (remaining.remove(valuation.getNftMint())) {
+                    successCount++;
+                    successList.add(valuation.getNftMint());
+                }
+            }
+            if (!remaining.isEmpty()) {
+                System.out.printf("%n🔄 %d 個 Position 無法以鏈上資料估值，改用 Raydium API%n", remaining.size());
+            }
+        }
+        
+        for (int i = 0; i < remaining.size(); i++) {
+            String mintAddress = remaining.get(i);
+            System.out.printf("\n🔄 [%d/%d] 分析 Position: %s%n", i + 1, remaining.size(), mintAddress);
             
             try {
-                // 使用修改過的分析方法，不會拋出異常
-                boolean success = analyzeCLMMPositionSafely(mintAddress);
+                // 使用修改過的分析方法，不會拋出異常；鏈上估值已在上面批次做過，不再逐一重試
+                boolean success = analyzeCLMMPositionSafely(mintAddress, false);
                 
                 if (success) {
                     successCount++;
@@ -940,12 +1083,6 @@ public class CLMMPositionAnalyzer {
                     failedList.add(mintAddress);
                 }
                 
-                // 批次處理間隔
-                if (i < mintAddresses.size() - 1) {
-                    System.out.println("\n⏱️ 等待 2 秒後處理下一個...");
-                    delay(2000);
-                }
-                
             } catch (Exception e) {
                 failedCount++;
                 failedList.add(mintAddress);
@@ -978,10 +1115,70 @@ public class CLMMPositionAnalyzer {
         }
     }
     
+    /**
+     * 批次鏈上估值：由 NFT mint 推導 Position 地址一次批次讀取，再以池子與 tick array 的批次查詢估值全部 Position，
+     * 不呼叫 Raydium API
+     */
+    public List<PositionValuation> valuateCLMMPositions(List<String> mintAddresses) {
+        System.out.println("🚀 批次 CLMM Position 鏈上估值");
+        System.out.println("=".repeat(80));
+        System.out.printf("📊 將估值 %d 個 Position%n", mintAddresses.size());
+        
+        if (!solanaConfig.isEnableBlockchainData()) {
+            System.out.println("⚠️ 區塊鏈數據讀取已停用，無法進行鏈上估值");
+            return Collections.emptyList();
+        }
+        
+        List<PositionValuation> valuations;
+        try {
+            List<SolanaService.PositionAccountInfo> positions = solanaService.findPositionsByNftMints(mintAddresses);
+            Set<String> found = new HashSet<>();
+            for (SolanaService.PositionAccountInfo position : positions) {
+                found.add(position.getNftMint());
+            }
+            for (String mintAddress : mintAddresses) {
+                if (!found.contains(mintAddress)) {
+                    System.out.printf("❌ 找不到 Position 帳戶: %s%n", mintAddress);
+                }
+            }
+            valuations = valuationService.valuate(positions);
+        } catch (Exception e) {
+            System.err.printf("❌ 批次估值失敗: %s%n", e.getMessage());
+            return Collections.emptyList();
+        }
+        
+        List<PositionValuation> results = new ArrayList<>();
+        double totalUsd = 0;
+        double totalFeesUsd = 0;
+        System.out.println("\n" + "-".repeat(80));
+        for (PositionValuation valuation : valuations) {
+            if (valuation == null) {
+                continue;
+            }
+            results.add(valuation);
+            if (!Double.isNaN(valuation.getUsdValue())) {
+                totalUsd += valuation.getUsdValue();
+            }
+            if (valuation.isFeesAvailable() && !Double.isNaN(valuation.getFeesUsdValue())) {
+                totalFeesUsd += valuation.getFeesUsdValue();
+            }
+            System.out.printf("%s  A: %.6f  B: %.6f  %s  手續費: %s  %s%n",
+                shortAddress(valuation.getNftMint()), valuation.getAmountA(), valuation.getAmountB(),
+                formatUsdValue(valuation.getUsdValue()),
+                valuation.isFeesAvailable() ? formatUsdValue(valuation.getFeesUsdValue()) : "未計算",
+                valuation.isInRange() ? "✅ 區間內" : "⚠️ 區間外");
+        }
+        
+        System.out.println("-".repeat(80));
+        System.out.printf("✅ 估值完成：%d / %d 個 Position，可計價總值 %s，未領收益 %s%n",
+            results.size(), mintAddresses.size(), formatCurrency(totalUsd), formatCurrency(totalFeesUsd));
+        return results;
+    }
+    
     /**
      * 安全的 Position 分析，不會拋出異常
      */
-    private boolean analyzeCLMMPositionSafely(String mintAddress) {
+    private boolean analyzeCLMMPositionSafely(String mintAddress, boolean onChainFallback) {
         try {
             System.out.println("🚀 CLMM Position 分析器");
             System.out.println("=".repeat(80));
@@ -1006,11 +1203,15 @@ public class CLMMPositionAnalyzer {
             CLMMPositionData clmmData = fetchCLMMPositionData(tokenExtensions.getUri());
             
             if (clmmData == null) {
-                System.out.println("❌ 無法獲取 CLMM Position 數據 (Position 可能已關閉)");
-                return false;
+                if (!onChainFallback) {
+                    System.out.println("❌ 無法獲取 CLMM Position 數據");
+                    return false;
+                }
+                System.out.println("❌ 無法獲取 CLMM Position 數據，改用鏈上估值");
+                return displayOnChainValuation(mintAddress);
             }
             
-            displayCLMMAnalysis(clmmData, mintAddress);
+            displayCLMMAnalysis(clmmData, mintAddress, onChainFallback);
             return true;
             
         } catch (org.springframework.web.client.HttpClientErrorException.NotFound e) {
@@ -1029,6 +1230,18 @@ public class CLMMPositionAnalyzer {
         System.out.printf("⚡ 快速檢查 Position: %s%n", mintAddress);
         
         try {
+            // 優先以鏈上資料估值，不必呼叫 Raydium API
+            PositionValuation valuation = valuateOnChain(mintAddress);
+            if (valuation != null) {
+                System.out.printf("   💰 位置價值: %s%n", formatUsdValue(valuation.getUsdValue()));
+                System.out.printf("   📍 區間狀態: %s%n", valuation.isInRange() ? "區間內" : "區間外");
+                if (valuation.isFeesAvailable()) {
+                    System.out.printf("   💸 未領收益: %s%n", formatUsdValue(valuation.getFeesUsdValue()));
+                }
+                System.out.println("   ✅ 狀態正常 (鏈上估值)");
+                return;
+            }
+            
             TokenExtensionsData tokenExtensions = getTokenExtensions(mintAddress);
             
             if (tokenExtensions != null && tokenExtensions.getUri() != null) {
@@ -1166,6 +1379,18 @@ public class CLMMPositionAnalyzer {
         }
     }
     
+    /**
+     * 工具方法：格式化美元價值，無法計價時顯示說明
+     */
+    private String formatUsdValue(double value) {
+        return Double.isNaN(value) ? "無法計價 (無穩定幣報價)" : formatCurrency(value);
+    }
+    
+    private String shortAddress(String address) {
+        return address != null && address.length() > 12
+            ? address.substring(0, 6) + "..." + address.substring(address.length() - 6) : String.valueOf(address);
+    }
+    
     /**
      * 主要的公開方法 - 使用預設 Position
      */
@@ -1,12 +1,18 @@
 package com.example.java_solana_lp_option.analyzer;
 
 import com.example.java_solana_lp_option.config.SolanaConfig;
+import com.example.java_solana_lp_option.service.NodeHealthMonitor;
+import com.example.java_solana_lp_option.service.SignatureQuery;
+import com.example.java_solana_lp_option.service.SignatureStream;
 import com.example.java_solana_lp_option.service.SolanaService;
 import com.example.java_solana_lp_option.service.AnchorProgramService;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class SolanaAccountAnalyzer {
@@ -14,13 +20,16 @@ public class SolanaAccountAnalyzer {
     private final SolanaConfig solanaConfig;
     private final SolanaService solanaService;
     private final AnchorProgramService anchorProgramService;
+    private final NodeHealthMonitor nodeHealthMonitor;
     
     private static final String TARGET_ACCOUNT = "3tgWY4ZcaLYE3jqp2fMaYiinPADmZFRCXLhmLwMpCBGu";
     
-    public SolanaAccountAnalyzer(SolanaConfig solanaConfig, SolanaService solanaService, AnchorProgramService anchorProgramService) {
+    public SolanaAccountAnalyzer(SolanaConfig solanaConfig, SolanaService solanaService, AnchorProgramService anchorProgramService,
+                                 NodeHealthMonitor nodeHealthMonitor) {
         this.solanaConfig = solanaConfig;
         this.solanaService = solanaService;
         this.anchorProgramService = anchorProgramService;
+        this.nodeHealthMonitor = nodeHealthMonitor;
     }
     
     public static class AccountInfo {
@@ -160,14 +169,18 @@ public class SolanaAccountAnalyzer {
             accountInfo.setAddress(accountAddress);
             
             if (solanaConfig.isEnableBlockchainData()) {
-                // 使用實際的 Solana 節點
-                JsonNode accountData = solanaService.getAccountInfo(accountAddress);
+                // 使用實際的 Solana 節點；帳戶資訊與代幣帳戶合併為一個批次請求
+                CompletableFuture<JsonNode> accountFuture = solanaService.getAccountInfoBatched(accountAddress);
+                CompletableFuture<JsonNode> tokenAccountsFuture =
+                    solanaService.getTokenAccountsByOwnerBatched(accountAddress, null);
+                solanaService.flushBatchedRPC();
+                JsonNode accountData = accountFuture.join();
                 
                 if (accountData != null && !accountData.get("value").isNull()) {
                     parseAccountData(accountInfo, accountData);
                     
                     // 獲取代幣持有情況
-                    List<TokenHolding> tokenHoldings = fetchTokenHoldings(accountAddress);
+                    List<TokenHolding> tokenHoldings = fetchTokenHoldings(accountAddress, tokenAccountsFuture);
                     accountInfo.setTokenHoldings(tokenHoldings);
                     
                     // 獲取交易歷史
@@ -216,13 +229,13 @@ public class SolanaAccountAnalyzer {
         }
     }
     
-    private List<TokenHolding> fetchTokenHoldings(String accountAddress) {
+    private List<TokenHolding> fetchTokenHoldings(String accountAddress, CompletableFuture<JsonNode> tokenAccountsFuture) {
         List<TokenHolding> holdings = new ArrayList<>();
         
         try {
             if (solanaConfig.isEnableBlockchainData()) {
                 System.out.println("🔍 使用 getTokenAccountsByOwner 查詢代幣帳戶...");
-                JsonNode tokenAccounts = solanaService.getTokenAccountsByOwner(accountAddress, null);
+                JsonNode tokenAccounts = tokenAccountsFuture.join();
                 
                 if (tokenAccounts != null && tokenAccounts.has("value") && tokenAccounts.get("value").isArray()) {
                     JsonNode accounts = tokenAccounts.get("value");
@@ -364,23 +377,25 @@ public class SolanaAccountAnalyzer {
         try {
             if (solanaConfig.isEnableBlockchainData()) {
                 System.out.println("🔍 獲取最近交易記錄...");
-                JsonNode signatures = solanaService.getSignaturesForAddress(accountAddress, 10);
+                SignatureQuery query = SignatureQuery.create()
+                    .limit(solanaConfig.getTransactionHistoryLimit())
+                    .pageSize(solanaConfig.getSignaturePageSize());
+                if (solanaConfig.getTransactionHistoryDays() > 0) {
+                    query.since(Instant.now().minus(solanaConfig.getTransactionHistoryDays(), ChronoUnit.DAYS).getEpochSecond());
+                }
                 
-                if (signatures != null && signatures.isArray()) {
-                    System.out.printf("✅ 找到 %d 筆交易記錄%n", signatures.size());
-                    
-                    for (JsonNode sig : signatures) {
-                        TransactionHistory tx = parseTransactionSignature(sig);
+                // 逐頁讀取，下一頁在解析當前頁時已預先送出
+                try (SignatureStream signatures = solanaService.streamSignaturesForAddress(accountAddress, query)) {
+                    while (signatures.hasNext()) {
+                        TransactionHistory tx = parseTransactionSignature(signatures.next());
                         if (tx != null) {
                             transactions.add(tx);
                         }
                     }
-                    
-                    if (transactions.isEmpty()) {
-                        System.out.println("⚠️ 未解析到有效的交易記錄，使用模擬數據");
-                        transactions.addAll(createMockTransactions());
-                    }
-                } else {
+                    System.out.printf("✅ 找到 %d 筆交易記錄 (%d 頁)%n", signatures.getReturnedCount(), signatures.getPageCount());
+                }
+                
+                if (transactions.isEmpty()) {
                     System.out.println("⚠️ 未找到交易記錄，使用模擬數據");
                     transactions.addAll(createMockTransactions());
                 }
@@ -552,7 +567,7 @@ public class SolanaAccountAnalyzer {
         System.out.printf("區塊鏈數據: %s%n", solanaConfig.isEnableBlockchainData() ? "啟用" : "模擬");
         
         if (solanaConfig.isEnableBlockchainData()) {
-            boolean isHealthy = solanaService.checkConnectionHealth();
+            boolean isHealthy = nodeHealthMonitor.getStatus().isHealthy();
             System.out.printf("節點狀態: %s%n", isHealthy ? "✅ 正常" : "❌ 異常");
         } else {
             System.out.println("節點狀態: ⚠️ 已停用，使用模擬數據");
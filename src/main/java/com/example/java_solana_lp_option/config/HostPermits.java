@@ -0,0 +1,77 @@
+package com.example.java_solana_lp_option.config;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 單一主機的並行連線許可 - RestTemplate 呼叫以阻塞方式取得，Solana RPC 的非同步請求以 acquireAsync 排隊取得，
+ * 兩者共用同一個上限；許可釋放時依排隊順序轉交給下一個等待者
+ */
+public final class HostPermits {
+    
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int available;
+    
+    public HostPermits(int permits) {
+        this.available = Math.max(1, permits);
+    }
+    
+    /**
+     * 取得許可，不阻塞呼叫端；有空閒許可時回傳已完成的 future，否則排隊等待釋放
+     */
+    public synchronized CompletableFuture<Void> acquireAsync() {
+        if (available > 0 && waiters.isEmpty()) {
+            available--;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        return waiter;
+    }
+    
+    /**
+     * 阻塞直到取得許可
+     */
+    public void acquire() throws InterruptedException {
+        CompletableFuture<Void> waiter = acquireAsync();
+        try {
+            waiter.get();
+        } catch (InterruptedException e) {
+            // 撤回排隊；許可已轉交給此等待者時歸還
+            if (!withdraw(waiter)) {
+                release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    public void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = waiters.poll();
+            if (next == null) {
+                available++;
+                return;
+            }
+        }
+        
+        // 在共用執行緒池喚醒下一個等待者，不在釋放端（通常是回應完成的回呼）的呼叫堆疊中接續送出請求
+        CompletableFuture.runAsync(() -> next.complete(null));
+    }
+    
+    public synchronized int getAvailable() {
+        return available;
+    }
+    
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+    
+    private synchronized boolean withdraw(CompletableFuture<Void> waiter) {
+        return waiters.remove(waiter);
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.java_solana_lp_option.config;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 共用 HTTP 傳輸層 - 所有 Solana / DEX / 交易所呼叫共用同一個連線池
+ */
+@Component
+public class HttpTransport {
+    
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    
+    private final SolanaConfig solanaConfig;
+    private final UpstreamRateLimiter rateLimiter;
+    private final HttpClient httpClient;
+    private final ClientHttpRequestFactory defaultRequestFactory;
+    
+    // 每個主機的並行連線許可（RestTemplate 與 Solana RPC 共用）
+    private final Map<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+    
+    public HttpTransport(SolanaConfig solanaConfig, UpstreamRateLimiter rateLimiter) {
+        this.solanaConfig = solanaConfig;
+        this.rateLimiter = rateLimiter;
+        
+        this.httpClient = HttpClient.newBuilder()
+            .version(solanaConfig.isHttp2Enabled() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(solanaConfig.getConnectTimeout()))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        
+        this.defaultRequestFactory = requestFactory(solanaConfig.getReadTimeout(), null);
+        
+        System.out.printf("🔌 HTTP 傳輸層已建立: %s, gzip=%s, 每主機上限=%d%n",
+            httpClient.version(), solanaConfig.isGzipEnabled(), solanaConfig.getMaxConnectionsPerHost());
+    }
+    
+    /**
+     * 依 solana.keep-alive-timeout 設定 JDK HttpClient 的連線保持時間；此值是 JVM 全域的系統屬性，
+     * 只在第一個 HttpClient 建立前讀取一次，因此由 main 在環境載入後、任何 bean 建立前呼叫；
+     * 已以 -Djdk.httpclient.keepalive.timeout 指定時不覆寫
+     */
+    public static void configureKeepAlive(Environment environment) {
+        if (System.getProperty(KEEP_ALIVE_PROPERTY) != null) {
+            return;
+        }
+        long keepAliveMs = Binder.get(environment).bind("solana.keep-alive-timeout", Long.class)
+            .orElse(new SolanaConfig().getKeepAliveTimeout());
+        System.setProperty(KEEP_ALIVE_PROPERTY, String.valueOf(Math.max(1, keepAliveMs / 1000)));
+    }
+    
+    /**
+     * 共用的 JDK HttpClient（連線池與 TLS session 皆在此重用）
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+    
+    /**
+     * 使用預設讀取超時的請求工廠
+     */
+    public ClientHttpRequestFactory requestFactory() {
+        return defaultRequestFactory;
+    }
+    
+    /**
+     * 使用指定讀取超時的請求工廠，底層仍共用同一個連線池
+     */
+    public ClientHttpRequestFactory requestFactory(int readTimeoutMs) {
+        return requestFactory(readTimeoutMs, null);
+    }
+    
+    /**
+     * 使用預設讀取超時，並受指定上游令牌桶限速的請求工廠
+     */
+    public ClientHttpRequestFactory requestFactory(String upstream) {
+        return requestFactory(solanaConfig.getReadTimeout(), upstream);
+    }
+    
+    /**
+     * 使用指定讀取超時，並受指定上游令牌桶限速的請求工廠（upstream 為 null 時不限速）
+     */
+    public ClientHttpRequestFactory requestFactory(int readTimeoutMs, String upstream) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        
+        // 先取得速率額度，再佔用連線許可
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
+        if (upstream != null) {
+            interceptors.add(new RateLimitInterceptor(upstream));
+        }
+        interceptors.add(new HostLimitInterceptor());
+        if (solanaConfig.isGzipEnabled()) {
+            interceptors.add(new GzipInterceptor());
+        }
+        
+        return new InterceptingClientHttpRequestFactory(factory, interceptors);
+    }
+    
+    /**
+     * 取得主機的並行連線許可，上限由 SolanaConfig 設定；直接使用 httpClient 的呼叫端需自行取得與釋放
+     */
+    public HostPermits hostPermits(String host) {
+        return hostPermits.computeIfAbsent(host, key -> {
+            Integer limit = solanaConfig.getHostConnectionLimits().get(key);
+            return new HostPermits(limit != null ? limit : solanaConfig.getMaxConnectionsPerHost());
+        });
+    }
+    
+    /**
+     * 送出前向上游令牌桶取得額度，遇到 429 / 503 時依 Retry-After 暫停該上游
+     */
+    private class RateLimitInterceptor implements ClientHttpRequestInterceptor {
+        
+        private final String upstream;
+        
+        RateLimitInterceptor(String upstream) {
+            this.upstream = upstream;
+        }
+        
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                            ClientHttpRequestExecution execution) throws IOException {
+            try {
+                rateLimiter.acquire(upstream);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("等待速率額度時被中斷", e);
+            }
+            
+            ClientHttpResponse response = execution.execute(request, body);
+            int status = response.getStatusCode().value();
+            String retryAfter = response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+            if (status == 429 || (status == 503 && retryAfter != null)) {
+                rateLimiter.onRateLimited(upstream, retryAfter);
+            }
+            return response;
+        }
+    }
+    
+    /**
+     * 限制每個主機同時進行中的請求數，回應關閉時釋放許可
+     */
+    private class HostLimitInterceptor implements ClientHttpRequestInterceptor {
+        
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                            ClientHttpRequestExecution execution) throws IOException {
+            HostPermits permits = hostPermits(request.getURI().getHost());
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("等待連線許可時被中斷", e);
+            }
+            
+            try {
+                return new ResponseWrapper(execution.execute(request, body), permits, false);
+            } catch (IOException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * 要求 gzip 壓縮並在回應端解壓
+     */
+    private static class GzipInterceptor implements ClientHttpRequestInterceptor {
+        
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                            ClientHttpRequestExecution execution) throws IOException {
+            request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            ClientHttpResponse response = execution.execute(request, body);
+            
+            String encoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            if (encoding != null && encoding.toLowerCase().contains("gzip")) {
+                return new ResponseWrapper(response, null, true);
+            }
+            return response;
+        }
+    }
+    
+    /**
+     * 回應包裝：可選擇解壓 gzip 以及在關閉時釋放主機許可
+     */
+    private static class ResponseWrapper implements ClientHttpResponse {
+        
+        private final ClientHttpResponse delegate;
+        private final HostPermits permits;
+        private final boolean gzip;
+        private HttpHeaders headers;
+        private InputStream body;
+        private boolean closed;
+        
+        ResponseWrapper(ClientHttpResponse delegate, HostPermits permits, boolean gzip) {
+            this.delegate = delegate;
+            this.permits = permits;
+            this.gzip = gzip;
+        }
+        
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+        
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            if (!gzip) {
+                return delegate.getHeaders();
+            }
+            if (headers == null) {
+                // 解壓後內容長度與編碼已不同，移除對應標頭
+                HttpHeaders copy = new HttpHeaders();
+                delegate.getHeaders().forEach((name, values) -> {
+                    if (!HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                            && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                        copy.addAll(name, values);
+                    }
+                });
+                headers = copy;
+            }
+            return headers;
+        }
+        
+        @Override
+        public InputStream getBody() throws IOException {
+            if (!gzip) {
+                return delegate.getBody();
+            }
+            if (body == null) {
+                body = new GZIPInputStream(delegate.getBody());
+            }
+            return body;
+        }
+        
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                delegate.close();
+            } finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
@@ -4,6 +4,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Solana 相關配置 - 支援實際節點連接
  */
@@ -86,6 +89,82 @@ public class SolanaConfig {
     private int anchorCacheSize = 50;
     private long anchorCacheExpiry = 3600000; // 1 hour in milliseconds
     
+    /**
+     * JSON-RPC 批次請求配置
+     */
+    private int rpcBatchMaxSize = 50;
+    private long rpcBatchFlushDelay = 10; // 毫秒
+    private int rpcMaxConcurrentRequests = 32; // 同時進行中的非同步 RPC 請求上限
+    private long rpcCoalesceWindow = 500; // 相同請求完成後仍可共用結果的時間（毫秒）
+    
+    /**
+     * 多端點 RPC 路由配置（未設定時只使用 rpcUrl）
+     */
+    private String[] rpcEndpoints = {};
+    private long rpcProbeInterval = 10000; // 節點健康檢查間隔（毫秒），由 NodeHealthMonitor 使用
+    private double rpcMaxErrorRate = 0.5;
+    private long rpcMaxSlotLag = 50;
+    private long rpcEjectDuration = 30000; // 剔除後至少等待多久才重新加入
+    
+    /**
+     * 對沖請求與熔斷器配置
+     */
+    private boolean rpcHedgingEnabled = false;
+    private double rpcHedgePercentile = 0.95; // 以主要端點的此延遲百分位作為對沖延遲
+    private long rpcHedgeMinDelay = 100; // 毫秒
+    private boolean rpcCircuitBreakerEnabled = true;
+    private int rpcCircuitFailureThreshold = 5; // 連續失敗次數
+    private long rpcCircuitOpenDuration = 15000; // 毫秒
+    
+    /**
+     * 帳戶資料快取配置
+     */
+    private boolean accountCacheEnabled = true;
+    private long accountCacheTtl = 30000; // 毫秒
+    private long accountCacheMaxSlotAge = 150; // 約 1 分鐘的 slot 數
+    private long accountCacheMaxBytes = 64L * 1024 * 1024;
+    
+    /**
+     * 帳戶資料緩衝池配置
+     */
+    private boolean accountBufferDirect = false; // 使用 direct ByteBuffer
+    private int accountBufferPoolSize = 64; // 每個容量級距保留的緩衝區數量
+    private boolean accountZstdEnabled = true; // 優先以 base64+zstd 取回帳戶資料，節點不支援時自動改用 base64
+    
+    /**
+     * Tick array 快取配置（鏈上計算未領取手續費與獎勵）
+     */
+    private long tickArrayCacheCycle = 30000; // 毫秒，同一週期內每個 tick array 只讀取一次
+    
+    /**
+     * 交易歷史查詢配置（getSignaturesForAddress 分頁讀取）
+     */
+    private long transactionHistoryLimit = 10; // 最多讀取的簽名數
+    private int transactionHistoryDays = 0; // 只讀取最近幾天的簽名，0 為不限制
+    private int signaturePageSize = 1000; // 每頁筆數，節點上限為 1000
+    
+    /**
+     * RPC 錄製 / 回放配置：off、record（錄下實際的請求與回應）、replay（以錄製資料回應，不連接節點）
+     */
+    private String rpcFixtureMode = "off";
+    private String rpcFixturePath = "fixtures/solana-rpc.jsonl.gz";
+    private String rpcReplayLatency = "none"; // none、recorded、fixed:毫秒、uniform:最小:最大、lognormal:中位數:p99
+    private long rpcReplaySeed = 42;
+    
+    /**
+     * 上游速率限制（每秒請求數），鍵為 solana-rpc / deribit / raydium-api / taifex
+     */
+    private Map<String, Double> rateLimits = new HashMap<>();
+    
+    /**
+     * 共用 HTTP 傳輸層配置
+     */
+    private boolean http2Enabled = true;
+    private boolean gzipEnabled = true;
+    private long keepAliveTimeout = 300000; // 5 minutes in milliseconds
+    private int maxConnectionsPerHost = 16;
+    private Map<String, Integer> hostConnectionLimits = new HashMap<>(); // 依主機覆寫上限
+    
     // Getters and Setters
     public String getRpcUrl() {
         return rpcUrl;
@@ -231,6 +310,302 @@ public class SolanaConfig {
         this.anchorCacheExpiry = anchorCacheExpiry;
     }
     
+    public int getRpcBatchMaxSize() {
+        return rpcBatchMaxSize;
+    }
+    
+    public void setRpcBatchMaxSize(int rpcBatchMaxSize) {
+        this.rpcBatchMaxSize = rpcBatchMaxSize;
+    }
+    
+    public long getRpcBatchFlushDelay() {
+        return rpcBatchFlushDelay;
+    }
+    
+    public void setRpcBatchFlushDelay(long rpcBatchFlushDelay) {
+        this.rpcBatchFlushDelay = rpcBatchFlushDelay;
+    }
+    
+    public int getRpcMaxConcurrentRequests() {
+        return rpcMaxConcurrentRequests;
+    }
+    
+    public void setRpcMaxConcurrentRequests(int rpcMaxConcurrentRequests) {
+        this.rpcMaxConcurrentRequests = rpcMaxConcurrentRequests;
+    }
+    
+    public long getRpcCoalesceWindow() {
+        return rpcCoalesceWindow;
+    }
+    
+    public void setRpcCoalesceWindow(long rpcCoalesceWindow) {
+        this.rpcCoalesceWindow = rpcCoalesceWindow;
+    }
+    
+    public String[] getRpcEndpoints() {
+        return rpcEndpoints;
+    }
+    
+    public void setRpcEndpoints(String[] rpcEndpoints) {
+        this.rpcEndpoints = rpcEndpoints;
+    }
+    
+    public long getRpcProbeInterval() {
+        return rpcProbeInterval;
+    }
+    
+    public void setRpcProbeInterval(long rpcProbeInterval) {
+        this.rpcProbeInterval = rpcProbeInterval;
+    }
+    
+    public double getRpcMaxErrorRate() {
+        return rpcMaxErrorRate;
+    }
+    
+    public void setRpcMaxErrorRate(double rpcMaxErrorRate) {
+        this.rpcMaxErrorRate = rpcMaxErrorRate;
+    }
+    
+    public long getRpcMaxSlotLag() {
+        return rpcMaxSlotLag;
+    }
+    
+    public void setRpcMaxSlotLag(long rpcMaxSlotLag) {
+        this.rpcMaxSlotLag = rpcMaxSlotLag;
+    }
+    
+    public long getRpcEjectDuration() {
+        return rpcEjectDuration;
+    }
+    
+    public void setRpcEjectDuration(long rpcEjectDuration) {
+        this.rpcEjectDuration = rpcEjectDuration;
+    }
+    
+    public boolean isRpcHedgingEnabled() {
+        return rpcHedgingEnabled;
+    }
+    
+    public void setRpcHedgingEnabled(boolean rpcHedgingEnabled) {
+        this.rpcHedgingEnabled = rpcHedgingEnabled;
+    }
+    
+    public double getRpcHedgePercentile() {
+        return rpcHedgePercentile;
+    }
+    
+    public void setRpcHedgePercentile(double rpcHedgePercentile) {
+        this.rpcHedgePercentile = rpcHedgePercentile;
+    }
+    
+    public long getRpcHedgeMinDelay() {
+        return rpcHedgeMinDelay;
+    }
+    
+    public void setRpcHedgeMinDelay(long rpcHedgeMinDelay) {
+        this.rpcHedgeMinDelay = rpcHedgeMinDelay;
+    }
+    
+    public boolean isRpcCircuitBreakerEnabled() {
+        return rpcCircuitBreakerEnabled;
+    }
+    
+    public void setRpcCircuitBreakerEnabled(boolean rpcCircuitBreakerEnabled) {
+        this.rpcCircuitBreakerEnabled = rpcCircuitBreakerEnabled;
+    }
+    
+    public int getRpcCircuitFailureThreshold() {
+        return rpcCircuitFailureThreshold;
+    }
+    
+    public void setRpcCircuitFailureThreshold(int rpcCircuitFailureThreshold) {
+        this.rpcCircuitFailureThreshold = rpcCircuitFailureThreshold;
+    }
+    
+    public long getRpcCircuitOpenDuration() {
+        return rpcCircuitOpenDuration;
+    }
+    
+    public void setRpcCircuitOpenDuration(long rpcCircuitOpenDuration) {
+        this.rpcCircuitOpenDuration = rpcCircuitOpenDuration;
+    }
+    
+    public boolean isAccountCacheEnabled() {
+        return accountCacheEnabled;
+    }
+    
+    public void setAccountCacheEnabled(boolean accountCacheEnabled) {
+        this.accountCacheEnabled = accountCacheEnabled;
+    }
+    
+    public long getAccountCacheTtl() {
+        return accountCacheTtl;
+    }
+    
+    public void setAccountCacheTtl(long accountCacheTtl) {
+        this.accountCacheTtl = accountCacheTtl;
+    }
+    
+    public long getAccountCacheMaxSlotAge() {
+        return accountCacheMaxSlotAge;
+    }
+    
+    public void setAccountCacheMaxSlotAge(long accountCacheMaxSlotAge) {
+        this.accountCacheMaxSlotAge = accountCacheMaxSlotAge;
+    }
+    
+    public long getAccountCacheMaxBytes() {
+        return accountCacheMaxBytes;
+    }
+    
+    public void setAccountCacheMaxBytes(long accountCacheMaxBytes) {
+        this.accountCacheMaxBytes = accountCacheMaxBytes;
+    }
+    
+    public boolean isAccountBufferDirect() {
+        return accountBufferDirect;
+    }
+    
+    public void setAccountBufferDirect(boolean accountBufferDirect) {
+        this.accountBufferDirect = accountBufferDirect;
+    }
+    
+    public int getAccountBufferPoolSize() {
+        return accountBufferPoolSize;
+    }
+    
+    public void setAccountBufferPoolSize(int accountBufferPoolSize) {
+        this.accountBufferPoolSize = accountBufferPoolSize;
+    }
+    
+    public boolean isAccountZstdEnabled() {
+        return accountZstdEnabled;
+    }
+    
+    public void setAccountZstdEnabled(boolean accountZstdEnabled) {
+        this.accountZstdEnabled = accountZstdEnabled;
+    }
+    
+    public long getTickArrayCacheCycle() {
+        return tickArrayCacheCycle;
+    }
+    
+    public void setTickArrayCacheCycle(long tickArrayCacheCycle) {
+        this.tickArrayCacheCycle = tickArrayCacheCycle;
+    }
+    
+    public long getTransactionHistoryLimit() {
+        return transactionHistoryLimit;
+    }
+    
+    public void setTransactionHistoryLimit(long transactionHistoryLimit) {
+        this.transactionHistoryLimit = transactionHistoryLimit;
+    }
+    
+    public int getTransactionHistoryDays() {
+        return transactionHistoryDays;
+    }
+    
+    public void setTransactionHistoryDays(int transactionHistoryDays) {
+        this.transactionHistoryDays = transactionHistoryDays;
+    }
+    
+    public int getSignaturePageSize() {
+        return signaturePageSize;
+    }
+    
+    public void setSignaturePageSize(int signaturePageSize) {
+        this.signaturePageSize = signaturePageSize;
+    }
+    
+    public String getRpcFixtureMode() {
+        return rpcFixtureMode;
+    }
+    
+    public void setRpcFixtureMode(String rpcFixtureMode) {
+        this.rpcFixtureMode = rpcFixtureMode;
+    }
+    
+    public boolean isRpcRecording() {
+        return "record".equalsIgnoreCase(rpcFixtureMode);
+    }
+    
+    public boolean isRpcReplaying() {
+        return "replay".equalsIgnoreCase(rpcFixtureMode);
+    }
+    
+    public String getRpcFixturePath() {
+        return rpcFixturePath;
+    }
+    
+    public void setRpcFixturePath(String rpcFixturePath) {
+        this.rpcFixturePath = rpcFixturePath;
+    }
+    
+    public String getRpcReplayLatency() {
+        return rpcReplayLatency;
+    }
+    
+    public void setRpcReplayLatency(String rpcReplayLatency) {
+        this.rpcReplayLatency = rpcReplayLatency;
+    }
+    
+    public long getRpcReplaySeed() {
+        return rpcReplaySeed;
+    }
+    
+    public void setRpcReplaySeed(long rpcReplaySeed) {
+        this.rpcReplaySeed = rpcReplaySeed;
+    }
+    
+    public Map<String, Double> getRateLimits() {
+        return rateLimits;
+    }
+    
+    public void setRateLimits(Map<String, Double> rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+    
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+    
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+    
+    public boolean isGzipEnabled() {
+        return gzipEnabled;
+    }
+    
+    public void setGzipEnabled(boolean gzipEnabled) {
+        this.gzipEnabled = gzipEnabled;
+    }
+    
+    public long getKeepAliveTimeout() {
+        return keepAliveTimeout;
+    }
+    
+    public void setKeepAliveTimeout(long keepAliveTimeout) {
+        this.keepAliveTimeout = keepAliveTimeout;
+    }
+    
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+    
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+    
+    public Map<String, Integer> getHostConnectionLimits() {
+        return hostConnectionLimits;
+    }
+    
+    public void setHostConnectionLimits(Map<String, Integer> hostConnectionLimits) {
+        this.hostConnectionLimits = hostConnectionLimits;
+    }
+    
     /**
      * 檢查是否為主網
      */
@@ -0,0 +1,124 @@
+package com.example.java_solana_lp_option.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 令牌桶 - 以固定速率補充令牌，呼叫端先預約令牌再送出請求
+ */
+public class TokenBucket {
+    
+    private final String name;
+    private final double ratePerSecond;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    
+    // 令牌可為負數，代表已被預約、尚未補足的額度
+    private double tokens;
+    private long lastRefillNanos;
+    
+    public TokenBucket(String name, double ratePerSecond, double capacity) {
+        this(name, ratePerSecond, capacity, System::nanoTime);
+    }
+    
+    /**
+     * @param nanoClock 單調時鐘（奈秒），測試時可替換
+     */
+    TokenBucket(String name, double ratePerSecond, double capacity, LongSupplier nanoClock) {
+        this.name = name;
+        this.ratePerSecond = Math.max(0.001, ratePerSecond);
+        this.capacity = Math.max(1, capacity);
+        this.nanoClock = nanoClock;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+    
+    /**
+     * 預約一個令牌，回傳需要等待的奈秒數（0 表示可立即送出）
+     */
+    public synchronized long reserve() {
+        long now = nanoClock.getAsLong();
+        refill(now);
+        tokens -= 1;
+        
+        long pausedNanos = Math.max(0, lastRefillNanos - now);
+        if (tokens >= 0) {
+            return pausedNanos;
+        }
+        return pausedNanos + (long) (-tokens / ratePerSecond * 1_000_000_000L);
+    }
+    
+    /**
+     * 阻塞直到取得令牌
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+    
+    /**
+     * 非阻塞地取得令牌，等待期間不佔用執行緒
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+    
+    /**
+     * 有可立即使用的令牌時取得並回傳 true；暫停中或額度不足時不預約，回傳 false
+     */
+    public synchronized boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        refill(now);
+        if (lastRefillNanos > now || tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+    
+    /**
+     * 上游要求暫停（例如 Retry-After），期間不補充令牌
+     */
+    public synchronized void pauseFor(long millis) {
+        long now = nanoClock.getAsLong();
+        refill(now);
+        
+        long resumeAt = now + TimeUnit.MILLISECONDS.toNanos(millis);
+        if (resumeAt > lastRefillNanos) {
+            lastRefillNanos = resumeAt;
+            tokens = Math.min(tokens, 1);
+        }
+    }
+    
+    /**
+     * 目前可立即使用的令牌數（暫停中為 0）
+     */
+    public synchronized double getAvailableTokens() {
+        long now = nanoClock.getAsLong();
+        refill(now);
+        return lastRefillNanos > now ? 0 : Math.max(0, tokens);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+    
+    private void refill(long now) {
+        if (now > lastRefillNanos) {
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerSecond / 1_000_000_000L);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.java_solana_lp_option.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 上游速率限制 - 每個外部服務一個令牌桶，送出請求前先取得令牌；
+ * 各令牌桶的剩餘額度以 upstream.ratelimit.remaining（標籤 upstream）輸出
+ */
+@Component
+public class UpstreamRateLimiter {
+    
+    public static final String SOLANA_RPC = "solana-rpc";
+    public static final String DERIBIT = "deribit";
+    public static final String RAYDIUM_API = "raydium-api";
+    public static final String TAIFEX = "taifex";
+    
+    // 各上游預設每秒請求數，可由 solana.rate-limits 覆寫
+    private static final Map<String, Double> DEFAULT_RATES = new LinkedHashMap<>();
+    static {
+        DEFAULT_RATES.put(SOLANA_RPC, 10.0);
+        DEFAULT_RATES.put(DERIBIT, 20.0);
+        DEFAULT_RATES.put(RAYDIUM_API, 5.0);
+        DEFAULT_RATES.put(TAIFEX, 2.0);
+    }
+    
+    private final SolanaConfig solanaConfig;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    
+    public UpstreamRateLimiter(SolanaConfig solanaConfig, MeterRegistry meterRegistry) {
+        this.solanaConfig = solanaConfig;
+        this.meterRegistry = meterRegistry;
+        
+        for (String upstream : DEFAULT_RATES.keySet()) {
+            bucket(upstream);
+        }
+    }
+    
+    /**
+     * 取得上游的令牌桶，容量為一秒的請求量
+     */
+    public TokenBucket bucket(String upstream) {
+        return buckets.computeIfAbsent(upstream, key -> {
+            Double rate = solanaConfig.getRateLimits().get(key);
+            if (rate == null) {
+                rate = DEFAULT_RATES.getOrDefault(key, 10.0);
+            }
+            TokenBucket bucket = new TokenBucket(key, rate, rate);
+            Gauge.builder("upstream.ratelimit.remaining", bucket, TokenBucket::getAvailableTokens)
+                .description("上游令牌桶剩餘的可立即使用額度")
+                .tag("upstream", key)
+                .register(meterRegistry);
+            return bucket;
+        });
+    }
+    
+    public void acquire(String upstream) throws InterruptedException {
+        bucket(upstream).acquire();
+    }
+    
+    public CompletableFuture<Void> acquireAsync(String upstream) {
+        return bucket(upstream).acquireAsync();
+    }
+    
+    /**
+     * 有可立即使用的令牌時取得並回傳 true，否則不預約、回傳 false（供可省略的請求使用，例如對沖）
+     */
+    public boolean tryAcquire(String upstream) {
+        return bucket(upstream).tryAcquire();
+    }
+    
+    /**
+     * 上游回應限流時暫停該令牌桶；優先採用 Retry-After，沒有時使用 retryDelay
+     */
+    public void onRateLimited(String upstream, String retryAfter) {
+        long pauseMs = parseRetryAfter(retryAfter);
+        if (pauseMs < 0) {
+            pauseMs = solanaConfig.getRetryDelay();
+        }
+        
+        bucket(upstream).pauseFor(pauseMs);
+        System.out.printf("⏳ %s 限流，暫停 %dms%n", upstream, pauseMs);
+    }
+    
+    /**
+     * 上游剩餘的可立即使用額度
+     */
+    public double getRemainingBudget(String upstream) {
+        return bucket(upstream).getAvailableTokens();
+    }
+    
+    public Collection<TokenBucket> getBuckets() {
+        return buckets.values();
+    }
+    
+    /**
+     * 解析 Retry-After（秒數或 HTTP 日期），無法解析時回傳 -1
+     */
+    static long parseRetryAfter(String retryAfter) {
+        return parseRetryAfter(retryAfter, Clock.systemUTC());
+    }
+    
+    /**
+     * 解析 Retry-After，HTTP 日期以 clock 的目前時間計算剩餘毫秒數
+     */
+    static long parseRetryAfter(String retryAfter, Clock clock) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value) * 1000));
+        } catch (NumberFormatException e) {
+            // 不是秒數，嘗試 HTTP 日期格式
+        }
+        
+        try {
+            ZonedDateTime until = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(clock.instant(), until.toInstant()).toMillis());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
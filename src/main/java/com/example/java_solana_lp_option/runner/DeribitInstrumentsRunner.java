@@ -2,6 +2,8 @@ package com.example.java_solana_lp_option.runner;
 
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import com.example.java_solana_lp_option.config.HttpTransport;
+import com.example.java_solana_lp_option.config.UpstreamRateLimiter;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -30,8 +32,8 @@ public class DeribitInstrumentsRunner implements CommandLineRunner {
     @Autowired
     private ApplicationContext applicationContext;
 
-    public DeribitInstrumentsRunner() {
-        this.restTemplate = new RestTemplate();
+    public DeribitInstrumentsRunner(HttpTransport httpTransport) {
+        this.restTemplate = new RestTemplate(httpTransport.requestFactory(UpstreamRateLimiter.DERIBIT));
         this.objectMapper = new ObjectMapper();
         this.dateFormatter = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
     }
@@ -156,7 +158,7 @@ public class DeribitInstrumentsRunner implements CommandLineRunner {
     }
     
     /**
-     * 逐一處理工具列表，每0.5秒傳送一個給 OrderBookRunner
+     * 逐一處理工具列表傳送給 OrderBookRunner，請求節奏由 Deribit 令牌桶控制
      */
     private void processInstrumentsWithDelay(List<String> instruments) {
         try {
@@ -187,16 +189,6 @@ public class DeribitInstrumentsRunner implements CommandLineRunner {
                     // 呼叫 OrderBookRunner 的方法
                     orderBookRunner.fetchOrderBookData(instrumentName);
                     
-                    // 如果不是最後一個，等待0.5秒
-                    if (i < instruments.size() - 1) {
-                        System.out.println("⏱️  等待 0.5 秒後處理下一個工具...");
-                        Thread.sleep(500); // 等待0.5秒
-                    }
-                    
-                } catch (InterruptedException e) {
-                    System.err.println("❌ 延遲中斷: " + e.getMessage());
-                    Thread.currentThread().interrupt();
-                    break;
                 } catch (Exception e) {
                     System.err.printf("❌ 處理工具 %s 時發生錯誤: %s%n", instrumentName, e.getMessage());
                     // 繼續處理下一個工具
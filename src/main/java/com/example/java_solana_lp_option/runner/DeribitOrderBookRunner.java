@@ -6,6 +6,8 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.example.java_solana_lp_option.config.HttpTransport;
+import com.example.java_solana_lp_option.config.UpstreamRateLimiter;
 import com.example.java_solana_lp_option.entity.OptionData;
 import com.example.java_solana_lp_option.repository.OptionDataRepository;
 import java.time.Instant;
@@ -23,8 +25,8 @@ public class DeribitOrderBookRunner implements CommandLineRunner {
     private final DateTimeFormatter dateFormatter;
     private final OptionDataRepository optionDataRepository;
 
-    public DeribitOrderBookRunner(OptionDataRepository optionDataRepository) {
-        this.restTemplate = new RestTemplate();
+    public DeribitOrderBookRunner(OptionDataRepository optionDataRepository, HttpTransport httpTransport) {
+        this.restTemplate = new RestTemplate(httpTransport.requestFactory(UpstreamRateLimiter.DERIBIT));
         this.objectMapper = new ObjectMapper();
         this.dateFormatter = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
         this.optionDataRepository = optionDataRepository;
@@ -1,5 +1,7 @@
 package com.example.java_solana_lp_option.runner;
 
+import com.example.java_solana_lp_option.config.HttpTransport;
+import com.example.java_solana_lp_option.config.UpstreamRateLimiter;
 import com.example.java_solana_lp_option.entity.RaydiumV3PoolData; // 新增導入
 import com.example.java_solana_lp_option.repository.RaydiumV3PoolDataRepository; // 新增導入
 import com.fasterxml.jackson.databind.JsonNode;
@@ -9,7 +11,6 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -28,12 +29,10 @@ public class RaydiumV3PoolInfoFetcher {
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final int API_TIMEOUT_MS = 15000; // 15 秒超時
 
-    public RaydiumV3PoolInfoFetcher(RaydiumV3PoolDataRepository raydiumV3PoolDataRepository) {
+    public RaydiumV3PoolInfoFetcher(RaydiumV3PoolDataRepository raydiumV3PoolDataRepository, HttpTransport httpTransport) {
         this.objectMapper = new ObjectMapper();
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(API_TIMEOUT_MS);
-        factory.setReadTimeout(API_TIMEOUT_MS);
-        this.restTemplate = new RestTemplate(factory);
+        // 共用連線池，僅讀取超時使用本 API 的設定
+        this.restTemplate = new RestTemplate(httpTransport.requestFactory(API_TIMEOUT_MS, UpstreamRateLimiter.RAYDIUM_API));
         this.raydiumV3PoolDataRepository = raydiumV3PoolDataRepository; // 初始化 Repository
         // 應用程式啟動時執行一次獲取和顯示，以及儲存
         fetchAndProcessPoolInfo();
@@ -9,6 +9,8 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.example.java_solana_lp_option.config.HttpTransport;
+import com.example.java_solana_lp_option.config.UpstreamRateLimiter;
 import com.example.java_solana_lp_option.entity.TaifexOptionData;
 import com.example.java_solana_lp_option.entity.TaifexOptionDelta;
 import com.example.java_solana_lp_option.repository.TaifexOptionDataRepository;
@@ -31,8 +33,9 @@ public class TaifexOptionRunner implements CommandLineRunner {
     private final TaifexOptionDeltaRepository taifexOptionDeltaRepository;
 
     public TaifexOptionRunner(TaifexOptionDataRepository taifexOptionDataRepository, 
-                              TaifexOptionDeltaRepository taifexOptionDeltaRepository) {
-        this.restTemplate = new RestTemplate();
+                              TaifexOptionDeltaRepository taifexOptionDeltaRepository,
+                              HttpTransport httpTransport) {
+        this.restTemplate = new RestTemplate(httpTransport.requestFactory(UpstreamRateLimiter.TAIFEX));
         // 設定 RestTemplate 使用 UTF-8 編碼
         this.restTemplate.getMessageConverters()
                 .add(0, new StringHttpMessageConverter(StandardCharsets.UTF_8));
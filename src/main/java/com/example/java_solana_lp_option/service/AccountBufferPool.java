@@ -0,0 +1,156 @@
+package com.example.java_solana_lp_option.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 帳戶資料緩衝池 - 依 2 的冪次容量分級保存 ByteBuffer，讓 base64 解碼重複使用同一批緩衝區，
+ * 避免每次讀取帳戶都配置新的位元組陣列
+ */
+public class AccountBufferPool {
+    
+    private static final int MIN_SHIFT = 8;  // 最小級距 256 bytes
+    private static final int MAX_SHIFT = 24; // 最大級距 16 MiB（Solana 帳戶上限為 10 MiB）
+    private static final int MAX_DECOMPRESSED = 1 << MAX_SHIFT; // 超過時不信任 frame 標頭記錄的長度
+    
+    private final boolean direct;
+    private final int maxPerClass;
+    private final Queue<ByteBuffer>[] free;
+    private final AtomicInteger[] freeCounts;
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    
+    @SuppressWarnings("unchecked")
+    public AccountBufferPool(boolean direct, int maxPerClass) {
+        this.direct = direct;
+        this.maxPerClass = Math.max(0, maxPerClass);
+        this.free = new Queue[MAX_SHIFT - MIN_SHIFT + 1];
+        this.freeCounts = new AtomicInteger[free.length];
+        for (int i = 0; i < free.length; i++) {
+            free[i] = new ConcurrentLinkedQueue<>();
+            freeCounts[i] = new AtomicInteger();
+        }
+    }
+    
+    /**
+     * 取得容量至少為 size 的緩衝區，limit 設為 size
+     */
+    public ByteBuffer acquire(int size) {
+        int index = classIndex(size);
+        if (index >= free.length) {
+            // 超過最大級距的不進入緩衝池
+            allocated.incrementAndGet();
+            return allocate(size);
+        }
+        
+        ByteBuffer buffer = free[index].poll();
+        if (buffer != null) {
+            freeCounts[index].decrementAndGet();
+            reused.incrementAndGet();
+        } else {
+            allocated.incrementAndGet();
+            buffer = allocate(1 << (index + MIN_SHIFT));
+        }
+        buffer.clear().limit(size);
+        return buffer;
+    }
+    
+    /**
+     * 歸還緩衝區；該級距已滿時直接丟棄交給 GC
+     */
+    public void release(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        int index = classIndex(capacity);
+        if (index >= free.length || capacity != 1 << (index + MIN_SHIFT) || buffer.isDirect() != direct) {
+            return;
+        }
+        
+        if (freeCounts[index].incrementAndGet() > maxPerClass) {
+            freeCounts[index].decrementAndGet();
+            return;
+        }
+        free[index].offer(buffer);
+    }
+    
+    /**
+     * 將 base64 字元直接解碼到池中的緩衝區，使用完畢需 release()
+     */
+    public AccountBytes decodeBase64(CharSequence base64) {
+        int size = AccountBytes.decodedLength(base64);
+        ByteBuffer buffer = acquire(size);
+        try {
+            AccountBytes.decodeBase64(base64, buffer);
+        } catch (RuntimeException e) {
+            release(buffer);
+            throw e;
+        }
+        return new AccountBytes(buffer, size, this);
+    }
+    
+    /**
+     * 將 base64+zstd 資料解碼並串流解壓縮到池中的緩衝區，使用完畢需 release()
+     */
+    public AccountBytes decodeBase64Zstd(CharSequence base64) throws IOException {
+        try (AccountBytes compressed = decodeBase64(base64)) {
+            long contentSize = ZstdDecompressor.frameContentSize(compressed.buffer());
+            int initialCapacity = contentSize >= 0 && contentSize <= MAX_DECOMPRESSED
+                ? (int) contentSize : compressed.length() * 4;
+            return decompressPooled(compressed, initialCapacity);
+        }
+    }
+    
+    /**
+     * 將 base64+zstd 資料解壓縮到剛好等長的獨立 heap 陣列（供快取長期保存，不屬於緩衝池）；
+     * 只有壓縮資料暫用池中的緩衝區，frame 標頭未記錄長度時才先解壓到池中再複製
+     */
+    public AccountBytes decodeBase64ZstdUnpooled(CharSequence base64) throws IOException {
+        try (AccountBytes compressed = decodeBase64(base64)) {
+            long contentSize = ZstdDecompressor.frameContentSize(compressed.buffer());
+            if (contentSize < 0 || contentSize > MAX_DECOMPRESSED) {
+                try (AccountBytes decompressed = decompressPooled(compressed, compressed.length() * 4)) {
+                    return AccountBytes.wrap(decompressed.toByteArray());
+                }
+            }
+            
+            byte[] data = new byte[(int) contentSize];
+            ZstdDecompressor.decompress(compressed, data);
+            return AccountBytes.wrap(data);
+        }
+    }
+    
+    public boolean isDirect() { return direct; }
+    public long getAllocatedCount() { return allocated.get(); }
+    public long getReusedCount() { return reused.get(); }
+    
+    public int getPooledCount() {
+        int total = 0;
+        for (AtomicInteger count : freeCounts) {
+            total += count.get();
+        }
+        return total;
+    }
+    
+    private AccountBytes decompressPooled(AccountBytes compressed, int initialCapacity) throws IOException {
+        PooledOutputStream out = new PooledOutputStream(this, initialCapacity);
+        try {
+            ZstdDecompressor.decompress(compressed, out);
+            return out.detach();
+        } catch (IOException | RuntimeException e) {
+            out.release();
+            throw e;
+        }
+    }
+    
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+    
+    private static int classIndex(int size) {
+        int shift = size <= 1 << MIN_SHIFT ? MIN_SHIFT : 32 - Integer.numberOfLeadingZeros(size - 1);
+        return shift - MIN_SHIFT;
+    }
+}
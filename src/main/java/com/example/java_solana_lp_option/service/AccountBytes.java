@@ -0,0 +1,197 @@
+package com.example.java_solana_lp_option.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * 帳戶資料的唯讀位元組視圖 - 底層為 little-endian 的 ByteBuffer（heap 或 direct），
+ * 可能來自緩衝池，解析完成後呼叫 release() 歸還
+ *
+ * 以絕對位置讀取（getInt(offset) 等）不會改變內部狀態，可由多個執行緒同時讀取
+ */
+public final class AccountBytes implements AutoCloseable {
+    
+    private static final int[] BASE64_VALUES = new int[128];
+    static {
+        Arrays.fill(BASE64_VALUES, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = i;
+        }
+    }
+    
+    private final ByteBuffer buffer;
+    private final int length;
+    private final AccountBufferPool pool; // null 表示不屬於緩衝池
+    private volatile boolean released;
+    
+    AccountBytes(ByteBuffer buffer, int length, AccountBufferPool pool) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.length = length;
+        this.pool = pool;
+    }
+    
+    /**
+     * 包裝既有的位元組陣列（不複製、不屬於緩衝池）
+     */
+    public static AccountBytes wrap(byte[] data) {
+        return new AccountBytes(ByteBuffer.wrap(data), data.length, null);
+    }
+    
+    /**
+     * 將 base64 字元直接解碼成獨立的 heap 緩衝區（供快取長期保存）
+     */
+    public static AccountBytes decodeBase64(CharSequence base64) {
+        int size = decodedLength(base64);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        decodeBase64(base64, buffer);
+        return new AccountBytes(buffer, size, null);
+    }
+    
+    public int length() { return length; }
+    public boolean isPooled() { return pool != null; }
+    
+    public byte get(int offset) {
+        checkRange(offset, 1);
+        return buffer.get(offset);
+    }
+    
+    public int getUnsignedByte(int offset) {
+        return get(offset) & 0xFF;
+    }
+    
+    public short getShort(int offset) {
+        checkRange(offset, 2);
+        return buffer.getShort(offset);
+    }
+    
+    public int getUnsignedShort(int offset) {
+        return getShort(offset) & 0xFFFF;
+    }
+    
+    public int getInt(int offset) {
+        checkRange(offset, 4);
+        return buffer.getInt(offset);
+    }
+    
+    public long getLong(int offset) {
+        checkRange(offset, 8);
+        return buffer.getLong(offset);
+    }
+    
+    /**
+     * 將 [offset, offset + dst.length) 複製到 dst
+     */
+    public void getBytes(int offset, byte[] dst) {
+        checkRange(offset, dst.length);
+        buffer.get(offset, dst);
+    }
+    
+    /**
+     * 獨立的 little-endian 讀取視圖（position 0、limit 為資料長度），可自由移動 position
+     */
+    public ByteBuffer buffer() {
+        checkReleased();
+        ByteBuffer view = buffer.duplicate();
+        view.position(0).limit(length);
+        return view.order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    /**
+     * [offset, offset + size) 範圍的 little-endian 讀取視圖，不複製資料
+     */
+    public ByteBuffer slice(int offset, int size) {
+        checkRange(offset, size);
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset).limit(offset + size);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    /**
+     * 複製出獨立的位元組陣列
+     */
+    public byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        getBytes(0, copy);
+        return copy;
+    }
+    
+    /**
+     * 歸還緩衝區；之後不可再讀取。非緩衝池來源時為 no-op
+     */
+    public void release() {
+        if (pool == null || released) {
+            return;
+        }
+        released = true;
+        pool.release(buffer);
+    }
+    
+    @Override
+    public void close() {
+        release();
+    }
+    
+    private void checkRange(int offset, int size) {
+        checkReleased();
+        if (offset < 0 || size < 0 || offset + size > length) {
+            throw new IndexOutOfBoundsException(
+                String.format("offset %d + %d 超出帳戶資料長度 %d", offset, size, length));
+        }
+    }
+    
+    private void checkReleased() {
+        if (released) {
+            throw new IllegalStateException("帳戶資料緩衝區已歸還");
+        }
+    }
+    
+    /**
+     * base64 解碼後的位元組數
+     */
+    static int decodedLength(CharSequence base64) {
+        int chars = base64.length();
+        int padding = 0;
+        if (chars > 0 && base64.charAt(chars - 1) == '=') padding++;
+        if (chars > 1 && base64.charAt(chars - 2) == '=') padding++;
+        return chars / 4 * 3 - padding;
+    }
+    
+    /**
+     * 將 base64 字元逐一解碼寫入 dst 的 [0, decodedLength)，不建立中間陣列
+     */
+    static void decodeBase64(CharSequence base64, ByteBuffer dst) {
+        int chars = base64.length();
+        if (chars % 4 != 0) {
+            throw new IllegalArgumentException("base64 長度必須是 4 的倍數: " + chars);
+        }
+        
+        int out = 0;
+        for (int i = 0; i < chars; i += 4) {
+            int c0 = value(base64.charAt(i));
+            int c1 = value(base64.charAt(i + 1));
+            char ch2 = base64.charAt(i + 2);
+            char ch3 = base64.charAt(i + 3);
+            
+            dst.put(out++, (byte) (c0 << 2 | c1 >> 4));
+            if (ch2 == '=') {
+                break;
+            }
+            int c2 = value(ch2);
+            dst.put(out++, (byte) (c1 << 4 | c2 >> 2));
+            if (ch3 == '=') {
+                break;
+            }
+            dst.put(out++, (byte) (c2 << 6 | value(ch3)));
+        }
+    }
+    
+    private static int value(char c) {
+        int v = c < 128 ? BASE64_VALUES[c] : -1;
+        if (v < 0) {
+            throw new IllegalArgumentException("非法的 base64 字元: " + c);
+        }
+        return v;
+    }
+}
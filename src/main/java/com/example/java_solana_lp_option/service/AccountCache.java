@@ -0,0 +1,178 @@
+package com.example.java_solana_lp_option.service;
+
+import com.example.java_solana_lp_option.util.Pubkey;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 帳戶資料快取 - 以 pubkey + commitment 為鍵保存解碼後的帳戶位元組與其 context slot，
+ * 依 TTL 與 slot 落後程度失效，超過容量上限時以 LRU 淘汰
+ */
+public class AccountCache {
+    
+    private final long ttlMs;
+    private final long maxSlotAge;
+    private final long maxBytes;
+    
+    // accessOrder = true，迭代順序即為最久未使用到最近使用
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private long highestSlot;
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    public AccountCache(long ttlMs, long maxSlotAge, long maxBytes) {
+        this.ttlMs = ttlMs;
+        this.maxSlotAge = maxSlotAge;
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * 取得 slot 不低於 minSlot 且尚未過期的帳戶資料，沒有時回傳 null
+     */
+    public synchronized SolanaService.AccountData get(String pubkey, String commitment, long minSlot) {
+        Key key = Key.of(pubkey, commitment);
+        Entry entry = key != null ? entries.get(key) : null;
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        
+        if (isExpired(entry, System.currentTimeMillis())) {
+            remove(key);
+            misses++;
+            return null;
+        }
+        
+        if (entry.account.getSlot() < minSlot) {
+            misses++;
+            return null;
+        }
+        
+        hits++;
+        return entry.account;
+    }
+    
+    /**
+     * 放入帳戶資料；已有較新 slot 的資料時不覆蓋
+     */
+    public synchronized void put(String commitment, SolanaService.AccountData account) {
+        observeSlot(account.getSlot());
+        
+        Key key = Key.of(account.getPubkey(), commitment);
+        if (key == null) {
+            return;
+        }
+        Entry existing = entries.get(key);
+        if (existing != null && existing.account.getSlot() > account.getSlot()) {
+            return;
+        }
+        if (existing != null) {
+            remove(key);
+        }
+        
+        int size = account.getData().length();
+        if (size > maxBytes) {
+            return;
+        }
+        
+        entries.put(key, new Entry(account, System.currentTimeMillis()));
+        totalBytes += size;
+        
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.account.getData().length();
+            evictions++;
+        }
+    }
+    
+    /**
+     * 記錄觀察到的最新 slot，用於判斷快取資料的 slot 落後程度
+     */
+    public synchronized void observeSlot(long slot) {
+        if (slot > highestSlot) {
+            highestSlot = slot;
+        }
+    }
+    
+    public synchronized void invalidate(String pubkey, String commitment) {
+        Key key = Key.of(pubkey, commitment);
+        if (key != null) {
+            remove(key);
+        }
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+    
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getTotalBytes() { return totalBytes; }
+    public synchronized long getHighestSlot() { return highestSlot; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    
+    private boolean isExpired(Entry entry, long now) {
+        if (ttlMs > 0 && now - entry.storedAt > ttlMs) {
+            return true;
+        }
+        return maxSlotAge > 0 && highestSlot - entry.account.getSlot() > maxSlotAge;
+    }
+    
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.account.getData().length();
+        }
+    }
+    
+    /**
+     * pubkey + commitment；不是合法 pubkey 的字串不進入快取
+     */
+    private static final class Key {
+        private final Pubkey pubkey;
+        private final String commitment;
+        
+        private Key(Pubkey pubkey, String commitment) {
+            this.pubkey = pubkey;
+            this.commitment = commitment;
+        }
+        
+        static Key of(String pubkey, String commitment) {
+            Pubkey key = Pubkey.tryOf(pubkey);
+            return key != null ? new Key(key, commitment) : null;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return pubkey.equals(key.pubkey) && Objects.equals(commitment, key.commitment);
+        }
+        
+        @Override
+        public int hashCode() {
+            return pubkey.hashCode() * 31 + Objects.hashCode(commitment);
+        }
+    }
+    
+    private static class Entry {
+        private final SolanaService.AccountData account;
+        private final long storedAt;
+        
+        Entry(SolanaService.AccountData account, long storedAt) {
+            this.account = account;
+            this.storedAt = storedAt;
+        }
+    }
+}
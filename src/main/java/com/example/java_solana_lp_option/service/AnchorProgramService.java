@@ -1,17 +1,19 @@
 package com.example.java_solana_lp_option.service;
 
+import com.example.java_solana_lp_option.config.HttpTransport;
 import com.example.java_solana_lp_option.config.SolanaConfig;
+import com.example.java_solana_lp_option.util.Pubkey;
+import com.example.java_solana_lp_option.util.PubkeyInterner;
+import com.example.java_solana_lp_option.util.TickMath;
+import com.example.java_solana_lp_option.util.U128;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.Base64;
 
 /**
  * Anchor 程式數據服務 - 專門處理 Anchor 程式的識別、IDL 解析和帳戶數據解碼
@@ -25,71 +27,68 @@ public class AnchorProgramService {
     private final ObjectMapper objectMapper;
     
     // 快取已知的程式資訊
-    private final Map<String, AnchorProgramInfo> programCache = new ConcurrentHashMap<>();
+    private final Map<Pubkey, AnchorProgramInfo> programCache = new ConcurrentHashMap<>();
     
     // 已知的 Anchor 程式清單
-    private static final Map<String, String> KNOWN_ANCHOR_PROGRAMS = new HashMap<>();
+    private static final Map<Pubkey, String> KNOWN_ANCHOR_PROGRAMS = new HashMap<>();
     
     static {
         // Raydium
-        KNOWN_ANCHOR_PROGRAMS.put("CAMMCzo5YL8w4VFF8KVHrK22GGUsp5VTaW7grrKgrWqK", "Raydium CLMM");
-        KNOWN_ANCHOR_PROGRAMS.put("675kPX9MHTjS2zt1qfr1NYHuzeLXfQM9H24wFSUt1Mp8", "Raydium AMM V4");
-        KNOWN_ANCHOR_PROGRAMS.put("5Q544fKrFoe6tsEbD7S8EmxGTJYAKtTVhAW5Q5pge4j1", "Raydium Pool");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("CAMMCzo5YL8w4VFF8KVHrK22GGUsp5VTaW7grrKgrWqK"), "Raydium CLMM");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("675kPX9MHTjS2zt1qfr1NYHuzeLXfQM9H24wFSUt1Mp8"), "Raydium AMM V4");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("5Q544fKrFoe6tsEbD7S8EmxGTJYAKtTVhAW5Q5pge4j1"), "Raydium Pool");
         
         // Orca
-        KNOWN_ANCHOR_PROGRAMS.put("whirLbMiicVdio4qvUfM5KAg6Ct8VwpYzGff3uctyCc", "Orca Whirlpool");
-        KNOWN_ANCHOR_PROGRAMS.put("9W959DqEETiGZocYWCQPaJ6sBmUzgfxXfqGeTEdp3aQP", "Orca Pool");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("whirLbMiicVdio4qvUfM5KAg6Ct8VwpYzGff3uctyCc"), "Orca Whirlpool");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("9W959DqEETiGZocYWCQPaJ6sBmUzgfxXfqGeTEdp3aQP"), "Orca Pool");
         
         // Jupiter
-        KNOWN_ANCHOR_PROGRAMS.put("JUP6LkbZbjS1jKKwapdHNy74zcZ3tLUZoi5QNyVTaV4", "Jupiter V6");
-        KNOWN_ANCHOR_PROGRAMS.put("JUP4Fb2cqiRUcaTHdrPC8h2gNsA2ETXiPDD33WcGuJB", "Jupiter V4");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("JUP6LkbZbjS1jKKwapdHNy74zcZ3tLUZoi5QNyVTaV4"), "Jupiter V6");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("JUP4Fb2cqiRUcaTHdrPC8h2gNsA2ETXiPDD33WcGuJB"), "Jupiter V4");
         
         // Meteora
-        KNOWN_ANCHOR_PROGRAMS.put("Eo7WjKq67rjJQSZxS6z3YkapzY3eMj6Xy8X5EQVn5UaB", "Meteora DLMM");
-        KNOWN_ANCHOR_PROGRAMS.put("24Uqj9JCLxUeoC3hGfh5W3s9FM9uCHDS2SG3LYwBpyTi", "Meteora Pool");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("Eo7WjKq67rjJQSZxS6z3YkapzY3eMj6Xy8X5EQVn5UaB"), "Meteora DLMM");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("24Uqj9JCLxUeoC3hGfh5W3s9FM9uCHDS2SG3LYwBpyTi"), "Meteora Pool");
         
         // Serum
-        KNOWN_ANCHOR_PROGRAMS.put("9xQeWvG816bUx9EPjHmaT23yvVM2ZWbrrpZb9PusVFin", "Serum DEX V3");
-        KNOWN_ANCHOR_PROGRAMS.put("EhpbDdUQ7peFg1rGTGNmcPG93FzyWnKMvBXbXDjqLKKU", "Serum Pool");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("9xQeWvG816bUx9EPjHmaT23yvVM2ZWbrrpZb9PusVFin"), "Serum DEX V3");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("EhpbDdUQ7peFg1rGTGNmcPG93FzyWnKMvBXbXDjqLKKU"), "Serum Pool");
         
         // Mango
-        KNOWN_ANCHOR_PROGRAMS.put("mv3ekLzLbnVPNxjSKvqBpU3ZeZXPQdEC3bp5MDEBG68", "Mango V3");
-        KNOWN_ANCHOR_PROGRAMS.put("4MangoMjqJ2firMokCjjGgoK8d4MXcrgL7XJaL3w6fVg", "Mango V4");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("mv3ekLzLbnVPNxjSKvqBpU3ZeZXPQdEC3bp5MDEBG68"), "Mango V3");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("4MangoMjqJ2firMokCjjGgoK8d4MXcrgL7XJaL3w6fVg"), "Mango V4");
         
         // Solend
-        KNOWN_ANCHOR_PROGRAMS.put("So1endDq2YkqhipRh3WViPa8hdiSpxWy6z3Z6tMCpAo", "Solend");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("So1endDq2YkqhipRh3WViPa8hdiSpxWy6z3Z6tMCpAo"), "Solend");
         
         // Phoenix
-        KNOWN_ANCHOR_PROGRAMS.put("PhoeNiXZ8ByJGLkxNfZRnkUfjvmuYqLR89jjFHGqdXY", "Phoenix DEX");
+        KNOWN_ANCHOR_PROGRAMS.put(Pubkey.of("PhoeNiXZ8ByJGLkxNfZRnkUfjvmuYqLR89jjFHGqdXY"), "Phoenix DEX");
     }
     
-    public AnchorProgramService(SolanaService solanaService, SolanaConfig solanaConfig) {
+    public AnchorProgramService(SolanaService solanaService, SolanaConfig solanaConfig, HttpTransport httpTransport) {
         this.solanaService = solanaService;
         this.solanaConfig = solanaConfig;
         this.objectMapper = new ObjectMapper();
         
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(solanaConfig.getConnectTimeout());
-        factory.setReadTimeout(solanaConfig.getReadTimeout());
-        this.restTemplate = new RestTemplate(factory);
+        this.restTemplate = new RestTemplate(httpTransport.requestFactory());
     }
     
     /**
      * 主要入口：分析帳戶的 Anchor 程式數據
      */
     public AnchorProgramAnalysis analyzeAccountAnchorData(String accountAddress) {
+        SolanaService.AccountData account = null;
         try {
             System.out.println("🔍 分析帳戶的 Anchor 程式數據...");
             
             // 1. 獲取帳戶基本資訊
-            JsonNode accountInfo = solanaService.getAccountInfo(accountAddress);
-            if (accountInfo == null || accountInfo.get("value").isNull()) {
+            account = solanaService.getAccount(accountAddress);
+            if (account == null) {
                 System.out.println("❌ 帳戶不存在");
                 return null;
             }
             
-            JsonNode value = accountInfo.get("value");
-            String owner = value.get("owner").asText();
+            String owner = account.getOwner();
             
             // 2. 檢查是否為已知的 Anchor 程式
             AnchorProgramInfo programInfo = identifyAnchorProgram(owner);
@@ -99,8 +98,7 @@ public class AnchorProgramService {
             }
             
             // 3. 解析帳戶數據
-            String data = value.get("data").get(0).asText();
-            byte[] accountData = Base64.getDecoder().decode(data);
+            AccountBytes accountData = account.getData();
             
             // 4. 根據程式類型解析數據
             Map<String, Object> parsedData = parseAccountData(programInfo, accountData, accountAddress);
@@ -110,7 +108,7 @@ public class AnchorProgramService {
             analysis.setAccountAddress(accountAddress);
             analysis.setProgramInfo(programInfo);
             analysis.setParsedData(parsedData);
-            analysis.setDataSize(accountData.length);
+            analysis.setDataSize(accountData.length());
             analysis.setOwner(owner);
             
             System.out.printf("✅ 成功分析 %s 程式的帳戶數據%n", programInfo.getName());
@@ -119,6 +117,10 @@ public class AnchorProgramService {
         } catch (Exception e) {
             System.err.printf("❌ 分析 Anchor 程式數據失敗: %s%n", e.getMessage());
             return null;
+        } finally {
+            if (account != null) {
+                account.release();
+            }
         }
     }
     
@@ -126,30 +128,34 @@ public class AnchorProgramService {
      * 識別 Anchor 程式
      */
     private AnchorProgramInfo identifyAnchorProgram(String programId) {
+        Pubkey key = Pubkey.of(programId);
+        
         // 檢查快取
-        if (programCache.containsKey(programId)) {
-            return programCache.get(programId);
+        AnchorProgramInfo cached = programCache.get(key);
+        if (cached != null) {
+            return cached;
         }
         
         // 檢查已知程式
-        if (KNOWN_ANCHOR_PROGRAMS.containsKey(programId)) {
+        String knownName = KNOWN_ANCHOR_PROGRAMS.get(key);
+        if (knownName != null) {
             AnchorProgramInfo info = new AnchorProgramInfo();
             info.setProgramId(programId);
-            info.setName(KNOWN_ANCHOR_PROGRAMS.get(programId));
+            info.setName(knownName);
             info.setType(determineProjectType(info.getName()));
             info.setInstructions(getKnownInstructions(programId));
             
             // 嘗試獲取更詳細的資訊
             enrichProgramInfo(info);
             
-            programCache.put(programId, info);
+            programCache.put(key, info);
             return info;
         }
         
         // 嘗試從鏈上獲取程式資訊
         AnchorProgramInfo info = fetchProgramFromChain(programId);
         if (info != null) {
-            programCache.put(programId, info);
+            programCache.put(key, info);
         }
         
         return info;
@@ -196,15 +202,15 @@ public class AnchorProgramService {
     private boolean isLikelyAnchorProgram(JsonNode programAccount) {
         try {
             // Anchor 程式通常會有特定的數據結構
-            String data = programAccount.get("data").get(0).asText();
-            byte[] programData = Base64.getDecoder().decode(data);
-            
-            // 檢查 ELF header 或其他 Anchor 特徵
-            if (programData.length > 4) {
-                // 檢查 ELF magic number
-                if (programData[0] == 0x7F && programData[1] == 'E' && 
-                    programData[2] == 'L' && programData[3] == 'F') {
-                    return true;
+            String data = programAccount.get("data").get(0).textValue();
+            try (AccountBytes programData = solanaService.getAccountBufferPool().decodeBase64(data)) {
+                // 檢查 ELF header 或其他 Anchor 特徵
+                if (programData.length() > 4) {
+                    // 檢查 ELF magic number
+                    if (programData.get(0) == 0x7F && programData.get(1) == 'E' && 
+                        programData.get(2) == 'L' && programData.get(3) == 'F') {
+                        return true;
+                    }
                 }
             }
             
@@ -218,11 +224,11 @@ public class AnchorProgramService {
     /**
      * 解析帳戶數據
      */
-    private Map<String, Object> parseAccountData(AnchorProgramInfo programInfo, byte[] data, String accountAddress) {
+    private Map<String, Object> parseAccountData(AnchorProgramInfo programInfo, AccountBytes data, String accountAddress) {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            System.out.printf("🔍 解析 %s 程式的帳戶數據 (長度: %d)%n", programInfo.getName(), data.length);
+            System.out.printf("🔍 解析 %s 程式的帳戶數據 (長度: %d)%n", programInfo.getName(), data.length());
             
             // 根據程式類型使用不同的解析器
             switch (programInfo.getType()) {
@@ -247,7 +253,7 @@ public class AnchorProgramService {
             result.put("programId", programInfo.getProgramId());
             result.put("programName", programInfo.getName());
             result.put("accountAddress", accountAddress);
-            result.put("dataSize", data.length);
+            result.put("dataSize", data.length());
             result.put("timestamp", System.currentTimeMillis());
             
             return result;
@@ -266,71 +272,63 @@ public class AnchorProgramService {
     /**
      * 解析 CLMM 帳戶數據
      */
-    private Map<String, Object> parseCLMMAccountData(byte[] data, String accountAddress) {
+    private Map<String, Object> parseCLMMAccountData(AccountBytes data, String accountAddress) {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
-            
-            // Raydium CLMM Position 帳戶結構解析
-            if (data.length >= 264) {
-                // 跳過帳戶判別器 (8 bytes)
-                buffer.position(8);
-                
-                // Pool ID (32 bytes)
-                byte[] poolId = new byte[32];
-                buffer.get(poolId);
-                result.put("poolId", Base64.getEncoder().encodeToString(poolId));
+            // Raydium CLMM Position 帳戶結構解析（長度與 discriminator 皆符合時才依固定佈局讀取）
+            if (PersonalPositionState.isPositionAccount(data)) {
+                PersonalPositionState state = new PersonalPositionState().wrap(data);
                 
-                // Position Owner (32 bytes)
-                byte[] owner = new byte[32];
-                buffer.get(owner);
-                result.put("positionOwner", Base64.getEncoder().encodeToString(owner));
+                result.put("nftMint", state.nftMintBase58());
+                result.put("poolId", state.poolIdBase58());
                 
-                // Tick Lower (4 bytes)
-                int tickLower = buffer.getInt();
+                int tickLower = state.tickLower();
+                int tickUpper = state.tickUpper();
                 result.put("tickLower", tickLower);
-                
-                // Tick Upper (4 bytes)
-                int tickUpper = buffer.getInt();
                 result.put("tickUpper", tickUpper);
                 
-                // Liquidity (16 bytes as 2 longs)
-                long liquidityLow = buffer.getLong();
-                long liquidityHigh = buffer.getLong();
-                result.put("liquidityLow", liquidityLow);
-                result.put("liquidityHigh", liquidityHigh);
+                // Liquidity (u128，以十進位字串輸出完整數值)
+                U128 value = new U128();
+                result.put("liquidity", state.liquidity(value).toString());
                 
-                // Fee Growth Inside Last (16 bytes each for token A and B)
-                long feeGrowthInside0LastX64Low = buffer.getLong();
-                long feeGrowthInside0LastX64High = buffer.getLong();
-                result.put("feeGrowthInside0LastX64Low", feeGrowthInside0LastX64Low);
-                result.put("feeGrowthInside0LastX64High", feeGrowthInside0LastX64High);
+                // Fee Growth Inside Last (Q64.64，token A 與 B)
+                result.put("feeGrowthInside0LastX64", state.feeGrowthInside0Last(value).toString());
+                result.put("feeGrowthInside0Last", value.q64ToDouble());
+                result.put("feeGrowthInside1LastX64", state.feeGrowthInside1Last(value).toString());
+                result.put("feeGrowthInside1Last", value.q64ToDouble());
                 
-                long feeGrowthInside1LastX64Low = buffer.getLong();
-                long feeGrowthInside1LastX64High = buffer.getLong();
-                result.put("feeGrowthInside1LastX64Low", feeGrowthInside1LastX64Low);
-                result.put("feeGrowthInside1LastX64High", feeGrowthInside1LastX64High);
+                // Tokens Owed
+                result.put("tokensOwed0", state.tokenFeesOwed0());
+                result.put("tokensOwed1", state.tokenFeesOwed1());
                 
-                // Tokens Owed (8 bytes each)
-                long tokensOwed0 = buffer.getLong();
-                long tokensOwed1 = buffer.getLong();
-                result.put("tokensOwed0", tokensOwed0);
-                result.put("tokensOwed1", tokensOwed1);
+                // Reward Infos
+                List<Map<String, Object>> rewards = new ArrayList<>();
+                for (int i = 0; i < PersonalPositionState.REWARD_COUNT; i++) {
+                    Map<String, Object> reward = new HashMap<>();
+                    reward.put("growthInsideLastX64", state.rewardGrowthInsideLast(i, value).toString());
+                    reward.put("growthInsideLast", value.q64ToDouble());
+                    reward.put("rewardAmountOwed", state.rewardAmountOwed(i));
+                    rewards.add(reward);
+                }
+                result.put("rewardInfos", rewards);
                 
                 System.out.println("✅ 成功解析 CLMM Position 數據");
                 result.put("type", "CLMM_Position");
                 
                 // 計算價格範圍
                 try {
-                    double lowerPrice = Math.pow(1.0001, tickLower);
-                    double upperPrice = Math.pow(1.0001, tickUpper);
+                    double lowerPrice = TickMath.priceAtTick(tickLower);
+                    double upperPrice = TickMath.priceAtTick(tickUpper);
                     result.put("lowerPrice", lowerPrice);
                     result.put("upperPrice", upperPrice);
                     result.put("priceRange", String.format("%.6f - %.6f", lowerPrice, upperPrice));
                 } catch (Exception e) {
                     System.out.printf("⚠️ 計算價格範圍失敗: %s%n", e.getMessage());
                 }
+            } else {
+                System.out.printf("⚠️ 不是 CLMM Position 帳戶 (長度: %d)%n", data.length());
+                result.put("type", "CLMM_Unknown");
             }
             
         } catch (Exception e) {
@@ -344,14 +342,14 @@ public class AnchorProgramService {
     /**
      * 解析 AMM 帳戶數據
      */
-    private Map<String, Object> parseAMMAccountData(byte[] data, String accountAddress) {
+    private Map<String, Object> parseAMMAccountData(AccountBytes data, String accountAddress) {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer buffer = data.buffer();
             
             // 基本的 AMM 池結構解析
-            if (data.length >= 128) {
+            if (data.length() >= 128) {
                 // 帳戶判別器 (8 bytes)
                 buffer.position(8);
                 
@@ -386,16 +384,16 @@ public class AnchorProgramService {
     /**
      * 解析 DEX 帳戶數據
      */
-    private Map<String, Object> parseDEXAccountData(byte[] data, String accountAddress) {
+    private Map<String, Object> parseDEXAccountData(AccountBytes data, String accountAddress) {
         Map<String, Object> result = new HashMap<>();
         
         try {
             result.put("type", "DEX_Account");
-            result.put("dataSize", data.length);
+            result.put("dataSize", data.length());
             
             // DEX 帳戶通常包含訂單簿或市場資訊
-            if (data.length >= 64) {
-                ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            if (data.length() >= 64) {
+                ByteBuffer buffer = data.buffer();
                 
                 // 基本結構解析
                 buffer.position(8); // 跳過判別器
@@ -416,15 +414,15 @@ public class AnchorProgramService {
     /**
      * 解析 Lending 帳戶數據
      */
-    private Map<String, Object> parseLendingAccountData(byte[] data, String accountAddress) {
+    private Map<String, Object> parseLendingAccountData(AccountBytes data, String accountAddress) {
         Map<String, Object> result = new HashMap<>();
         
         try {
             result.put("type", "Lending_Account");
-            result.put("dataSize", data.length);
+            result.put("dataSize", data.length());
             
-            if (data.length >= 64) {
-                ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            if (data.length() >= 64) {
+                ByteBuffer buffer = data.buffer();
                 buffer.position(8); // 跳過判別器
                 
                 // 基本的借貸帳戶資訊
@@ -443,16 +441,16 @@ public class AnchorProgramService {
     /**
      * 通用 Anchor 數據解析
      */
-    private Map<String, Object> parseGenericAnchorData(byte[] data, String accountAddress) {
+    private Map<String, Object> parseGenericAnchorData(AccountBytes data, String accountAddress) {
         Map<String, Object> result = new HashMap<>();
         
         try {
             result.put("type", "Generic_Anchor_Account");
-            result.put("dataSize", data.length);
+            result.put("dataSize", data.length());
             
             // 檢查帳戶判別器
-            if (data.length >= 8) {
-                ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            if (data.length() >= 8) {
+                ByteBuffer buffer = data.buffer();
                 long discriminator = buffer.getLong();
                 result.put("discriminator", discriminator);
                 result.put("discriminatorHex", String.format("0x%016X", discriminator));
@@ -474,9 +472,9 @@ public class AnchorProgramService {
     /**
      * 檢查數據是否包含非零值
      */
-    private boolean hasNonZeroData(byte[] data) {
-        for (byte b : data) {
-            if (b != 0) return true;
+    private boolean hasNonZeroData(AccountBytes data) {
+        for (int i = 0; i < data.length(); i++) {
+            if (data.get(i) != 0) return true;
         }
         return false;
     }
@@ -484,13 +482,13 @@ public class AnchorProgramService {
     /**
      * 獲取數據預覽
      */
-    private String getDataPreview(byte[] data) {
-        int previewLength = Math.min(32, data.length);
+    private String getDataPreview(AccountBytes data) {
+        int previewLength = Math.min(32, data.length());
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < previewLength; i++) {
-            sb.append(String.format("%02X ", data[i]));
+            sb.append(String.format("%02X ", data.get(i)));
         }
-        if (data.length > previewLength) {
+        if (data.length() > previewLength) {
             sb.append("...");
         }
         return sb.toString();
@@ -0,0 +1,72 @@
+package com.example.java_solana_lp_option.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * 一次對沖呼叫：取第一個成功的回應並取消其餘請求，全部失敗時回傳最後一個結果
+ *
+ * 失敗的回應（例如 429 / 5xx）在另一個請求仍在進行中時先不採用，等待它的結果
+ */
+class HedgedCall<T> {
+    
+    private final Predicate<T> failure;
+    private final Runnable onHedgeWin;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final List<CompletableFuture<T>> attempts = new ArrayList<>(2);
+    private int outstanding;
+    
+    /**
+     * @param failure    回應是否視為失敗
+     * @param onHedgeWin 對沖請求成功勝出時呼叫
+     */
+    HedgedCall(Predicate<T> failure, Runnable onHedgeWin) {
+        this.failure = failure;
+        this.onHedgeWin = onHedgeWin;
+    }
+    
+    CompletableFuture<T> result() {
+        return result;
+    }
+    
+    /**
+     * 加入一個請求；結果已確定時直接取消
+     */
+    void add(CompletableFuture<T> attempt, boolean hedge) {
+        synchronized (this) {
+            if (result.isDone()) {
+                attempt.cancel(true);
+                return;
+            }
+            attempts.add(attempt);
+            outstanding++;
+        }
+        attempt.whenComplete((response, error) -> onComplete(response, error, hedge));
+    }
+    
+    private void onComplete(T response, Throwable error, boolean hedge) {
+        boolean ok = error == null && !failure.test(response);
+        synchronized (this) {
+            outstanding--;
+            // 另一個請求仍在進行中時，先等待它的結果
+            if ((!ok && outstanding > 0) || result.isDone()) {
+                return;
+            }
+        }
+        
+        if (error != null ? result.completeExceptionally(error) : result.complete(response)) {
+            if (ok && hedge) {
+                onHedgeWin.run();
+            }
+            List<CompletableFuture<T>> others;
+            synchronized (this) {
+                others = new ArrayList<>(attempts);
+            }
+            for (CompletableFuture<T> other : others) {
+                other.cancel(true);
+            }
+        }
+    }
+}
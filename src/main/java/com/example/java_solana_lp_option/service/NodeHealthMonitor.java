@@ -0,0 +1,290 @@
+package com.example.java_solana_lp_option.service;
+
+import com.example.java_solana_lp_option.config.HostPermits;
+import com.example.java_solana_lp_option.config.HttpTransport;
+import com.example.java_solana_lp_option.config.SolanaConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 節點健康監控 - 在背景定期對每個 RPC 端點查詢 getHealth / getVersion / getSlot，
+ * 發布不可變的狀態快照供分析器直接讀取，並把探測結果回報給端點路由器
+ */
+@Component
+public class NodeHealthMonitor {
+    
+    private static final long HEALTH_ID = 1;
+    private static final long VERSION_ID = 2;
+    private static final long SLOT_ID = 3;
+    
+    private final SolanaConfig solanaConfig;
+    private final HttpTransport httpTransport;
+    private final HttpClient httpClient;
+    private final SolanaService solanaService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    // 探測請求內容固定，只編碼一次
+    private final byte[] batchBody;
+    private final byte[][] singleBodies;
+    
+    private final AtomicReference<CompletableFuture<NodeHealthSnapshot>> inFlight = new AtomicReference<>();
+    private volatile NodeHealthSnapshot snapshot = NodeHealthSnapshot.UNKNOWN;
+    
+    public NodeHealthMonitor(SolanaConfig solanaConfig, HttpTransport httpTransport, SolanaService solanaService) {
+        this.solanaConfig = solanaConfig;
+        this.httpTransport = httpTransport;
+        this.httpClient = httpTransport.getHttpClient();
+        this.solanaService = solanaService;
+        
+        RpcRequestWriter requestWriter = new RpcRequestWriter(objectMapper);
+        Map<String, Object> slotConfig = Map.of("commitment", solanaConfig.getCommitment());
+        this.batchBody = requestWriter.writeBatch(List.of(
+            new ProbeCall(HEALTH_ID, "getHealth"),
+            new ProbeCall(VERSION_ID, "getVersion"),
+            new ProbeCall(SLOT_ID, "getSlot", slotConfig)));
+        this.singleBodies = new byte[][] {
+            requestWriter.write(HEALTH_ID, "getHealth"),
+            requestWriter.write(VERSION_ID, "getVersion"),
+            requestWriter.write(SLOT_ID, "getSlot", slotConfig)
+        };
+    }
+    
+    @Scheduled(fixedDelayString = "${solana.rpc-probe-interval:10000}")
+    public void scheduledRefresh() {
+        if (!solanaConfig.isEnableBlockchainData()) {
+            return;
+        }
+        
+        try {
+            refresh().join();
+        } catch (Exception e) {
+            System.err.printf("⚠️ 節點健康檢查失敗: %s%n", e.getMessage());
+        }
+    }
+    
+    /**
+     * 最近一次的快照，不會發出任何請求
+     */
+    public NodeHealthSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * 目前的快照；啟動後尚未完成第一次檢查時，同步等待一次檢查
+     */
+    public NodeHealthSnapshot getStatus() {
+        NodeHealthSnapshot current = snapshot;
+        if (current.isChecked() || !solanaConfig.isEnableBlockchainData()) {
+            return current;
+        }
+        
+        try {
+            return refresh().get(solanaConfig.getConnectTimeout() + solanaConfig.getReadTimeout(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            return snapshot;
+        }
+    }
+    
+    /**
+     * 立即檢查所有端點；已有檢查進行中時共用其結果
+     */
+    public CompletableFuture<NodeHealthSnapshot> refresh() {
+        CompletableFuture<NodeHealthSnapshot> created = new CompletableFuture<>();
+        CompletableFuture<NodeHealthSnapshot> existing = inFlight.compareAndExchange(null, created);
+        if (existing != null) {
+            return existing;
+        }
+        
+        RpcEndpointRouter router = solanaService.getRouter();
+        List<CompletableFuture<NodeHealthSnapshot.EndpointHealth>> checks = new ArrayList<>();
+        for (RpcEndpointRouter.Endpoint endpoint : router.getEndpoints()) {
+            checks.add(check(router, endpoint));
+        }
+        
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            try {
+                router.evaluateSlotLag();
+                
+                List<NodeHealthSnapshot.EndpointHealth> results = new ArrayList<>();
+                for (CompletableFuture<NodeHealthSnapshot.EndpointHealth> check : checks) {
+                    results.add(check.join());
+                }
+                
+                NodeHealthSnapshot next = summarize(results);
+                logTransition(snapshot, next);
+                snapshot = next;
+                created.complete(next);
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.set(null);
+            }
+        });
+        return created;
+    }
+    
+    /**
+     * 檢查單一端點；任何錯誤都轉為不健康的結果，不會讓整輪檢查失敗
+     */
+    private CompletableFuture<NodeHealthSnapshot.EndpointHealth> check(RpcEndpointRouter router,
+                                                                    RpcEndpointRouter.Endpoint endpoint) {
+        long start = System.nanoTime();
+        return send(endpoint, batchBody)
+            .thenCompose(response -> response.isArray()
+                ? CompletableFuture.completedFuture(response)
+                : querySeparately(endpoint)) // 不支援批次的節點改為逐一查詢
+            .handle((response, error) -> {
+                long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                
+                if (error != null) {
+                    router.recordProbe(endpoint, false, 0);
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    String reason = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                    return new NodeHealthSnapshot.EndpointHealth(endpoint.getUrl(), false, null, 0, latencyMs, reason);
+                }
+                
+                JsonNode health = findById(response, HEALTH_ID);
+                boolean healthy = health.has("result");
+                String version = findById(response, VERSION_ID).path("result").path("solana-core").asText(null);
+                long slot = findById(response, SLOT_ID).path("result").asLong(0);
+                String reason = healthy ? null
+                    : health.isMissingNode() ? "缺少 getHealth 回應" : health.path("error").path("message").asText();
+                
+                router.recordProbe(endpoint, healthy && slot > 0, slot);
+                return new NodeHealthSnapshot.EndpointHealth(endpoint.getUrl(), healthy, version, slot,
+                    latencyMs, reason);
+            });
+    }
+    
+    private CompletableFuture<JsonNode> querySeparately(RpcEndpointRouter.Endpoint endpoint) {
+        List<CompletableFuture<JsonNode>> calls = new ArrayList<>();
+        for (byte[] body : singleBodies) {
+            calls.add(send(endpoint, body));
+        }
+        
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            ArrayNode combined = objectMapper.createArrayNode();
+            for (CompletableFuture<JsonNode> call : calls) {
+                combined.add(call.join());
+            }
+            return combined;
+        });
+    }
+    
+    private CompletableFuture<JsonNode> send(RpcEndpointRouter.Endpoint endpoint, byte[] body) {
+        RpcReplayTransport replayTransport = solanaService.getReplayTransport();
+        if (replayTransport != null) {
+            return replayTransport.send(body);
+        }
+        
+        HttpRequest request = HttpRequest.newBuilder(endpoint.getUri())
+            .timeout(Duration.ofMillis(solanaConfig.getConnectTimeout()))
+            .header("Content-Type", "application/json")
+            .header("User-Agent", "Java-Solana-LP-Option/1.0")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+        
+        long start = System.nanoTime();
+        RpcFixtureStore fixtureRecorder = solanaService.getFixtureRecorder();
+        HostPermits permits = httpTransport.hostPermits(endpoint.getUri().getHost());
+        return permits.acquireAsync().thenCompose(ignored ->
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> permits.release())
+        ).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("HTTP 錯誤: " + response.statusCode());
+            }
+            
+            JsonNode json;
+            try {
+                json = objectMapper.readTree(response.body());
+            } catch (Exception e) {
+                throw new RuntimeException("回應格式錯誤: " + e.getMessage(), e);
+            }
+            if (fixtureRecorder != null) {
+                fixtureRecorder.record(body, json, System.nanoTime() - start);
+            }
+            return json;
+        });
+    }
+    
+    /**
+     * 批次回應中指定 id 的項目；找不到時（例如錯誤回應的 id 為 null）回傳 MissingNode，讀取欄位時得到預設值
+     */
+    private static JsonNode findById(JsonNode responses, long id) {
+        for (JsonNode item : responses) {
+            if (item.path("id").asLong(-1) == id) {
+                return item;
+            }
+        }
+        return MissingNode.getInstance();
+    }
+    
+    /**
+     * 整體狀態：任一端點健康即視為健康，版本取自第一個健康的端點，slot 取最大值
+     */
+    private static NodeHealthSnapshot summarize(List<NodeHealthSnapshot.EndpointHealth> results) {
+        boolean healthy = false;
+        String version = null;
+        long slot = 0;
+        
+        for (NodeHealthSnapshot.EndpointHealth result : results) {
+            if (result.isHealthy() && !healthy) {
+                healthy = true;
+                version = result.getVersion();
+            }
+            if (version == null) {
+                version = result.getVersion();
+            }
+            slot = Math.max(slot, result.getSlot());
+        }
+        
+        return new NodeHealthSnapshot(healthy, version != null ? version : "未知版本", slot,
+            System.currentTimeMillis(), results);
+    }
+    
+    private static void logTransition(NodeHealthSnapshot previous, NodeHealthSnapshot next) {
+        if (previous.isChecked() && previous.isHealthy() == next.isHealthy()) {
+            return;
+        }
+        
+        if (next.isHealthy()) {
+            System.out.printf("✅ Solana 節點連接正常 (版本 %s, slot %d)%n", next.getVersion(), next.getSlot());
+        } else {
+            System.err.println("❌ Solana 節點連接失敗，所有端點皆不健康");
+        }
+    }
+    
+    private static class ProbeCall implements RpcRequestWriter.Call {
+        private final long id;
+        private final String method;
+        private final Object[] params;
+        
+        ProbeCall(long id, String method, Object... params) {
+            this.id = id;
+            this.method = method;
+            this.params = params;
+        }
+        
+        @Override public long getId() { return id; }
+        @Override public String getMethod() { return method; }
+        @Override public Object[] getParams() { return params; }
+    }
+}
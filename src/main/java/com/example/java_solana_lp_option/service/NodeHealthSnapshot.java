@@ -0,0 +1,76 @@
+package com.example.java_solana_lp_option.service;
+
+import java.util.List;
+
+/**
+ * 節點健康狀態快照 - 由 NodeHealthMonitor 定期產生，建立後不再變動，可任意共享讀取
+ */
+public final class NodeHealthSnapshot {
+    
+    /**
+     * 尚未完成第一次檢查時的狀態
+     */
+    public static final NodeHealthSnapshot UNKNOWN = new NodeHealthSnapshot(false, "未知版本", 0, 0, List.of());
+    
+    private final boolean healthy;
+    private final String version;
+    private final long slot;
+    private final long checkedAt;
+    private final List<EndpointHealth> endpoints;
+    
+    public NodeHealthSnapshot(boolean healthy, String version, long slot, long checkedAt, List<EndpointHealth> endpoints) {
+        this.healthy = healthy;
+        this.version = version;
+        this.slot = slot;
+        this.checkedAt = checkedAt;
+        this.endpoints = List.copyOf(endpoints);
+    }
+    
+    /**
+     * 至少一個端點健康
+     */
+    public boolean isHealthy() { return healthy; }
+    public String getVersion() { return version; }
+    public long getSlot() { return slot; }
+    public long getCheckedAt() { return checkedAt; }
+    public List<EndpointHealth> getEndpoints() { return endpoints; }
+    
+    public boolean isChecked() {
+        return checkedAt > 0;
+    }
+    
+    /**
+     * 距離上次檢查的毫秒數
+     */
+    public long getAgeMillis() {
+        return isChecked() ? System.currentTimeMillis() - checkedAt : -1;
+    }
+    
+    /**
+     * 單一端點的檢查結果
+     */
+    public static final class EndpointHealth {
+        private final String url;
+        private final boolean healthy;
+        private final String version;
+        private final long slot;
+        private final long latencyMs;
+        private final String error;
+        
+        public EndpointHealth(String url, boolean healthy, String version, long slot, long latencyMs, String error) {
+            this.url = url;
+            this.healthy = healthy;
+            this.version = version;
+            this.slot = slot;
+            this.latencyMs = latencyMs;
+            this.error = error;
+        }
+        
+        public String getUrl() { return url; }
+        public boolean isHealthy() { return healthy; }
+        public String getVersion() { return version; }
+        public long getSlot() { return slot; }
+        public long getLatencyMs() { return latencyMs; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.java_solana_lp_option.service;
+
+import com.example.java_solana_lp_option.util.ProgramAddress;
+import com.example.java_solana_lp_option.util.Pubkey;
+import com.example.java_solana_lp_option.util.PubkeyInterner;
+import com.example.java_solana_lp_option.util.U128;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Raydium CLMM PersonalPositionState 帳戶的 flyweight 解碼器 - 依固定的帳戶佈局直接從 ByteBuffer 讀取欄位，
+ * 不建立中間物件；同一個實例可用 wrap() 反覆指向不同帳戶
+ *
+ * 佈局（Anchor，little-endian，共 281 bytes）：
+ * discriminator(8) bump(1) nft_mint(32) pool_id(32) tick_lower(i32) tick_upper(i32) liquidity(u128)
+ * fee_growth_inside_0_last_x64(u128) fee_growth_inside_1_last_x64(u128) token_fees_owed_0(u64) token_fees_owed_1(u64)
+ * reward_infos[3]{growth_inside_last_x64(u128) reward_amount_owed(u64)} recent_epoch(u64) padding(u64 x 7)
+ *
+ * u128 欄位可分別讀出低位、高位兩個 long（皆為無號），或填入呼叫端重複使用的 {@link U128}
+ *
+ * 帳戶地址為 PDA：seeds = ["position", nft_mint]
+ */
+public final class PersonalPositionState {
+    
+    public static final int SIZE = 281;
+    public static final int NFT_MINT_OFFSET = 9;
+    public static final int POOL_ID_OFFSET = 41;
+    public static final int TICK_LOWER_OFFSET = 73;
+    public static final int TICK_UPPER_OFFSET = 77;
+    public static final int LIQUIDITY_OFFSET = 81;
+    public static final int FEE_GROWTH_INSIDE_0_OFFSET = 97;
+    public static final int FEE_GROWTH_INSIDE_1_OFFSET = 113;
+    public static final int TOKEN_FEES_OWED_0_OFFSET = 129;
+    public static final int TOKEN_FEES_OWED_1_OFFSET = 137;
+    public static final int REWARD_INFOS_OFFSET = 145;
+    public static final int REWARD_INFO_SIZE = 24;
+    public static final int REWARD_COUNT = 3;
+    public static final int RECENT_EPOCH_OFFSET = 217;
+    
+    private static final byte[] DISCRIMINATOR = anchorDiscriminator("PersonalPositionState");
+    private static final byte[] SEED = "position".getBytes(StandardCharsets.US_ASCII);
+    
+    private ByteBuffer buffer;
+    private int base; // 帳戶 offset 0 在 buffer 中的索引（dataSlice 時為負值）
+    
+    /**
+     * 指向完整的帳戶資料
+     */
+    public PersonalPositionState wrap(AccountBytes data) {
+        return wrap(data.buffer(), 0);
+    }
+    
+    /**
+     * 指向 buffer，其索引 0 對應帳戶資料的 sliceOffset（dataSlice 取回的部分資料）；
+     * 讀取 slice 範圍以外的欄位時拋出 IndexOutOfBoundsException
+     */
+    public PersonalPositionState wrap(ByteBuffer buffer, int sliceOffset) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.base = -sliceOffset;
+        return this;
+    }
+    
+    /**
+     * 長度與 Anchor discriminator 皆符合 PersonalPositionState
+     */
+    public static boolean isPositionAccount(AccountBytes data) {
+        if (data.length() != SIZE) {
+            return false;
+        }
+        for (int i = 0; i < DISCRIMINATOR.length; i++) {
+            if (data.get(i) != DISCRIMINATOR[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Position NFT 對應的 Position 帳戶地址
+     */
+    public static Pubkey address(Pubkey programId, Pubkey nftMint) {
+        return ProgramAddress.find(programId, SEED, nftMint.toBytes());
+    }
+    
+    public Pubkey nftMint() { return Pubkey.read(buffer, base + NFT_MINT_OFFSET); }
+    public Pubkey poolId() { return Pubkey.read(buffer, base + POOL_ID_OFFSET); }
+    public String nftMintBase58() { return PubkeyInterner.global().intern(buffer, base + NFT_MINT_OFFSET); }
+    public String poolIdBase58() { return PubkeyInterner.global().intern(buffer, base + POOL_ID_OFFSET); }
+    public int tickLower() { return buffer.getInt(base + TICK_LOWER_OFFSET); }
+    public int tickUpper() { return buffer.getInt(base + TICK_UPPER_OFFSET); }
+    public long liquidityLo() { return buffer.getLong(base + LIQUIDITY_OFFSET); }
+    public long liquidityHi() { return buffer.getLong(base + LIQUIDITY_OFFSET + 8); }
+    public long feeGrowthInside0LastLo() { return buffer.getLong(base + FEE_GROWTH_INSIDE_0_OFFSET); }
+    public long feeGrowthInside0LastHi() { return buffer.getLong(base + FEE_GROWTH_INSIDE_0_OFFSET + 8); }
+    public long feeGrowthInside1LastLo() { return buffer.getLong(base + FEE_GROWTH_INSIDE_1_OFFSET); }
+    public long feeGrowthInside1LastHi() { return buffer.getLong(base + FEE_GROWTH_INSIDE_1_OFFSET + 8); }
+    public long tokenFeesOwed0() { return buffer.getLong(base + TOKEN_FEES_OWED_0_OFFSET); }
+    public long tokenFeesOwed1() { return buffer.getLong(base + TOKEN_FEES_OWED_1_OFFSET); }
+    public long recentEpoch() { return buffer.getLong(base + RECENT_EPOCH_OFFSET); }
+    
+    public long rewardGrowthInsideLastLo(int index) { return buffer.getLong(base + rewardOffset(index)); }
+    public long rewardGrowthInsideLastHi(int index) { return buffer.getLong(base + rewardOffset(index) + 8); }
+    public long rewardAmountOwed(int index) { return buffer.getLong(base + rewardOffset(index) + 16); }
+    
+    public U128 liquidity(U128 out) { return out.read(buffer, base + LIQUIDITY_OFFSET); }
+    public U128 feeGrowthInside0Last(U128 out) { return out.read(buffer, base + FEE_GROWTH_INSIDE_0_OFFSET); }
+    public U128 feeGrowthInside1Last(U128 out) { return out.read(buffer, base + FEE_GROWTH_INSIDE_1_OFFSET); }
+    public U128 rewardGrowthInsideLast(int index, U128 out) { return out.read(buffer, base + rewardOffset(index)); }
+    
+    /**
+     * 流動性是否為 0（已移除全部流動性但尚未關閉的 Position）
+     */
+    public boolean isEmpty() {
+        return liquidityLo() == 0 && liquidityHi() == 0;
+    }
+    
+    private static int rewardOffset(int index) {
+        if (index < 0 || index >= REWARD_COUNT) {
+            throw new IndexOutOfBoundsException("reward index " + index);
+        }
+        return REWARD_INFOS_OFFSET + index * REWARD_INFO_SIZE;
+    }
+    
+    /**
+     * Anchor 帳戶 discriminator：sha256("account:<名稱>") 的前 8 bytes
+     */
+    static byte[] anchorDiscriminator(String accountName) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                .digest(("account:" + accountName).getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(hash, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
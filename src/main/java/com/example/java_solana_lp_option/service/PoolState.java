@@ -0,0 +1,128 @@
+package com.example.java_solana_lp_option.service;
+
+import com.example.java_solana_lp_option.util.Pubkey;
+import com.example.java_solana_lp_option.util.PubkeyInterner;
+import com.example.java_solana_lp_option.util.U128;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Raydium CLMM PoolState 帳戶的 flyweight 解碼器 - 只讀取估值需要的欄位，用法與 {@link PersonalPositionState} 相同
+ *
+ * 佈局（Anchor，little-endian，共 1544 bytes）前段：
+ * discriminator(8) bump(1) amm_config(32) owner(32) token_mint_0(32) token_mint_1(32) token_vault_0(32) token_vault_1(32)
+ * observation_key(32) mint_decimals_0(u8) mint_decimals_1(u8) tick_spacing(u16) liquidity(u128) sqrt_price_x64(u128)
+ * tick_current(i32) padding(u16 x 2) fee_growth_global_0_x64(u128) fee_growth_global_1_x64(u128) ... reward_infos[3] ...
+ *
+ * reward_infos 每項 169 bytes：reward_state(u8) open_time(u64) end_time(u64) last_update_time(u64)
+ * emissions_per_second_x64(u128) reward_total_emissioned(u64) reward_claimed(u64) token_mint(32) token_vault(32)
+ * authority(32) reward_growth_global_x64(u128)
+ */
+public final class PoolState {
+    
+    public static final int SIZE = 1544;
+    public static final int AMM_CONFIG_OFFSET = 9;
+    public static final int TOKEN_MINT_0_OFFSET = 73;
+    public static final int TOKEN_MINT_1_OFFSET = 105;
+    public static final int TOKEN_VAULT_0_OFFSET = 137;
+    public static final int TOKEN_VAULT_1_OFFSET = 169;
+    public static final int MINT_DECIMALS_0_OFFSET = 233;
+    public static final int MINT_DECIMALS_1_OFFSET = 234;
+    public static final int TICK_SPACING_OFFSET = 235;
+    public static final int LIQUIDITY_OFFSET = 237;
+    public static final int SQRT_PRICE_X64_OFFSET = 253;
+    public static final int TICK_CURRENT_OFFSET = 269;
+    public static final int FEE_GROWTH_GLOBAL_0_OFFSET = 277;
+    public static final int FEE_GROWTH_GLOBAL_1_OFFSET = 293;
+    public static final int REWARD_INFOS_OFFSET = 397;
+    public static final int REWARD_INFO_SIZE = 169;
+    public static final int REWARD_COUNT = 3;
+    
+    // RewardInfo 內的欄位 offset
+    public static final int REWARD_OPEN_TIME_OFFSET = 1;
+    public static final int REWARD_END_TIME_OFFSET = 9;
+    public static final int REWARD_LAST_UPDATE_TIME_OFFSET = 17;
+    public static final int REWARD_EMISSIONS_PER_SECOND_OFFSET = 25;
+    public static final int REWARD_TOKEN_MINT_OFFSET = 57;
+    public static final int REWARD_GROWTH_GLOBAL_OFFSET = 153;
+    
+    private static final byte[] DISCRIMINATOR = PersonalPositionState.anchorDiscriminator("PoolState");
+    
+    private ByteBuffer buffer;
+    private int base;
+    
+    public PoolState wrap(AccountBytes data) {
+        return wrap(data.buffer(), 0);
+    }
+    
+    /**
+     * 指向 buffer，其索引 0 對應帳戶資料的 sliceOffset
+     */
+    public PoolState wrap(ByteBuffer buffer, int sliceOffset) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.base = -sliceOffset;
+        return this;
+    }
+    
+    /**
+     * 長度與 Anchor discriminator 皆符合 PoolState
+     */
+    public static boolean isPoolAccount(AccountBytes data) {
+        if (data.length() != SIZE) {
+            return false;
+        }
+        for (int i = 0; i < DISCRIMINATOR.length; i++) {
+            if (data.get(i) != DISCRIMINATOR[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public Pubkey ammConfig() { return Pubkey.read(buffer, base + AMM_CONFIG_OFFSET); }
+    public Pubkey tokenMint0() { return Pubkey.read(buffer, base + TOKEN_MINT_0_OFFSET); }
+    public Pubkey tokenMint1() { return Pubkey.read(buffer, base + TOKEN_MINT_1_OFFSET); }
+    public String tokenMint0Base58() { return PubkeyInterner.global().intern(buffer, base + TOKEN_MINT_0_OFFSET); }
+    public String tokenMint1Base58() { return PubkeyInterner.global().intern(buffer, base + TOKEN_MINT_1_OFFSET); }
+    public Pubkey tokenVault0() { return Pubkey.read(buffer, base + TOKEN_VAULT_0_OFFSET); }
+    public Pubkey tokenVault1() { return Pubkey.read(buffer, base + TOKEN_VAULT_1_OFFSET); }
+    public int mintDecimals0() { return buffer.get(base + MINT_DECIMALS_0_OFFSET) & 0xff; }
+    public int mintDecimals1() { return buffer.get(base + MINT_DECIMALS_1_OFFSET) & 0xff; }
+    public int tickSpacing() { return buffer.getShort(base + TICK_SPACING_OFFSET) & 0xffff; }
+    public int tickCurrent() { return buffer.getInt(base + TICK_CURRENT_OFFSET); }
+    
+    public U128 liquidity(U128 out) { return out.read(buffer, base + LIQUIDITY_OFFSET); }
+    public U128 sqrtPriceX64(U128 out) { return out.read(buffer, base + SQRT_PRICE_X64_OFFSET); }
+    public U128 feeGrowthGlobal0(U128 out) { return out.read(buffer, base + FEE_GROWTH_GLOBAL_0_OFFSET); }
+    public U128 feeGrowthGlobal1(U128 out) { return out.read(buffer, base + FEE_GROWTH_GLOBAL_1_OFFSET); }
+    
+    public int rewardState(int index) { return buffer.get(base + rewardOffset(index)) & 0xff; }
+    public long rewardOpenTime(int index) { return buffer.getLong(base + rewardOffset(index) + REWARD_OPEN_TIME_OFFSET); }
+    public long rewardEndTime(int index) { return buffer.getLong(base + rewardOffset(index) + REWARD_END_TIME_OFFSET); }
+    public long rewardLastUpdateTime(int index) { return buffer.getLong(base + rewardOffset(index) + REWARD_LAST_UPDATE_TIME_OFFSET); }
+    public Pubkey rewardTokenMint(int index) { return Pubkey.read(buffer, base + rewardOffset(index) + REWARD_TOKEN_MINT_OFFSET); }
+    public String rewardTokenMintBase58(int index) { return PubkeyInterner.global().intern(buffer, base + rewardOffset(index) + REWARD_TOKEN_MINT_OFFSET); }
+    public U128 rewardEmissionsPerSecond(int index, U128 out) { return out.read(buffer, base + rewardOffset(index) + REWARD_EMISSIONS_PER_SECOND_OFFSET); }
+    public U128 rewardGrowthGlobal(int index, U128 out) { return out.read(buffer, base + rewardOffset(index) + REWARD_GROWTH_GLOBAL_OFFSET); }
+    
+    /**
+     * 獎勵是否已設定（token_mint 不是預設的全 0 公鑰），與 Raydium RewardInfo::initialized 相同
+     */
+    public boolean isRewardInitialized(int index) {
+        int offset = base + rewardOffset(index) + REWARD_TOKEN_MINT_OFFSET;
+        for (int i = 0; i < 32; i += 8) {
+            if (buffer.getLong(offset + i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static int rewardOffset(int index) {
+        if (index < 0 || index >= REWARD_COUNT) {
+            throw new IndexOutOfBoundsException("reward index " + index);
+        }
+        return REWARD_INFOS_OFFSET + index * REWARD_INFO_SIZE;
+    }
+}
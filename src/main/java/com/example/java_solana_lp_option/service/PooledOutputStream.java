@@ -0,0 +1,73 @@
+package com.example.java_solana_lp_option.service;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 以緩衝池中的 ByteBuffer 作為輸出目標，容量不足時換成下一級距的緩衝區；
+ * 可重複使用（reset），不再需要時 release() 歸還
+ */
+class PooledOutputStream extends OutputStream {
+    
+    private final AccountBufferPool pool;
+    private ByteBuffer buffer;
+    private int size;
+    
+    PooledOutputStream(AccountBufferPool pool, int initialCapacity) {
+        this.pool = pool;
+        this.buffer = pool.acquire(initialCapacity).clear();
+    }
+    
+    @Override
+    public void write(int b) {
+        ensureCapacity(size + 1);
+        buffer.put(size++, (byte) b);
+    }
+    
+    @Override
+    public void write(byte[] source, int offset, int length) {
+        ensureCapacity(size + length);
+        buffer.put(size, source, offset, length);
+        size += length;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    void reset() {
+        size = 0;
+    }
+    
+    /**
+     * 目前內容的唯讀視圖（不屬於緩衝池，底層緩衝區仍由本物件負責歸還）
+     */
+    AccountBytes view() {
+        return new AccountBytes(buffer, size, null);
+    }
+    
+    /**
+     * 將目前內容的所有權交給回傳的 AccountBytes（其 release() 會歸還緩衝區），本物件之後不可再使用
+     */
+    AccountBytes detach() {
+        AccountBytes bytes = new AccountBytes(buffer, size, pool);
+        buffer = null;
+        return bytes;
+    }
+    
+    void release() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.capacity()) {
+            ByteBuffer larger = pool.acquire(Math.max(capacity, buffer.capacity() * 2)).clear();
+            larger.put(0, buffer, 0, size);
+            pool.release(buffer);
+            buffer = larger;
+        }
+    }
+}
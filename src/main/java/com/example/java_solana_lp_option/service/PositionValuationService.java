@@ -0,0 +1,428 @@
+package com.example.java_solana_lp_option.service;
+
+import com.example.java_solana_lp_option.config.SolanaConfig;
+import com.example.java_solana_lp_option.util.FeeGrowthMath;
+import com.example.java_solana_lp_option.util.LiquidityMath;
+import com.example.java_solana_lp_option.util.Pubkey;
+import com.example.java_solana_lp_option.util.TickMath;
+import com.example.java_solana_lp_option.util.U128;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * CLMM Position 鏈上估值 - 由 Position 的 liquidity、tick 區間與池子當前的 sqrt_price_x64 算出代幣數量、是否在區間內與美元價值，
+ * 不依賴 Raydium API
+ *
+ * 一批 Position 依 pool id 去重後以 getMultipleAccounts 一次讀取所有池子，同一個池子的 Position 共用同一份池子狀態；
+ * 未領取手續費與獎勵由池子的 global 成長值、上下界 tick 的 outside 成長值與 Position 的 inside_last 計算，
+ * 上下界所在的 tick array 經由 {@link TickArrayCache} 在同一週期內只讀取一次
+ */
+@Service
+public class PositionValuationService {
+    
+    private final SolanaService solanaService;
+    private final TickArrayCache tickArrayCache;
+    
+    // 以 1 美元計價的穩定幣（USDC、USDT）
+    private static final Set<String> USD_STABLE_MINTS = Set.of(
+        "EPjFWdd5AufqSSqeM2qN1xzybapC8G4wEGGkZwyTDt1v",
+        "Es9vMFrzaCERmJfrF4H2FYD4KCoNkY11McCe8BenwNYB"
+    );
+    
+    public PositionValuationService(SolanaService solanaService, SolanaConfig solanaConfig) {
+        this.solanaService = solanaService;
+        this.tickArrayCache = new TickArrayCache(solanaService, solanaConfig.getTickArrayCacheCycle());
+    }
+    
+    /**
+     * 估值單一 Position；無法估值時回傳 null
+     */
+    public PositionValuation valuate(SolanaService.PositionAccountInfo position) throws Exception {
+        return valuate(List.of(position), Map.of()).get(0);
+    }
+    
+    public List<PositionValuation> valuate(List<SolanaService.PositionAccountInfo> positions) throws Exception {
+        return valuate(positions, Map.of());
+    }
+    
+    /**
+     * 批次估值，結果與輸入順序相同；缺少 liquidity、pool id 或池子帳戶讀取失敗的 Position 為 null
+     *
+     * @param usdPrices 額外已知的代幣美元價格（mint → 價格）；兩邊都不是穩定幣且未提供價格時，美元價值為 NaN
+     */
+    public List<PositionValuation> valuate(List<SolanaService.PositionAccountInfo> positions,
+                                           Map<String, Double> usdPrices) throws Exception {
+        Set<String> poolIds = new LinkedHashSet<>();
+        for (SolanaService.PositionAccountInfo position : positions) {
+            if (position.getPoolId() != null && position.getLiquidity() != null) {
+                poolIds.add(position.getPoolId());
+            }
+        }
+        Map<String, Pubkey> programIds = new HashMap<>();
+        Map<String, PoolState> pools = loadPools(new ArrayList<>(poolIds), programIds);
+        Map<Pubkey, TickArrayState> tickArrays = loadTickArrays(positions, pools, programIds);
+        
+        LiquidityMath math = new LiquidityMath();
+        FeeWorkspace workspace = new FeeWorkspace();
+        long now = System.currentTimeMillis() / 1000;
+        List<PositionValuation> valuations = new ArrayList<>(positions.size());
+        for (SolanaService.PositionAccountInfo position : positions) {
+            PoolState pool = position.getLiquidity() != null ? pools.get(position.getPoolId()) : null;
+            if (pool == null) {
+                valuations.add(null);
+                continue;
+            }
+            
+            try {
+                PositionValuation valuation = valuate(position, pool.sqrtPriceX64(workspace.sqrtPrice), pool, usdPrices, math);
+                if (position.getState() != null) {
+                    TickArrayState lower = tickArrays.get(lowerTickArray(position, pool, programIds));
+                    TickArrayState upper = tickArrays.get(upperTickArray(position, pool, programIds));
+                    if (lower != null && upper != null) {
+                        applyFees(valuation, position, pool, lower, upper, now, usdPrices, workspace);
+                    }
+                }
+                valuations.add(valuation);
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                System.err.printf("⚠️ Position %s 估值失敗: %s%n", position.getPositionAddress(), e.getMessage());
+                valuations.add(null);
+            }
+        }
+        
+        System.out.printf("📊 鏈上估值: %d 個 Position，讀取 %d 個池子、%d 個 tick array（快取 %d 個）%n",
+            positions.size(), pools.size(), tickArrays.size(), tickArrayCache.size());
+        return valuations;
+    }
+    
+    /**
+     * 開始新的 tick array 快取週期；定期刷新估值的呼叫端可在每輪開始時呼叫，不呼叫時依 tickArrayCacheCycle 自動輪替
+     */
+    public void startCycle() {
+        tickArrayCache.startCycle();
+    }
+    
+    public TickArrayCache getTickArrayCache() {
+        return tickArrayCache;
+    }
+    
+    /**
+     * 以一次批次查詢讀取池子帳戶；不存在或不是 PoolState 的帳戶不列入結果
+     */
+    public Map<String, PoolState> loadPools(List<String> poolIds) throws Exception {
+        return loadPools(poolIds, new HashMap<>());
+    }
+    
+    /**
+     * 同 loadPools，另外記錄每個池子所屬的 CLMM 程序（推導 tick array 地址用）
+     */
+    private Map<String, PoolState> loadPools(List<String> poolIds, Map<String, Pubkey> programIds) throws Exception {
+        Map<String, PoolState> pools = new HashMap<>();
+        if (poolIds.isEmpty()) {
+            return pools;
+        }
+        
+        SolanaService.MultipleAccounts result = solanaService.getAccounts(poolIds);
+        for (int i = 0; i < poolIds.size(); i++) {
+            SolanaService.AccountData account = result.getAccounts().get(i);
+            if (account == null) {
+                continue;
+            }
+            try {
+                if (PoolState.isPoolAccount(account.getData())) {
+                    // 帳戶資料可能來自緩衝池，複製一份供整批估值使用
+                    pools.put(poolIds.get(i), new PoolState().wrap(AccountBytes.wrap(account.getData().toByteArray())));
+                    programIds.put(poolIds.get(i), Pubkey.of(account.getOwner()));
+                } else {
+                    System.out.printf("⚠️ 不是 CLMM 池子帳戶: %s (長度: %d)%n", poolIds.get(i), account.getData().length());
+                }
+            } finally {
+                account.release();
+            }
+        }
+        
+        if (!result.getMissingKeys().isEmpty() || !result.getFailedKeys().isEmpty()) {
+            System.out.printf("⚠️ 池子讀取: %d 個不存在、%d 個查詢失敗%n",
+                result.getMissingKeys().size(), result.getFailedKeys().size());
+        }
+        return pools;
+    }
+    
+    /**
+     * 讀取所有 Position 上下界所在的 tick array，同一週期已讀取的不重複查詢；讀取失敗時不計算手續費
+     */
+    private Map<Pubkey, TickArrayState> loadTickArrays(List<SolanaService.PositionAccountInfo> positions,
+                                                       Map<String, PoolState> pools, Map<String, Pubkey> programIds) {
+        Set<Pubkey> addresses = new LinkedHashSet<>();
+        for (SolanaService.PositionAccountInfo position : positions) {
+            PoolState pool = pools.get(position.getPoolId());
+            if (pool != null && position.getState() != null) {
+                addresses.add(lowerTickArray(position, pool, programIds));
+                addresses.add(upperTickArray(position, pool, programIds));
+            }
+        }
+        if (addresses.isEmpty()) {
+            return Map.of();
+        }
+        
+        try {
+            return tickArrayCache.load(addresses);
+        } catch (Exception e) {
+            System.err.printf("⚠️ tick array 讀取失敗，略過手續費計算: %s%n", e.getMessage());
+            return Map.of();
+        }
+    }
+    
+    private Pubkey lowerTickArray(SolanaService.PositionAccountInfo position, PoolState pool, Map<String, Pubkey> programIds) {
+        return tickArrayCache.address(programIds.get(position.getPoolId()), Pubkey.of(position.getPoolId()),
+            position.getTickLower(), pool.tickSpacing());
+    }
+    
+    private Pubkey upperTickArray(SolanaService.PositionAccountInfo position, PoolState pool, Map<String, Pubkey> programIds) {
+        return tickArrayCache.address(programIds.get(position.getPoolId()), Pubkey.of(position.getPoolId()),
+            position.getTickUpper(), pool.tickSpacing());
+    }
+    
+    private PositionValuation valuate(SolanaService.PositionAccountInfo position, U128 sqrtPrice, PoolState pool,
+                                      Map<String, Double> usdPrices, LiquidityMath math) {
+        int decimalsA = pool.mintDecimals0();
+        int decimalsB = pool.mintDecimals1();
+        int tickCurrent = pool.tickCurrent();
+        math.amountsForLiquidity(tickCurrent, sqrtPrice, position.getTickLower(), position.getTickUpper(), position.getLiquidity());
+        
+        PositionValuation valuation = new PositionValuation();
+        valuation.setPositionAddress(position.getPositionAddress());
+        valuation.setNftMint(position.getNftMint());
+        valuation.setPoolId(position.getPoolId());
+        valuation.setMintA(pool.tokenMint0Base58());
+        valuation.setMintB(pool.tokenMint1Base58());
+        valuation.setDecimalsA(decimalsA);
+        valuation.setDecimalsB(decimalsB);
+        valuation.setTickLower(position.getTickLower());
+        valuation.setTickUpper(position.getTickUpper());
+        valuation.setTickCurrent(tickCurrent);
+        valuation.setInRange(tickCurrent >= position.getTickLower() && tickCurrent < position.getTickUpper());
+        valuation.setRawAmountA(math.amount0().copy());
+        valuation.setRawAmountB(math.amount1().copy());
+        valuation.setAmountA(math.amount0().doubleValue() * TickMath.decimalFactor(-decimalsA));
+        valuation.setAmountB(math.amount1().doubleValue() * TickMath.decimalFactor(-decimalsB));
+        valuation.setCurrentPrice(TickMath.priceFromSqrtPriceX64(sqrtPrice, decimalsA, decimalsB));
+        valuation.setLowerPrice(TickMath.priceAtTick(position.getTickLower(), decimalsA, decimalsB));
+        valuation.setUpperPrice(TickMath.priceAtTick(position.getTickUpper(), decimalsA, decimalsB));
+        
+        // 一邊有美元價格即可由池子價格推得另一邊
+        double usdA = usdPrice(valuation.getMintA(), usdPrices);
+        double usdB = usdPrice(valuation.getMintB(), usdPrices);
+        if (Double.isNaN(usdA) && !Double.isNaN(usdB)) {
+            usdA = valuation.getCurrentPrice() * usdB;
+        } else if (Double.isNaN(usdB) && !Double.isNaN(usdA) && valuation.getCurrentPrice() > 0) {
+            usdB = usdA / valuation.getCurrentPrice();
+        }
+        valuation.setUsdA(usdA);
+        valuation.setUsdB(usdB);
+        valuation.setUsdValue(valuation.getAmountA() * usdA + valuation.getAmountB() * usdB);
+        return valuation;
+    }
+    
+    /**
+     * 未領取手續費 = token_fees_owed + (fee_growth_inside - fee_growth_inside_last) * liquidity / 2^64；
+     * 獎勵相同，池子的 reward_growth_global 先推進到 now（秒）再計算
+     */
+    private void applyFees(PositionValuation valuation, SolanaService.PositionAccountInfo position, PoolState pool,
+                           TickArrayState lowerArray, TickArrayState upperArray, long now,
+                           Map<String, Double> usdPrices, FeeWorkspace w) {
+        int tickLower = position.getTickLower();
+        int tickUpper = position.getTickUpper();
+        int lowerIndex = lowerArray.indexOf(tickLower, pool.tickSpacing());
+        int upperIndex = upperArray.indexOf(tickUpper, pool.tickSpacing());
+        if (lowerArray.tick(lowerIndex) != tickLower || upperArray.tick(upperIndex) != tickUpper) {
+            // 上下界 tick 尚未初始化，表示帳戶資料不一致，不計算
+            return;
+        }
+        
+        PersonalPositionState state = position.getState();
+        U128 liquidity = position.getLiquidity();
+        int tickCurrent = pool.tickCurrent();
+        
+        FeeGrowthMath.growthInside(tickCurrent, pool.feeGrowthGlobal0(w.global),
+            tickLower, lowerArray.feeGrowthOutside0(lowerIndex, w.outsideLower),
+            tickUpper, upperArray.feeGrowthOutside0(upperIndex, w.outsideUpper), w.inside);
+        U128 feesA = FeeGrowthMath.accrued(w.inside, state.feeGrowthInside0Last(w.last), liquidity, new U128())
+            .addUnsigned(state.tokenFeesOwed0());
+        
+        FeeGrowthMath.growthInside(tickCurrent, pool.feeGrowthGlobal1(w.global),
+            tickLower, lowerArray.feeGrowthOutside1(lowerIndex, w.outsideLower),
+            tickUpper, upperArray.feeGrowthOutside1(upperIndex, w.outsideUpper), w.inside);
+        U128 feesB = FeeGrowthMath.accrued(w.inside, state.feeGrowthInside1Last(w.last), liquidity, new U128())
+            .addUnsigned(state.tokenFeesOwed1());
+        
+        valuation.setRawFeesA(feesA);
+        valuation.setRawFeesB(feesB);
+        valuation.setFeesA(feesA.doubleValue() * TickMath.decimalFactor(-valuation.getDecimalsA()));
+        valuation.setFeesB(feesB.doubleValue() * TickMath.decimalFactor(-valuation.getDecimalsB()));
+        double feesUsdValue = valuation.getFeesA() * valuation.getUsdA() + valuation.getFeesB() * valuation.getUsdB();
+        
+        List<RewardAmount> rewards = new ArrayList<>();
+        for (int i = 0; i < PoolState.REWARD_COUNT; i++) {
+            if (!pool.isRewardInitialized(i)) {
+                continue;
+            }
+            FeeGrowthMath.projectRewardGrowthGlobal(pool.rewardGrowthGlobal(i, w.global), now,
+                pool.rewardOpenTime(i), pool.rewardEndTime(i), pool.rewardLastUpdateTime(i),
+                pool.rewardEmissionsPerSecond(i, w.emissions), pool.liquidity(w.poolLiquidity), w.scratch);
+            FeeGrowthMath.growthInside(tickCurrent, w.global,
+                tickLower, lowerArray.rewardGrowthOutside(lowerIndex, i, w.outsideLower),
+                tickUpper, upperArray.rewardGrowthOutside(upperIndex, i, w.outsideUpper), w.inside);
+            U128 owed = FeeGrowthMath.accrued(w.inside, state.rewardGrowthInsideLast(i, w.last), liquidity, new U128())
+                .addUnsigned(state.rewardAmountOwed(i));
+            
+            RewardAmount reward = new RewardAmount();
+            reward.setMint(pool.rewardTokenMintBase58(i));
+            reward.setRawAmount(owed);
+            // 獎勵代幣與池子代幣相同時才知道小數位數，其餘需另外查詢 mint
+            if (reward.getMint().equals(valuation.getMintA())) {
+                reward.setAmount(owed.doubleValue() * TickMath.decimalFactor(-valuation.getDecimalsA()));
+            } else if (reward.getMint().equals(valuation.getMintB())) {
+                reward.setAmount(owed.doubleValue() * TickMath.decimalFactor(-valuation.getDecimalsB()));
+            } else {
+                reward.setAmount(Double.NaN);
+            }
+            reward.setUsdValue(reward.getAmount() * usdPrice(reward.getMint(), usdPrices));
+            rewards.add(reward);
+            // 無法計價的獎勵不影響手續費的美元價值
+            if (!Double.isNaN(reward.getUsdValue())) {
+                feesUsdValue += reward.getUsdValue();
+            }
+        }
+        valuation.setFeesUsdValue(feesUsdValue);
+        valuation.setRewards(rewards);
+        valuation.setFeesAvailable(true);
+    }
+    
+    private static double usdPrice(String mint, Map<String, Double> usdPrices) {
+        Double price = usdPrices.get(mint);
+        if (price != null) {
+            return price;
+        }
+        return USD_STABLE_MINTS.contains(mint) ? 1.0 : Double.NaN;
+    }
+    
+    // 整批估值共用的暫存值
+    private static final class FeeWorkspace {
+        private final U128 sqrtPrice = new U128();
+        private final U128 global = new U128();
+        private final U128 outsideLower = new U128();
+        private final U128 outsideUpper = new U128();
+        private final U128 inside = new U128();
+        private final U128 last = new U128();
+        private final U128 emissions = new U128();
+        private final U128 poolLiquidity = new U128();
+        private final U128 scratch = new U128();
+    }
+    
+    public static class RewardAmount {
+        private String mint;
+        private U128 rawAmount;
+        private double amount; // 小數位數未知時為 NaN
+        private double usdValue;
+        
+        // Getters and Setters
+        public String getMint() { return mint; }
+        public void setMint(String mint) { this.mint = mint; }
+        public U128 getRawAmount() { return rawAmount; }
+        public void setRawAmount(U128 rawAmount) { this.rawAmount = rawAmount; }
+        public double getAmount() { return amount; }
+        public void setAmount(double amount) { this.amount = amount; }
+        public double getUsdValue() { return usdValue; }
+        public void setUsdValue(double usdValue) { this.usdValue = usdValue; }
+    }
+    
+    public static class PositionValuation {
+        private String positionAddress;
+        private String nftMint;
+        private String poolId;
+        private String mintA;
+        private String mintB;
+        private int decimalsA;
+        private int decimalsB;
+        private int tickLower;
+        private int tickUpper;
+        private int tickCurrent;
+        private boolean inRange;
+        private U128 rawAmountA; // 未調整小數位數的最小單位
+        private U128 rawAmountB;
+        private double amountA;
+        private double amountB;
+        private double currentPrice; // 以代幣 B 計價的代幣 A 價格
+        private double lowerPrice;
+        private double upperPrice;
+        private double usdValue; // 無法取得美元價格時為 NaN
+        private double usdA;
+        private double usdB;
+        private boolean feesAvailable; // 缺少 Position 完整欄位或 tick array 時為 false
+        private U128 rawFeesA;
+        private U128 rawFeesB;
+        private double feesA;
+        private double feesB;
+        private double feesUsdValue; // 手續費加上可計價獎勵的美元價值
+        private List<RewardAmount> rewards = new ArrayList<>();
+        
+        // Getters and Setters
+        public String getPositionAddress() { return positionAddress; }
+        public void setPositionAddress(String positionAddress) { this.positionAddress = positionAddress; }
+        public String getNftMint() { return nftMint; }
+        public void setNftMint(String nftMint) { this.nftMint = nftMint; }
+        public String getPoolId() { return poolId; }
+        public void setPoolId(String poolId) { this.poolId = poolId; }
+        public String getMintA() { return mintA; }
+        public void setMintA(String mintA) { this.mintA = mintA; }
+        public String getMintB() { return mintB; }
+        public void setMintB(String mintB) { this.mintB = mintB; }
+        public int getDecimalsA() { return decimalsA; }
+        public void setDecimalsA(int decimalsA) { this.decimalsA = decimalsA; }
+        public int getDecimalsB() { return decimalsB; }
+        public void setDecimalsB(int decimalsB) { this.decimalsB = decimalsB; }
+        public int getTickLower() { return tickLower; }
+        public void setTickLower(int tickLower) { this.tickLower = tickLower; }
+        public int getTickUpper() { return tickUpper; }
+        public void setTickUpper(int tickUpper) { this.tickUpper = tickUpper; }
+        public int getTickCurrent() { return tickCurrent; }
+        public void setTickCurrent(int tickCurrent) { this.tickCurrent = tickCurrent; }
+        public boolean isInRange() { return inRange; }
+        public void setInRange(boolean inRange) { this.inRange = inRange; }
+        public U128 getRawAmountA() { return rawAmountA; }
+        public void setRawAmountA(U128 rawAmountA) { this.rawAmountA = rawAmountA; }
+        public U128 getRawAmountB() { return rawAmountB; }
+        public void setRawAmountB(U128 rawAmountB) { this.rawAmountB = rawAmountB; }
+        public double getAmountA() { return amountA; }
+        public void setAmountA(double amountA) { this.amountA = amountA; }
+        public double getAmountB() { return amountB; }
+        public void setAmountB(double amountB) { this.amountB = amountB; }
+        public double getCurrentPrice() { return currentPrice; }
+        public void setCurrentPrice(double currentPrice) { this.currentPrice = currentPrice; }
+        public double getLowerPrice() { return lowerPrice; }
+        public void setLowerPrice(double lowerPrice) { this.lowerPrice = lowerPrice; }
+        public double getUpperPrice() { return upperPrice; }
+        public void setUpperPrice(double upperPrice) { this.upperPrice = upperPrice; }
+        public double getUsdValue() { return usdValue; }
+        public void setUsdValue(double usdValue) { this.usdValue = usdValue; }
+        public double getUsdA() { return usdA; }
+        public void setUsdA(double usdA) { this.usdA = usdA; }
+        public double getUsdB() { return usdB; }
+        public void setUsdB(double usdB) { this.usdB = usdB; }
+        public boolean isFeesAvailable() { return feesAvailable; }
+        public void setFeesAvailable(boolean feesAvailable) { this.feesAvailable = feesAvailable; }
+        public U128 getRawFeesA() { return rawFeesA; }
+        public void setRawFeesA(U128 rawFeesA) { this.rawFeesA = rawFeesA; }
+        public U128 getRawFeesB() { return rawFeesB; }
+        public void setRawFeesB(U128 rawFeesB) { this.rawFeesB = rawFeesB; }
+        public double getFeesA() { return feesA; }
+        public void setFeesA(double feesA) { this.feesA = feesA; }
+        public double getFeesB() { return feesB; }
+        public void setFeesB(double feesB) { this.feesB = feesB; }
+        public double getFeesUsdValue() { return feesUsdValue; }
+        public void setFeesUsdValue(double feesUsdValue) { this.feesUsdValue = feesUsdValue; }
+        public List<RewardAmount> getRewards() { return rewards; }
+        public void setRewards(List<RewardAmount> rewards) { this.rewards = rewards; }
+    }
+}
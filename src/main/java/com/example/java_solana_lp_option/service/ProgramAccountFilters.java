@@ -0,0 +1,73 @@
+package com.example.java_solana_lp_option.service;
+
+import java.util.*;
+
+/**
+ * getProgramAccounts 過濾條件 - 在節點端以 dataSize / memcmp 篩選帳戶，並以 dataSlice 只取回需要的位元組
+ */
+public class ProgramAccountFilters {
+    
+    private final List<Map<String, Object>> filters = new ArrayList<>();
+    private Map<String, Object> dataSlice;
+    
+    public static ProgramAccountFilters create() {
+        return new ProgramAccountFilters();
+    }
+    
+    /**
+     * 帳戶資料長度必須等於 size
+     */
+    public ProgramAccountFilters dataSize(int size) {
+        Map<String, Object> filter = new HashMap<>();
+        filter.put("dataSize", size);
+        filters.add(filter);
+        return this;
+    }
+    
+    /**
+     * 帳戶資料在 offset 處必須等於指定的 base58 字串（例如 pubkey）
+     */
+    public ProgramAccountFilters memcmp(int offset, String base58Bytes) {
+        Map<String, Object> memcmp = new HashMap<>();
+        memcmp.put("offset", offset);
+        memcmp.put("bytes", base58Bytes);
+        
+        Map<String, Object> filter = new HashMap<>();
+        filter.put("memcmp", memcmp);
+        filters.add(filter);
+        return this;
+    }
+    
+    /**
+     * 帳戶資料在 offset 處必須等於指定的原始位元組
+     */
+    public ProgramAccountFilters memcmp(int offset, byte[] bytes) {
+        Map<String, Object> memcmp = new HashMap<>();
+        memcmp.put("offset", offset);
+        memcmp.put("bytes", Base64.getEncoder().encodeToString(bytes));
+        memcmp.put("encoding", "base64");
+        
+        Map<String, Object> filter = new HashMap<>();
+        filter.put("memcmp", memcmp);
+        filters.add(filter);
+        return this;
+    }
+    
+    /**
+     * 只回傳帳戶資料中 [offset, offset + length) 的位元組
+     */
+    public ProgramAccountFilters dataSlice(int offset, int length) {
+        dataSlice = new HashMap<>();
+        dataSlice.put("offset", offset);
+        dataSlice.put("length", length);
+        return this;
+    }
+    
+    public List<Map<String, Object>> getFilters() {
+        return filters;
+    }
+    
+    public Map<String, Object> getDataSlice() {
+        return dataSlice;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * getProgramAccounts 串流解析 - 以 Jackson token stream 逐一讀出帳戶，
+ * 帳戶資料直接從 base64 token 解碼到緩衝池中重複使用的緩衝區（base64+zstd 再串流解壓縮），不建立整棵 JSON 樹
+ *
+ * 注意：next() 回傳的 ProgramAccount 會在下一次 next() 時被覆寫，需要保留時請自行複製
+ */
+public class ProgramAccountStream implements Iterator<ProgramAccountStream.ProgramAccount>, AutoCloseable {
+    
+    private final JsonParser parser;
+    private final ProgramAccount current;
+    private boolean ready;
+    private boolean finished;
+    
+    public ProgramAccountStream(JsonFactory jsonFactory, InputStream in, AccountBufferPool bufferPool) throws IOException {
+        this.current = new ProgramAccount(bufferPool);
+        this.parser = jsonFactory.createParser(in);
+        try {
+            moveToAccountArray();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (!ready && !finished) {
+            try {
+                advance();
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+        }
+        return ready;
+    }
+    
+    @Override
+    public ProgramAccount next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        return current;
+    }
+    
+    /**
+     * 關閉底層連線並歸還緩衝區；提早結束時未讀取的回應不會再下載
+     */
+    @Override
+    public void close() {
+        finished = true;
+        ready = false;
+        current.release();
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // 關閉時的錯誤可忽略
+        }
+    }
+    
+    /**
+     * 移動到 result 陣列的開頭；result 可能是陣列或帶 context 的 { value: [...] }
+     */
+    private void moveToAccountArray() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Solana RPC 回應格式錯誤");
+        }
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            
+            if ("error".equals(field)) {
+                throw new SolanaRpcException("Solana RPC 錯誤: ", parser.readValueAsTree());
+            }
+            if (!"result".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            
+            if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String resultField = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if ("value".equals(resultField)) {
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+            }
+            
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("getProgramAccounts 回應中找不到帳戶陣列");
+            }
+            return;
+        }
+        
+        throw new IOException("Solana RPC 回應缺少 result");
+    }
+    
+    private void advance() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            // END_ARRAY 或串流結束
+            close();
+            return;
+        }
+        
+        current.reset();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            
+            if ("pubkey".equals(field)) {
+                current.pubkey = parser.getText();
+            } else if ("account".equals(field)) {
+                readAccount();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        current.data = current.compressed ? current.inflated.view() : current.buffer.view();
+        ready = true;
+    }
+    
+    private void readAccount() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            
+            switch (field) {
+                case "data":
+                    if (token == JsonToken.START_ARRAY) {
+                        // ["<base64>", "base64"] 或 ["<base64>", "base64+zstd"]
+                        if (parser.nextToken() == JsonToken.VALUE_STRING) {
+                            parser.readBinaryValue(current.buffer);
+                        }
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            if (SolanaService.ENCODING_BASE64_ZSTD.equals(parser.getText())) {
+                                current.inflate();
+                            }
+                            parser.skipChildren();
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "owner":
+                    current.owner = parser.getText();
+                    break;
+                case "lamports":
+                    current.lamports = parser.getLongValue();
+                    break;
+                case "executable":
+                    current.executable = parser.getBooleanValue();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+    }
+    
+    /**
+     * 串流中的單一帳戶（重複使用同一個實例）
+     */
+    public static class ProgramAccount {
+        private String pubkey;
+        private String owner;
+        private long lamports;
+        private boolean executable;
+        private final AccountBufferPool bufferPool;
+        private final PooledOutputStream buffer;
+        private PooledOutputStream inflated; // 第一次遇到 zstd 時建立
+        private boolean compressed;
+        private AccountBytes data;
+        
+        private ProgramAccount(AccountBufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+            this.buffer = new PooledOutputStream(bufferPool, 1024);
+        }
+        
+        public String getPubkey() { return pubkey; }
+        public String getOwner() { return owner; }
+        public long getLamports() { return lamports; }
+        public boolean isExecutable() { return executable; }
+        
+        /**
+         * 解碼後的帳戶資料視圖，底層緩衝區在下一個帳戶時會被覆寫，不需要 release()
+         */
+        public AccountBytes getData() { return data; }
+        public int getDataLength() { return data.length(); }
+        
+        /**
+         * 複製出獨立的帳戶資料
+         */
+        public byte[] copyData() {
+            return data.toByteArray();
+        }
+        
+        private void reset() {
+            pubkey = null;
+            owner = null;
+            lamports = 0;
+            executable = false;
+            data = null;
+            compressed = false;
+            buffer.reset();
+        }
+        
+        /**
+         * 將 buffer 中的 zstd 壓縮資料解壓到 inflated
+         */
+        private void inflate() throws IOException {
+            if (inflated == null) {
+                inflated = new PooledOutputStream(bufferPool, 4096);
+            }
+            inflated.reset();
+            ZstdDecompressor.decompress(buffer.view(), inflated);
+            compressed = true;
+        }
+        
+        private void release() {
+            buffer.release();
+            if (inflated != null) {
+                inflated.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.java_solana_lp_option.service;
+
+/**
+ * 單一 RPC 端點的熔斷器 - 連續失敗達門檻後快速失敗，冷卻後放行一個試探請求
+ */
+public class RpcCircuitBreaker {
+    
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openDurationMs;
+    
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long tripCount;
+    
+    public RpcCircuitBreaker(boolean enabled, int failureThreshold, long openDurationMs) {
+        this.enabled = enabled;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMs = openDurationMs;
+    }
+    
+    /**
+     * 目前是否可能放行請求（不改變狀態，供路由挑選端點時使用）
+     */
+    public synchronized boolean isAvailable() {
+        if (!enabled) {
+            return true;
+        }
+        switch (state) {
+            case OPEN:
+                return System.currentTimeMillis() - openedAt >= openDurationMs;
+            case HALF_OPEN:
+                return !trialInFlight;
+            default:
+                return true;
+        }
+    }
+    
+    /**
+     * 嘗試取得送出許可；熔斷中回傳 false，冷卻結束後只放行一個試探請求
+     */
+    public synchronized boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.OPEN) {
+            return false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+    
+    /**
+     * 請求成功：重設連續失敗次數，試探請求成功時關閉熔斷；
+     * 熔斷前已送出、熔斷後才成功的請求不會讓 OPEN 直接關閉，仍需經過 HALF_OPEN 試探
+     */
+    public synchronized void onSuccess() {
+        if (state == State.OPEN) {
+            return;
+        }
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+    
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        
+        // 熔斷前已送出的請求陸續失敗時不重複計算
+        if (!enabled || state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            tripCount++;
+        }
+    }
+    
+    /**
+     * 請求被取消（例如對沖請求落敗），不計成功或失敗，只歸還試探名額
+     */
+    public synchronized void onCancel() {
+        trialInFlight = false;
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    public synchronized long getTripCount() {
+        return tripCount;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.java_solana_lp_option.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 非阻塞的並行上限控制 - 超出上限的非同步請求排隊，待前面的請求完成後才啟動
+ *
+ * 同步完成的工作（例如熔斷時的 failedFuture、重播模式）會在 whenComplete 中立即把許可轉交給下一個排隊工作；
+ * 同一執行緒上的轉交改由最外層的迴圈依序執行，排隊再多也不會讓呼叫堆疊隨之加深
+ */
+public class RpcConcurrencyLimiter {
+    
+    // 目前執行緒正在執行轉交的工作時，新轉交的工作暫存於此，由最外層的迴圈執行
+    private static final ThreadLocal<ArrayDeque<Runnable>> TRAMPOLINE = new ThreadLocal<>();
+    
+    private final int maxConcurrent;
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private int inFlight;
+    
+    public RpcConcurrencyLimiter(int maxConcurrent) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+    
+    /**
+     * 在許可範圍內啟動非同步工作，呼叫端不會被阻塞
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> started;
+            try {
+                started = task.get();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            
+            started.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+        
+        boolean runNow;
+        synchronized (this) {
+            runNow = inFlight < maxConcurrent;
+            if (runNow) {
+                inFlight++;
+            } else {
+                waiting.add(start);
+            }
+        }
+        
+        if (runNow) {
+            start.run();
+        }
+        return result;
+    }
+    
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+    
+    public synchronized int getQueued() {
+        return waiting.size();
+    }
+    
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                inFlight--;
+            }
+        }
+        
+        // 許可直接轉交給下一個排隊的工作
+        if (next != null) {
+            runTrampolined(next);
+        }
+    }
+    
+    private static void runTrampolined(Runnable task) {
+        ArrayDeque<Runnable> pending = TRAMPOLINE.get();
+        if (pending != null) {
+            pending.add(task);
+            return;
+        }
+        
+        pending = new ArrayDeque<>();
+        TRAMPOLINE.set(pending);
+        try {
+            for (Runnable current = task; current != null; current = pending.poll()) {
+                current.run();
+            }
+        } finally {
+            TRAMPOLINE.remove();
+        }
+    }
+}
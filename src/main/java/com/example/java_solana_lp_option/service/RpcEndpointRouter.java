@@ -0,0 +1,259 @@
+package com.example.java_solana_lp_option.service;
+
+import com.example.java_solana_lp_option.config.SolanaConfig;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多端點 RPC 路由器 - 依各端點的延遲、錯誤率與 slot 落後程度挑選最佳節點；
+ * slot 與健康探測結果由 NodeHealthMonitor 定期回報
+ */
+public class RpcEndpointRouter {
+    
+    // 計算延遲百分位所保留的樣本數
+    private static final int LATENCY_SAMPLES = 128;
+    // 錯誤率指數移動平均的權重
+    private static final double ERROR_ALPHA = 0.1;
+    // 錯誤率低於此樣本數時不剔除端點
+    private static final int MIN_SAMPLES_TO_EJECT = 10;
+    
+    private final SolanaConfig solanaConfig;
+    private final List<Endpoint> endpoints;
+    
+    public RpcEndpointRouter(SolanaConfig solanaConfig) {
+        this.solanaConfig = solanaConfig;
+        
+        // 未設定多端點時退回單一 rpcUrl
+        String[] urls = solanaConfig.getRpcEndpoints();
+        if (urls == null || urls.length == 0) {
+            urls = new String[] { solanaConfig.getRpcUrl() };
+        }
+        
+        List<Endpoint> list = new ArrayList<>();
+        for (String url : urls) {
+            list.add(new Endpoint(url, new RpcCircuitBreaker(solanaConfig.isRpcCircuitBreakerEnabled(),
+                solanaConfig.getRpcCircuitFailureThreshold(), solanaConfig.getRpcCircuitOpenDuration())));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+    }
+    
+    /**
+     * 挑選目前分數最佳的端點；全部被剔除時改用剔除時間最早的端點，全部熔斷時回傳 null
+     */
+    public Endpoint select() {
+        Endpoint best = select(null);
+        if (best != null) {
+            return best;
+        }
+        
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.breaker.isAvailable()
+                    && (best == null || endpoint.ejectedAt < best.ejectedAt)) {
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * 挑選主要端點以外的最佳健康端點，作為對沖請求的目標；沒有時回傳 null
+     */
+    public Endpoint selectHedge(Endpoint primary) {
+        return select(primary);
+    }
+    
+    private Endpoint select(Endpoint exclude) {
+        Endpoint best = null;
+        double bestScore = Double.MAX_VALUE;
+        
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint == exclude || endpoint.isEjected() || !endpoint.breaker.isAvailable()) {
+                continue;
+            }
+            double score = endpoint.score();
+            if (score < bestScore) {
+                bestScore = score;
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * 所有端點（包含已剔除的）
+     */
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+    
+    /**
+     * 記錄一次成功的請求
+     */
+    public void recordSuccess(Endpoint endpoint, long latencyNanos) {
+        endpoint.recordLatency(latencyNanos);
+        endpoint.recordOutcome(false);
+        endpoint.breaker.onSuccess();
+    }
+    
+    /**
+     * 記錄一次失敗的請求，錯誤率超過上限時剔除端點
+     */
+    public void recordFailure(Endpoint endpoint) {
+        endpoint.recordOutcome(true);
+        endpoint.breaker.onFailure();
+        ejectIfErrorRateExceeded(endpoint);
+    }
+    
+    /**
+     * 記錄一次被取消的請求，不影響統計
+     */
+    public void recordCancelled(Endpoint endpoint) {
+        endpoint.breaker.onCancel();
+    }
+    
+    /**
+     * 記錄一次健康探測的結果：只更新 slot、探測狀態與錯誤率；
+     * 熔斷器只由實際請求驅動（OPEN 必須經過 HALF_OPEN 試探才會關閉），探測耗時也不列入請求延遲樣本
+     */
+    public void recordProbe(Endpoint endpoint, boolean ok, long slot) {
+        endpoint.lastProbeOk = ok;
+        if (slot > 0) {
+            endpoint.lastSlot = slot;
+        }
+        endpoint.recordOutcome(!ok);
+        if (!ok) {
+            ejectIfErrorRateExceeded(endpoint);
+        }
+    }
+    
+    /**
+     * 一輪探測結束後更新 slot 落後：落後過多的端點剔除，已恢復的端點重新加入
+     */
+    public void evaluateSlotLag() {
+        // 只有一個端點時無從比較 slot，也沒有可切換的對象
+        if (endpoints.size() < 2) {
+            return;
+        }
+        
+        long highestSlot = 0;
+        for (Endpoint endpoint : endpoints) {
+            highestSlot = Math.max(highestSlot, endpoint.lastSlot);
+        }
+        
+        long now = System.currentTimeMillis();
+        for (Endpoint endpoint : endpoints) {
+            endpoint.slotLag = endpoint.lastSlot > 0 ? highestSlot - endpoint.lastSlot : 0;
+            boolean lagging = endpoint.slotLag > solanaConfig.getRpcMaxSlotLag();
+            
+            if (!endpoint.isEjected()) {
+                if (lagging) {
+                    eject(endpoint, String.format("落後 %d 個 slot", endpoint.slotLag));
+                }
+            } else if (endpoint.lastProbeOk && !lagging
+                    && now - endpoint.ejectedAt >= solanaConfig.getRpcEjectDuration()) {
+                endpoint.reinstate();
+                System.out.printf("✅ RPC 端點恢復: %s%n", endpoint.getUrl());
+            }
+        }
+    }
+    
+    private void ejectIfErrorRateExceeded(Endpoint endpoint) {
+        if (endpoints.size() > 1 && !endpoint.isEjected()
+                && endpoint.samples >= MIN_SAMPLES_TO_EJECT
+                && endpoint.errorRate > solanaConfig.getRpcMaxErrorRate()) {
+            eject(endpoint, String.format("錯誤率 %.0f%%", endpoint.errorRate * 100));
+        }
+    }
+    
+    private void eject(Endpoint endpoint, String reason) {
+        endpoint.ejectedAt = System.currentTimeMillis();
+        endpoint.ejected = true;
+        System.err.printf("⚠️ 暫時剔除 RPC 端點 %s: %s%n", endpoint.getUrl(), reason);
+    }
+    
+    /**
+     * 單一 RPC 端點與其統計資料
+     */
+    public static class Endpoint {
+        private final String url;
+        private final URI uri;
+        private final RpcCircuitBreaker breaker;
+        
+        // 延遲樣本環形緩衝區（毫秒）與排序後的快照
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private int latencyIndex;
+        private volatile long[] sortedLatencies = new long[0];
+        
+        private volatile long p50Latency;
+        private volatile long p99Latency;
+        private volatile double errorRate;
+        private volatile long samples;
+        private volatile long lastSlot;
+        private volatile long slotLag;
+        private volatile boolean lastProbeOk;
+        private volatile boolean ejected;
+        private volatile long ejectedAt;
+        
+        Endpoint(String url, RpcCircuitBreaker breaker) {
+            this.url = url;
+            this.uri = URI.create(url);
+            this.breaker = breaker;
+        }
+        
+        public String getUrl() { return url; }
+        public URI getUri() { return uri; }
+        public long getP50Latency() { return p50Latency; }
+        public long getP99Latency() { return p99Latency; }
+        public double getErrorRate() { return errorRate; }
+        public long getLastSlot() { return lastSlot; }
+        public long getSlotLag() { return slotLag; }
+        public boolean isEjected() { return ejected; }
+        public RpcCircuitBreaker getBreaker() { return breaker; }
+        
+        /**
+         * 近期延遲的指定百分位（毫秒），尚無樣本時回傳 0
+         */
+        public long latencyPercentile(double percentile) {
+            long[] sorted = sortedLatencies;
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(sorted.length * percentile) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+        
+        /**
+         * 路由分數，越低越好：以 p50 為主、p99 為輔，並依錯誤率加權
+         */
+        double score() {
+            double latency = p50Latency + (p99Latency - p50Latency) * 0.1;
+            return (latency + 1) * (1 + errorRate * 10) + slotLag;
+        }
+        
+        private synchronized void recordLatency(long latencyNanos) {
+            latencies[latencyIndex] = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+            latencyIndex = (latencyIndex + 1) % latencies.length;
+            latencyCount = Math.min(latencyCount + 1, latencies.length);
+            
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            sortedLatencies = sorted;
+            p50Latency = latencyPercentile(0.50);
+            p99Latency = latencyPercentile(0.99);
+        }
+        
+        private synchronized void recordOutcome(boolean failed) {
+            errorRate = errorRate * (1 - ERROR_ALPHA) + (failed ? ERROR_ALPHA : 0);
+            samples++;
+        }
+        
+        private synchronized void reinstate() {
+            ejected = false;
+            errorRate = 0;
+            samples = 0;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * RPC 錄製資料 - 以「方法 + 參數」為鍵保存實際的 JSON-RPC 回應（不含 id），
+ * 存成 gzip 壓縮的 JSON lines：{"key":...,"latencyMicros":...,"response":{...}}
+ *
+ * 同一個鍵可錄到多筆回應（例如反覆查詢 getSlot），回放時依錄製順序輪流取用；
+ * 每次錄製寫入各自的檔案，回放時依序載入全部
+ */
+public class RpcFixtureStore implements AutoCloseable {
+    
+    private static final DateTimeFormatter SESSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final Pattern SESSION_PATTERN = Pattern.compile("\\d{8}-\\d{6}-\\d{3}");
+    
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Writer writer; // 只在錄製模式開啟
+    private final AtomicInteger recorded = new AtomicInteger();
+    
+    private RpcFixtureStore(ObjectMapper objectMapper, Writer writer) {
+        this.objectMapper = objectMapper;
+        this.writer = writer;
+    }
+    
+    /**
+     * 讀取錄製資料供回放使用：設定的檔案加上之後每次錄製建立的檔案，依錄製時間順序載入；
+     * 錄製中斷造成檔尾不完整時，保留截斷前的完整紀錄
+     */
+    public static RpcFixtureStore load(Path path, ObjectMapper objectMapper) throws IOException {
+        List<Path> files = sessionFiles(path);
+        if (files.isEmpty()) {
+            throw new NoSuchFileException(path.toString());
+        }
+        
+        RpcFixtureStore store = new RpcFixtureStore(objectMapper, null);
+        for (Path file : files) {
+            store.loadFile(file);
+        }
+        return store;
+    }
+    
+    /**
+     * 開啟新的錄製檔，每筆寫入後立即 flush，程式中斷也不會遺失已錄製的資料；
+     * 設定的檔案已存在時改寫到同目錄的 <名稱>-<時間>.<副檔名>，每個檔案只有一個 gzip 區段，
+     * 中斷只會截斷該次錄製的檔尾，不影響其他錄製
+     */
+    public static RpcFixtureStore record(Path path, ObjectMapper objectMapper) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path target = Files.exists(path) ? sessionPath(path, LocalDateTime.now()) : path;
+        GZIPOutputStream out = new GZIPOutputStream(Files.newOutputStream(target, StandardOpenOption.CREATE_NEW), true);
+        return new RpcFixtureStore(objectMapper, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * 某次錄製的檔案路徑：solana-rpc.jsonl.gz -> solana-rpc-20250101-120000-000.jsonl.gz
+     */
+    static Path sessionPath(Path path, LocalDateTime time) {
+        String name = path.getFileName().toString();
+        int dot = name.indexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return path.resolveSibling(stem + "-" + SESSION_FORMAT.format(time) + extension);
+    }
+    
+    /**
+     * 設定的檔案（若存在）與其後各次錄製的檔案，時間格式固定，依檔名排序即為錄製順序
+     */
+    static List<Path> sessionFiles(Path path) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.exists(path)) {
+            files.add(path);
+        }
+        
+        String name = path.getFileName().toString();
+        int dot = name.indexOf('.');
+        String prefix = (dot > 0 ? name.substring(0, dot) : name) + "-";
+        String extension = dot > 0 ? name.substring(dot) : "";
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return files;
+        }
+        
+        List<Path> sessions = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                if (fileName.startsWith(prefix) && fileName.endsWith(extension)
+                        && SESSION_PATTERN.matcher(fileName.substring(prefix.length(),
+                            fileName.length() - extension.length())).matches()) {
+                    sessions.add(file);
+                }
+            }
+        }
+        sessions.sort(Comparator.comparing(file -> file.getFileName().toString()));
+        files.addAll(sessions);
+        return files;
+    }
+    
+    private void loadFile(Path file) throws IOException {
+        // 先完整解壓，截斷時已解出的資料仍保留在 decoded 中
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        boolean truncated = false;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            in.transferTo(decoded);
+        } catch (EOFException | ZipException e) {
+            // 錄製中斷，檔尾缺少 gzip trailer
+            truncated = true;
+        }
+        
+        // 只處理以換行結尾的完整紀錄
+        byte[] data = decoded.toByteArray();
+        int lineStart = 0;
+        int loaded = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+            if (i > lineStart) {
+                JsonNode record = objectMapper.readTree(data, lineStart, i - lineStart);
+                add(record.get("key").asText(), record.get("response"),
+                    TimeUnit.MICROSECONDS.toNanos(record.path("latencyMicros").asLong()));
+                loaded++;
+            }
+            lineStart = i + 1;
+        }
+        
+        if (truncated || lineStart < data.length) {
+            System.err.printf("⚠️ RPC 錄製檔不完整，只載入前 %d 筆: %s%n", loaded, file);
+        }
+    }
+    
+    /**
+     * 錄製一次 RPC 往返；批次請求會依 id 拆開，每個呼叫各存一筆
+     */
+    public void record(byte[] requestBody, JsonNode response, long latencyNanos) {
+        if (writer == null || response == null) {
+            return;
+        }
+        
+        try {
+            JsonNode request = objectMapper.readTree(requestBody);
+            if (!request.isArray()) {
+                write(key(request), response, latencyNanos);
+                return;
+            }
+            
+            Map<Long, JsonNode> responsesById = new HashMap<>();
+            for (JsonNode item : response) {
+                responsesById.put(item.path("id").asLong(), item);
+            }
+            for (JsonNode call : request) {
+                JsonNode item = responsesById.get(call.path("id").asLong());
+                if (item != null) {
+                    write(key(call), item, latencyNanos);
+                }
+            }
+        } catch (IOException e) {
+            System.err.printf("⚠️ RPC 錄製失敗: %s%n", e.getMessage());
+        }
+    }
+    
+    /**
+     * 依錄製順序取得此鍵的下一筆回應，取完後從頭循環；沒有錄到時回傳 null
+     */
+    Fixture next(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.fixtures.isEmpty()) {
+            return null;
+        }
+        int index = Math.floorMod(entry.cursor.getAndIncrement(), entry.fixtures.size());
+        return entry.fixtures.get(index);
+    }
+    
+    /**
+     * 請求物件的錄製鍵：方法名稱加上參數 JSON，不含 id
+     */
+    static String key(JsonNode call) {
+        return call.path("method").asText() + ":" + call.path("params");
+    }
+    
+    public int getKeyCount() { return entries.size(); }
+    public int getRecordedCount() { return recorded.get(); }
+    
+    public int getFixtureCount() {
+        int total = 0;
+        for (Entry entry : entries.values()) {
+            total += entry.fixtures.size();
+        }
+        return total;
+    }
+    
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        synchronized (writer) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    private void write(String key, JsonNode response, long latencyNanos) throws IOException {
+        // 淺層複製後移除 id，不影響呼叫端仍在使用的原始回應
+        JsonNode stored = response;
+        if (response.isObject() && response.has("id")) {
+            ObjectNode copy = objectMapper.createObjectNode();
+            copy.setAll((ObjectNode) response);
+            copy.remove("id");
+            stored = copy;
+        }
+        
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("key", key);
+        record.put("latencyMicros", TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        record.set("response", stored);
+        
+        String line = objectMapper.writeValueAsString(record);
+        synchronized (writer) {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        }
+        recorded.incrementAndGet();
+    }
+    
+    private void add(String key, JsonNode response, long latencyNanos) {
+        entries.computeIfAbsent(key, ignored -> new Entry()).fixtures.add(new Fixture(response, latencyNanos));
+    }
+    
+    /**
+     * 一筆錄製的回應
+     */
+    static class Fixture {
+        final JsonNode response;
+        final long latencyNanos;
+        
+        Fixture(JsonNode response, long latencyNanos) {
+            this.response = response;
+            this.latencyNanos = latencyNanos;
+        }
+    }
+    
+    private static class Entry {
+        private final List<Fixture> fixtures = new ArrayList<>(); // 只在載入時寫入
+        private final AtomicInteger cursor = new AtomicInteger();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.java_solana_lp_option.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RPC 指標 - 依方法與端點記錄延遲分佈、回應大小、解析時間、錯誤類型與重試次數，由 /actuator/prometheus 輸出
+ *
+ * 端點標籤只取主機名稱，避免網址中的 API key 出現在指標裡；meter 依標籤組合快取，不在每次呼叫時重新查找
+ */
+public class RpcMetrics {
+    
+    private final MeterRegistry registry;
+    private final Map<String, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> responseSizes = new ConcurrentHashMap<>();
+    private final Map<String, Timer> decodeTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> retryCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> batchedCallTimers = new ConcurrentHashMap<>();
+    
+    public RpcMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    /**
+     * 一次 HTTP 往返的延遲；outcome 為 success / error / cancelled
+     */
+    public void recordRequest(String method, String endpoint, String outcome, long nanos) {
+        requestTimers.computeIfAbsent(method + '|' + endpoint + '|' + outcome, key -> Timer.builder("solana.rpc.requests")
+            .description("Solana RPC 請求延遲")
+            .tag("method", method)
+            .tag("endpoint", endpoint)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * 回應內容大小（壓縮後實際傳輸的位元組數）
+     */
+    public void recordResponseSize(String method, String endpoint, long bytes) {
+        responseSizes.computeIfAbsent(method + '|' + endpoint, key -> DistributionSummary.builder("solana.rpc.response.size")
+            .description("Solana RPC 回應大小")
+            .baseUnit("bytes")
+            .tag("method", method)
+            .tag("endpoint", endpoint)
+            .publishPercentileHistogram()
+            .register(registry))
+            .record(bytes);
+    }
+    
+    /**
+     * 解析時間；stage 為 json（回應 JSON）或帳戶資料的編碼（base64、base64+zstd，method 記為 account）
+     */
+    public void recordDecode(String method, String stage, long nanos) {
+        decodeTimers.computeIfAbsent(method + '|' + stage, key -> Timer.builder("solana.rpc.decode")
+            .description("Solana RPC 回應解析時間")
+            .tag("method", method)
+            .tag("stage", stage)
+            .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * 錯誤次數；error 為例外類別、http_狀態碼或 rpc_錯誤碼
+     */
+    public void recordError(String method, String endpoint, String error) {
+        errorCounters.computeIfAbsent(method + '|' + endpoint + '|' + error, key -> Counter.builder("solana.rpc.errors")
+            .description("Solana RPC 錯誤次數")
+            .tag("method", method)
+            .tag("endpoint", endpoint)
+            .tag("error", error)
+            .register(registry))
+            .increment();
+    }
+    
+    /**
+     * 額外送出的請求次數；reason 為 hedge（對沖）或 encoding_fallback（改用 base64 重送）
+     */
+    public void recordRetry(String method, String reason) {
+        retryCounters.computeIfAbsent(method + '|' + reason, key -> Counter.builder("solana.rpc.retries")
+            .description("Solana RPC 重送次數")
+            .tag("method", method)
+            .tag("reason", reason)
+            .register(registry))
+            .increment();
+    }
+    
+    /**
+     * 批次中單一呼叫的延遲（含等待批次送出的時間），依呼叫本身的方法記錄；
+     * 批次的 HTTP 往返在 solana.rpc.requests 中記為 method=batch
+     */
+    public void recordBatchedCall(String method, String outcome, long nanos) {
+        batchedCallTimers.computeIfAbsent(method + '|' + outcome, key -> Timer.builder("solana.rpc.batched.calls")
+            .description("Solana RPC 批次中各呼叫的延遲")
+            .tag("method", method)
+            .tag("outcome", outcome)
+            .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * 端點標籤：主機名稱
+     */
+    static String endpointLabel(URI uri) {
+        return uri.getHost() != null ? uri.getHost() : "unknown";
+    }
+    
+    /**
+     * 錯誤標籤：去除 CompletionException 包裝後的例外類別名稱
+     */
+    static String errorLabel(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RPC 回放傳輸層 - 以 RpcFixtureStore 的錄製資料回應請求，不連接任何節點，
+ * 可依設定注入延遲，讓分析器在離線環境下也能重複執行基準測試與回歸測試
+ *
+ * 延遲設定：none、recorded（錄製時的實際延遲）、fixed:毫秒、uniform:最小:最大、lognormal:中位數:p99
+ */
+public class RpcReplayTransport {
+    
+    private static final int FIXTURE_MISSING = -32099;
+    
+    private final RpcFixtureStore store;
+    private final ObjectMapper objectMapper;
+    private final LatencyModel latency;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    public RpcReplayTransport(RpcFixtureStore store, ObjectMapper objectMapper, String latencySpec, long seed) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.latency = LatencyModel.parse(latencySpec, seed);
+    }
+    
+    /**
+     * 回應單一請求或批次請求，延遲後完成；批次以其中最慢的呼叫為準
+     */
+    public CompletableFuture<JsonNode> send(byte[] body) {
+        JsonNode response;
+        long delayNanos;
+        try {
+            JsonNode request = objectMapper.readTree(body);
+            if (request.isArray()) {
+                ArrayNode responses = objectMapper.createArrayNode();
+                delayNanos = 0;
+                for (JsonNode call : request) {
+                    RpcFixtureStore.Fixture fixture = lookup(call);
+                    responses.add(respond(call, fixture));
+                    delayNanos = Math.max(delayNanos, delayOf(fixture));
+                }
+                response = responses;
+            } else {
+                RpcFixtureStore.Fixture fixture = lookup(request);
+                response = respond(request, fixture);
+                delayNanos = delayOf(fixture);
+            }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+        
+        if (delayNanos <= 0) {
+            return CompletableFuture.completedFuture(response);
+        }
+        return CompletableFuture.supplyAsync(() -> response,
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS));
+    }
+    
+    /**
+     * 串流模式的回放：等待注入的延遲後回傳完整的回應內容
+     */
+    public InputStream open(byte[] body) throws IOException, InterruptedException {
+        JsonNode request = objectMapper.readTree(body);
+        RpcFixtureStore.Fixture fixture = lookup(request);
+        if (fixture == null) {
+            throw new RuntimeException("回放資料中沒有此請求: " + RpcFixtureStore.key(request));
+        }
+        
+        long delayNanos = delayOf(fixture);
+        if (delayNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        }
+        return new ByteArrayInputStream(objectMapper.writeValueAsBytes(respond(request, fixture)));
+    }
+    
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public RpcFixtureStore getStore() { return store; }
+    
+    private RpcFixtureStore.Fixture lookup(JsonNode call) {
+        RpcFixtureStore.Fixture fixture = store.next(RpcFixtureStore.key(call));
+        (fixture != null ? hits : misses).incrementAndGet();
+        return fixture;
+    }
+    
+    /**
+     * 以請求的 id 組出回應；沒有錄到時回傳 JSON-RPC 錯誤，由呼叫端照一般的 RPC 錯誤處理
+     */
+    private JsonNode respond(JsonNode call, RpcFixtureStore.Fixture fixture) {
+        ObjectNode response = objectMapper.createObjectNode();
+        if (fixture != null) {
+            response.setAll((ObjectNode) fixture.response);
+        } else {
+            response.put("jsonrpc", "2.0");
+            ObjectNode error = response.putObject("error");
+            error.put("code", FIXTURE_MISSING);
+            error.put("message", "回放資料中沒有此請求: " + RpcFixtureStore.key(call));
+        }
+        response.set("id", call.get("id"));
+        return response;
+    }
+    
+    private long delayOf(RpcFixtureStore.Fixture fixture) {
+        return latency.sample(fixture != null ? fixture.latencyNanos : 0);
+    }
+    
+    /**
+     * 注入延遲的分佈；使用固定種子，相同的呼叫順序會得到相同的延遲
+     */
+    static class LatencyModel {
+        private static final double Z_99 = 2.326;
+        
+        private final String type;
+        private final double a;
+        private final double b;
+        private final Random random;
+        
+        private LatencyModel(String type, double a, double b, long seed) {
+            this.type = type;
+            this.a = a;
+            this.b = b;
+            this.random = new Random(seed);
+        }
+        
+        static LatencyModel parse(String spec, long seed) {
+            String[] parts = (spec == null || spec.isBlank() ? "none" : spec.trim().toLowerCase()).split(":");
+            try {
+                switch (parts[0]) {
+                    case "none":
+                    case "recorded":
+                        return new LatencyModel(parts[0], 0, 0, seed);
+                    case "fixed":
+                        return new LatencyModel("fixed", Double.parseDouble(parts[1]), 0, seed);
+                    case "uniform":
+                        return new LatencyModel("uniform", Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), seed);
+                    case "lognormal":
+                        // 以中位數與 p99 推得 ln(延遲) 的平均值與標準差
+                        double mu = Math.log(Double.parseDouble(parts[1]));
+                        double sigma = (Math.log(Double.parseDouble(parts[2])) - mu) / Z_99;
+                        return new LatencyModel("lognormal", mu, Math.max(0, sigma), seed);
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                // 格式錯誤，落到下方的例外
+            }
+            throw new IllegalArgumentException("無效的回放延遲設定: " + spec);
+        }
+        
+        /**
+         * 取樣一次延遲（奈秒）
+         */
+        long sample(long recordedNanos) {
+            double millis;
+            switch (type) {
+                case "recorded":
+                    return recordedNanos;
+                case "fixed":
+                    millis = a;
+                    break;
+                case "uniform":
+                    synchronized (random) {
+                        millis = a + (b - a) * random.nextDouble();
+                    }
+                    break;
+                case "lognormal":
+                    synchronized (random) {
+                        millis = Math.exp(a + b * random.nextGaussian());
+                    }
+                    break;
+                default:
+                    return 0;
+            }
+            return (long) (millis * 1_000_000);
+        }
+    }
+}
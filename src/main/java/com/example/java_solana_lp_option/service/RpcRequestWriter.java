@@ -0,0 +1,249 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON-RPC 請求編碼器 - 每個方法預先編碼好固定的信封前綴，參數以 JsonGenerator 直接寫入
+ * 執行緒專屬的輸出緩衝區，不建立信封 Map，也不經過 ObjectMapper 的反射序列化
+ */
+public class RpcRequestWriter {
+    
+    private static final SerializedString ID_FIELD = new SerializedString(",\"id\":");
+    
+    private final JsonFactory jsonFactory;
+    private final Map<String, SerializableString> prefixes = new ConcurrentHashMap<>();
+    private final ThreadLocal<Encoder> encoders = new ThreadLocal<>();
+    
+    /**
+     * @param codec 用於序列化非基本型別參數（POJO 等）
+     */
+    public RpcRequestWriter(ObjectCodec codec) {
+        this.jsonFactory = new JsonFactory(codec);
+        // 同一個 generator 連續寫入多個請求時，根層級的值之間不插入分隔字元
+        this.jsonFactory.setRootValueSeparator(null);
+    }
+    
+    /**
+     * 編碼單一請求：{"jsonrpc":"2.0","method":...,"params":[...],"id":...}
+     */
+    public byte[] write(long id, String method, Object... params) {
+        return encode(id, method, params).body();
+    }
+    
+    /**
+     * 編碼單一請求，並記錄參數在內容中的位置，供相同請求合併時當作鍵
+     */
+    public EncodedRequest encode(long id, String method, Object... params) {
+        Encoder encoder = encoder();
+        try {
+            encoder.out.reset();
+            encoder.writeRequest(prefix(method), id, params);
+            encoder.generator.flush();
+            return new EncodedRequest(method, encoder.out.toByteArray(), encoder.paramsStart, encoder.paramsEnd);
+        } catch (IOException | RuntimeException e) {
+            // generator 可能停在不完整的狀態，丟棄後重建
+            encoders.remove();
+            throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+        }
+    }
+    
+    /**
+     * 編碼批次請求：[{...},{...}]
+     */
+    public byte[] writeBatch(List<? extends Call> calls) {
+        Encoder encoder = encoder();
+        try {
+            encoder.out.reset();
+            encoder.generator.writeRaw('[');
+            for (int i = 0; i < calls.size(); i++) {
+                if (i > 0) {
+                    encoder.generator.writeRaw(',');
+                }
+                Call call = calls.get(i);
+                encoder.writeRequest(prefix(call.getMethod()), call.getId(), call.getParams());
+            }
+            encoder.generator.writeRaw(']');
+            encoder.generator.flush();
+            return encoder.out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            encoders.remove();
+            throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+        }
+    }
+    
+    private SerializableString prefix(String method) {
+        return prefixes.computeIfAbsent(method, key -> {
+            String quoted = new String(JsonStringEncoder.getInstance().quoteAsString(key));
+            return new SerializedString("{\"jsonrpc\":\"2.0\",\"method\":\"" + quoted + "\",\"params\":");
+        });
+    }
+    
+    private Encoder encoder() {
+        Encoder encoder = encoders.get();
+        if (encoder == null) {
+            try {
+                encoder = new Encoder(jsonFactory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            encoders.set(encoder);
+        }
+        return encoder;
+    }
+    
+    /**
+     * 批次中的單一呼叫
+     */
+    public interface Call {
+        long getId();
+        String getMethod();
+        Object[] getParams();
+    }
+    
+    /**
+     * 已編碼的請求內容
+     */
+    public static class EncodedRequest {
+        private final String method;
+        private final byte[] body;
+        private final int paramsStart;
+        private final int paramsEnd;
+        
+        EncodedRequest(String method, byte[] body, int paramsStart, int paramsEnd) {
+            this.method = method;
+            this.body = body;
+            this.paramsStart = paramsStart;
+            this.paramsEnd = paramsEnd;
+        }
+        
+        public byte[] body() { return body; }
+        
+        /**
+         * 方法名稱加上參數 JSON，不含 id
+         */
+        public String coalesceKey() {
+            return method + ":" + new String(body, paramsStart, paramsEnd - paramsStart, StandardCharsets.UTF_8);
+        }
+    }
+    
+    /**
+     * 執行緒專屬的 generator 與輸出緩衝區，跨請求重複使用
+     */
+    private static class Encoder {
+        private final ReusableOutputStream out = new ReusableOutputStream();
+        private final JsonGenerator generator;
+        private int paramsStart;
+        private int paramsEnd;
+        
+        Encoder(JsonFactory jsonFactory) throws IOException {
+            this.generator = jsonFactory.createGenerator(out);
+        }
+        
+        /**
+         * 寫入一個請求物件，並記錄 params 陣列在輸出中的 [paramsStart, paramsEnd)
+         */
+        void writeRequest(SerializableString prefix, long id, Object[] params) throws IOException {
+            generator.writeRaw(prefix);
+            generator.flush();
+            paramsStart = out.size;
+            
+            generator.writeStartArray();
+            for (Object param : params) {
+                writeValue(param);
+            }
+            generator.writeEndArray();
+            generator.flush();
+            paramsEnd = out.size;
+            
+            generator.writeRaw(ID_FIELD);
+            generator.writeNumber(id);
+            generator.writeRaw('}');
+        }
+        
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof String) {
+                generator.writeString((String) value);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                generator.writeNumber(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                generator.writeNumber(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                generator.writeBoolean((Boolean) value);
+            } else if (value instanceof Map) {
+                generator.writeStartObject();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    generator.writeFieldName(String.valueOf(entry.getKey()));
+                    writeValue(entry.getValue());
+                }
+                generator.writeEndObject();
+            } else if (value instanceof Collection) {
+                generator.writeStartArray();
+                for (Object item : (Collection<?>) value) {
+                    writeValue(item);
+                }
+                generator.writeEndArray();
+            } else if (value instanceof Object[]) {
+                generator.writeStartArray();
+                for (Object item : (Object[]) value) {
+                    writeValue(item);
+                }
+                generator.writeEndArray();
+            } else {
+                // 其他型別（BigInteger、POJO 等）交給 codec
+                generator.writeObject(value);
+            }
+        }
+    }
+    
+    /**
+     * 可重設的輸出緩衝區，容量只增不減
+     */
+    private static class ReusableOutputStream extends OutputStream {
+        private byte[] bytes = new byte[4096];
+        private int size;
+        
+        @Override
+        public void write(int b) {
+            ensureCapacity(size + 1);
+            bytes[size++] = (byte) b;
+        }
+        
+        @Override
+        public void write(byte[] source, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+        
+        void reset() {
+            size = 0;
+        }
+        
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+        
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+    }
+}
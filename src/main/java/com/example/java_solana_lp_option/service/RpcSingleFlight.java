@@ -0,0 +1,73 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 相同請求合併 - 同一個 key 同時只會有一個進行中的 RPC 呼叫，其他呼叫端共用其結果
+ */
+public class RpcSingleFlight {
+    
+    private final Map<String, CompletableFuture<JsonNode>> calls = new ConcurrentHashMap<>();
+    private final long lingerMs;
+    private final AtomicLong coalescedCount = new AtomicLong();
+    
+    /**
+     * @param lingerMs 成功完成後結果保留多久，讓緊接著的相同請求也能共用
+     */
+    public RpcSingleFlight(long lingerMs) {
+        this.lingerMs = Math.max(0, lingerMs);
+    }
+    
+    public CompletableFuture<JsonNode> execute(String key, Supplier<CompletableFuture<JsonNode>> call) {
+        CompletableFuture<JsonNode> created = new CompletableFuture<>();
+        CompletableFuture<JsonNode> existing = calls.putIfAbsent(key, created);
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            return existing.copy();
+        }
+        
+        CompletableFuture<JsonNode> started;
+        try {
+            started = call.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        
+        started.whenComplete((value, error) -> {
+            // 失敗的結果不保留，下一次呼叫會重新送出
+            if (error != null || lingerMs == 0) {
+                calls.remove(key, created);
+            } else {
+                CompletableFuture.delayedExecutor(lingerMs, TimeUnit.MILLISECONDS)
+                    .execute(() -> calls.remove(key, created));
+            }
+            
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(value);
+            }
+        });
+        
+        // 回傳副本，避免某個呼叫端取消或完成時影響其他共用者
+        return created.copy();
+    }
+    
+    /**
+     * 因合併而省下的呼叫次數
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+    
+    public int getInFlightCount() {
+        return calls.size();
+    }
+}
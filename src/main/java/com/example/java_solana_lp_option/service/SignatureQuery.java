@@ -0,0 +1,78 @@
+package com.example.java_solana_lp_option.service;
+
+/**
+ * getSignaturesForAddress 分頁查詢條件 - 由新到舊讀取，可用簽名游標或 slot / 時間下限決定何時停止
+ */
+public class SignatureQuery {
+    
+    /**
+     * 節點單次回傳的簽名上限
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+    
+    private String before;
+    private String until;
+    private int pageSize = MAX_PAGE_SIZE;
+    private long maxResults = Long.MAX_VALUE;
+    private long minSlot;
+    private long minBlockTime;
+    
+    public static SignatureQuery create() {
+        return new SignatureQuery();
+    }
+    
+    /**
+     * 從這個簽名之前（較舊）開始讀取，不含該簽名
+     */
+    public SignatureQuery before(String signature) {
+        this.before = signature;
+        return this;
+    }
+    
+    /**
+     * 讀到這個簽名為止（不含），通常是上次掃描到的最新簽名
+     */
+    public SignatureQuery until(String signature) {
+        this.until = signature;
+        return this;
+    }
+    
+    /**
+     * 每頁筆數，最多 1000
+     */
+    public SignatureQuery pageSize(int pageSize) {
+        this.pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        return this;
+    }
+    
+    /**
+     * 總共最多讀取的筆數
+     */
+    public SignatureQuery limit(long maxResults) {
+        this.maxResults = Math.max(0, maxResults);
+        return this;
+    }
+    
+    /**
+     * 遇到 slot 小於 minSlot 的簽名即停止
+     */
+    public SignatureQuery minSlot(long minSlot) {
+        this.minSlot = minSlot;
+        return this;
+    }
+    
+    /**
+     * 遇到 blockTime（Unix 秒）早於此時間的簽名即停止；沒有 blockTime 的簽名不受影響
+     */
+    public SignatureQuery since(long epochSeconds) {
+        this.minBlockTime = epochSeconds;
+        return this;
+    }
+    
+    public String getBefore() { return before; }
+    public String getUntil() { return until; }
+    public int getPageSize() { return pageSize; }
+    public long getMaxResults() { return maxResults; }
+    public long getMinSlot() { return minSlot; }
+    public long getMinBlockTime() { return minBlockTime; }
+}
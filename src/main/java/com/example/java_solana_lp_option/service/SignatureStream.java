@@ -0,0 +1,155 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * getSignaturesForAddress 分頁迭代器 - 以 before 游標由新到舊逐頁讀取，
+ * 每收到一頁就先送出下一頁的請求，讓下載與呼叫端處理同時進行
+ *
+ * 到達 until 簽名、slot / 時間下限或筆數上限時停止；提早結束時請 close() 取消預先送出的請求
+ */
+public class SignatureStream implements Iterator<JsonNode>, AutoCloseable {
+    
+    /**
+     * 讀取一頁簽名：回傳 getSignaturesForAddress 的 result 陣列
+     */
+    @FunctionalInterface
+    public interface PageLoader {
+        CompletableFuture<JsonNode> load(String before, int limit);
+    }
+    
+    private final PageLoader loader;
+    private final SignatureQuery query;
+    
+    private CompletableFuture<JsonNode> pending; // 下一頁（已送出，可能尚未完成）
+    private int pendingLimit;
+    private JsonNode page;
+    private int index;
+    private JsonNode lookahead;
+    private boolean finished;
+    
+    private long returned;
+    private int pageCount;
+    private String lastSignature;
+    
+    public SignatureStream(PageLoader loader, SignatureQuery query) {
+        this.loader = loader;
+        this.query = query;
+        if (query.getMaxResults() > 0) {
+            request(query.getBefore());
+        } else {
+            finished = true;
+        }
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (lookahead != null) {
+            return true;
+        }
+        
+        while (!finished) {
+            if (page != null && index < page.size()) {
+                JsonNode signature = page.get(index++);
+                if (returned >= query.getMaxResults() || isBeyondBound(signature)) {
+                    close();
+                    return false;
+                }
+                lookahead = signature;
+                return true;
+            }
+            
+            if (pending == null) {
+                close();
+                return false;
+            }
+            receivePage();
+        }
+        return false;
+    }
+    
+    @Override
+    public JsonNode next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        JsonNode signature = lookahead;
+        lookahead = null;
+        returned++;
+        lastSignature = signature.path("signature").asText(null);
+        return signature;
+    }
+    
+    /**
+     * 停止讀取並取消尚未完成的下一頁請求
+     */
+    @Override
+    public void close() {
+        finished = true;
+        lookahead = null;
+        page = null;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+    
+    /**
+     * 已回傳的簽名數
+     */
+    public long getReturnedCount() { return returned; }
+    public int getPageCount() { return pageCount; }
+    
+    /**
+     * 最後回傳的簽名，可作為下次查詢的 before 游標接續讀取
+     */
+    public String getLastSignature() { return lastSignature; }
+    
+    private void receivePage() {
+        JsonNode result;
+        int requested = pendingLimit;
+        try {
+            result = pending.join();
+        } catch (CompletionException e) {
+            close();
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause.getMessage(), cause);
+        }
+        
+        pending = null;
+        page = result != null && result.isArray() ? result : null;
+        index = 0;
+        pageCount++;
+        if (page == null || page.isEmpty()) {
+            return;
+        }
+        
+        // 頁面已滿且尚未到達任何下限時，先送出下一頁
+        JsonNode oldest = page.get(page.size() - 1);
+        if (page.size() >= requested && !isBeyondBound(oldest) && returned + page.size() < query.getMaxResults()) {
+            request(oldest.path("signature").asText());
+        }
+    }
+    
+    private void request(String before) {
+        long buffered = page != null ? page.size() - index : 0;
+        long remaining = query.getMaxResults() - returned - buffered;
+        pendingLimit = (int) Math.max(1, Math.min(query.getPageSize(), remaining));
+        pending = loader.load(before, pendingLimit);
+    }
+    
+    private boolean isBeyondBound(JsonNode signature) {
+        if (query.getMinSlot() > 0 && signature.path("slot").asLong() < query.getMinSlot()) {
+            return true;
+        }
+        
+        JsonNode blockTime = signature.get("blockTime");
+        return query.getMinBlockTime() > 0 && blockTime != null && blockTime.isNumber()
+            && blockTime.asLong() < query.getMinBlockTime();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.java_solana_lp_option.service;
+
+import com.example.java_solana_lp_option.config.SolanaConfig;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/health 的 Solana 節點狀態 - 直接讀取 NodeHealthMonitor 的快照，不會發出 RPC 請求
+ */
+@Component("solana")
+public class SolanaHealthIndicator implements HealthIndicator {
+    
+    private final SolanaConfig solanaConfig;
+    private final NodeHealthMonitor nodeHealthMonitor;
+    
+    public SolanaHealthIndicator(SolanaConfig solanaConfig, NodeHealthMonitor nodeHealthMonitor) {
+        this.solanaConfig = solanaConfig;
+        this.nodeHealthMonitor = nodeHealthMonitor;
+    }
+    
+    @Override
+    public Health health() {
+        if (!solanaConfig.isEnableBlockchainData()) {
+            return Health.unknown().withDetail("reason", "blockchain data disabled").build();
+        }
+        
+        NodeHealthSnapshot snapshot = nodeHealthMonitor.getSnapshot();
+        if (!snapshot.isChecked()) {
+            return Health.unknown().withDetail("reason", "not checked yet").build();
+        }
+        
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (NodeHealthSnapshot.EndpointHealth endpoint : snapshot.getEndpoints()) {
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("healthy", endpoint.isHealthy());
+            detail.put("slot", endpoint.getSlot());
+            detail.put("latencyMs", endpoint.getLatencyMs());
+            if (endpoint.getError() != null) {
+                detail.put("error", endpoint.getError());
+            }
+            endpoints.put(endpoint.getUrl(), detail);
+        }
+        
+        return (snapshot.isHealthy() ? Health.up() : Health.down())
+            .withDetail("version", snapshot.getVersion())
+            .withDetail("slot", snapshot.getSlot())
+            .withDetail("checkedAt", Instant.ofEpochMilli(snapshot.getCheckedAt()).toString())
+            .withDetail("endpoints", endpoints)
+            .build();
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solana JSON-RPC 批次請求器 - 將多個呼叫合併為一個 JSON 陣列請求，並依 id 分派結果
+ */
+public class SolanaRpcBatcher {
+    
+    /**
+     * 實際送出批次請求內容的函式，非同步回傳節點的原始回應
+     */
+    @FunctionalInterface
+    public interface BatchSender {
+        CompletableFuture<JsonNode> send(byte[] body);
+    }
+    
+    private final BatchSender sender;
+    private final RpcRequestWriter requestWriter;
+    private final AtomicLong requestId;
+    private final int maxBatchSize;
+    private final long flushDelayMs;
+    private final ScheduledExecutorService scheduler;
+    
+    // 等待送出的呼叫與排程中的 flush
+    private final List<PendingCall> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    
+    public SolanaRpcBatcher(BatchSender sender, RpcRequestWriter requestWriter, AtomicLong requestId,
+                            int maxBatchSize, long flushDelayMs) {
+        this.sender = sender;
+        this.requestWriter = requestWriter;
+        this.requestId = requestId;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.flushDelayMs = Math.max(0, flushDelayMs);
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "solana-rpc-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * 加入一個 RPC 呼叫，結果會在所屬批次回應後完成
+     */
+    public CompletableFuture<JsonNode> submit(String method, Object... params) {
+        PendingCall call = new PendingCall(requestId.getAndIncrement(), method, params);
+        List<PendingCall> fullBatch = null;
+        
+        synchronized (pending) {
+            pending.add(call);
+            
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = drainPending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        
+        if (fullBatch != null) {
+            List<PendingCall> batch = fullBatch;
+            scheduler.execute(() -> send(batch));
+        }
+        
+        return call.future;
+    }
+    
+    /**
+     * 立即送出目前累積的所有呼叫
+     */
+    public void flush() {
+        List<PendingCall> batch;
+        synchronized (pending) {
+            batch = drainPending();
+        }
+        
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+    
+    /**
+     * 目前等待送出的呼叫數量
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+    
+    public void shutdown() {
+        flush();
+        scheduler.shutdown();
+    }
+    
+    private List<PendingCall> drainPending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        
+        int count = Math.min(pending.size(), maxBatchSize);
+        List<PendingCall> batch = new ArrayList<>(pending.subList(0, count));
+        pending.subList(0, count).clear();
+        
+        // 超出批次上限的呼叫留待下一次 flush
+        if (!pending.isEmpty()) {
+            scheduledFlush = scheduler.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+        }
+        
+        return batch;
+    }
+    
+    private void send(List<PendingCall> batch) {
+        Map<Long, PendingCall> callsById = new HashMap<>();
+        for (PendingCall call : batch) {
+            callsById.put(call.id, call);
+        }
+        
+        System.out.printf("🌐 呼叫 Solana RPC 批次: %d 個請求%n", batch.size());
+        
+        CompletableFuture<JsonNode> responseFuture;
+        try {
+            responseFuture = sender.send(requestWriter.writeBatch(batch));
+        } catch (RuntimeException e) {
+            responseFuture = CompletableFuture.failedFuture(e);
+        }
+        
+        responseFuture.whenComplete((response, error) -> {
+            if (error != null) {
+                failAll(batch, error);
+            } else {
+                dispatch(batch, callsById, response);
+            }
+        });
+    }
+    
+    private void dispatch(List<PendingCall> batch, Map<Long, PendingCall> callsById, JsonNode response) {
+        if (response == null || !response.isArray()) {
+            // 節點不支援批次或整批失敗時，回傳的是單一錯誤物件
+            RuntimeException error = response != null && response.has("error")
+                ? new SolanaRpcException("Solana RPC 批次錯誤: ", response.get("error"))
+                : new RuntimeException("Solana RPC 批次錯誤: " + response);
+            failAll(batch, error);
+            return;
+        }
+        
+        for (JsonNode item : response) {
+            JsonNode idNode = item.get("id");
+            PendingCall call = idNode != null ? callsById.remove(idNode.asLong()) : null;
+            if (call == null) {
+                continue;
+            }
+            
+            try {
+                call.future.complete(SolanaService.extractResult(item));
+            } catch (RuntimeException e) {
+                call.future.completeExceptionally(e);
+            }
+        }
+        
+        // 回應中缺少的 id
+        failAll(callsById.values(), new RuntimeException("Solana RPC 批次回應缺少對應的 id"));
+    }
+    
+    private void failAll(Collection<PendingCall> calls, Throwable e) {
+        for (PendingCall call : calls) {
+            call.future.completeExceptionally(e);
+        }
+    }
+    
+    private static class PendingCall implements RpcRequestWriter.Call {
+        private final long id;
+        private final String method;
+        private final Object[] params;
+        private final CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        
+        PendingCall(long id, String method, Object[] params) {
+            this.id = id;
+            this.method = method;
+            this.params = params;
+        }
+        
+        @Override public long getId() { return id; }
+        @Override public String getMethod() { return method; }
+        @Override public Object[] getParams() { return params; }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 節點回傳的 JSON-RPC 錯誤物件 - 保留錯誤碼與原始訊息，供呼叫端依錯誤碼判斷而不必比對整段字串
+ */
+public class SolanaRpcException extends RuntimeException {
+    
+    // JSON-RPC 參數錯誤（例如節點不認得的 encoding）
+    public static final int INVALID_PARAMS = -32602;
+    
+    private final Integer code;
+    private final String rpcMessage;
+    
+    public SolanaRpcException(String prefix, JsonNode error) {
+        super(prefix + error);
+        JsonNode codeNode = error != null ? error.get("code") : null;
+        JsonNode messageNode = error != null ? error.get("message") : null;
+        this.code = codeNode != null && codeNode.canConvertToInt() ? codeNode.asInt() : null;
+        this.rpcMessage = messageNode != null ? messageNode.asText() : "";
+    }
+    
+    /**
+     * JSON-RPC 錯誤碼；錯誤物件沒有數字錯誤碼時為 null
+     */
+    public Integer getCode() {
+        return code;
+    }
+    
+    /**
+     * 錯誤物件中的 message 欄位
+     */
+    public String getRpcMessage() {
+        return rpcMessage;
+    }
+}
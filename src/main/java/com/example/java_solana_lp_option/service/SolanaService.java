@@ -1,16 +1,38 @@
 package com.example.java_solana_lp_option.service;
 
+import com.example.java_solana_lp_option.config.HostPermits;
+import com.example.java_solana_lp_option.config.HttpTransport;
 import com.example.java_solana_lp_option.config.SolanaConfig;
+import com.example.java_solana_lp_option.config.UpstreamRateLimiter;
+import com.example.java_solana_lp_option.util.Pubkey;
+import com.example.java_solana_lp_option.util.PubkeyInterner;
+import com.example.java_solana_lp_option.util.U128;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import jakarta.annotation.PreDestroy;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.Base64;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Solana 區塊鏈服務 - 處理實際的 RPC 呼叫
@@ -18,119 +40,939 @@ import java.util.Base64;
 @Service
 public class SolanaService {
     
+    // Raydium CLMM PersonalPositionState 帳戶佈局
+    // nft_mint + pool_id + tick_lower + tick_upper
+    private static final int POSITION_SLICE_LENGTH = PersonalPositionState.RECENT_EPOCH_OFFSET + 8 - PersonalPositionState.NFT_MINT_OFFSET;
+    
+    private static final String TOKEN_2022_PROGRAM_ID = "TokenzQdBNbLqP5VEhdkAS6EPFLC1PHnBqCXEpPxuEb";
+    
+    static final String ENCODING_BASE64 = "base64";
+    static final String ENCODING_BASE64_ZSTD = "base64+zstd";
+    
     private final SolanaConfig solanaConfig;
-    private final RestTemplate restTemplate;
+    private final HttpTransport httpTransport;
+    private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final RpcRequestWriter requestWriter;
     private final AtomicLong requestId = new AtomicLong(1);
+    private final SolanaRpcBatcher rpcBatcher;
+    private final RpcConcurrencyLimiter concurrencyLimiter;
+    private final UpstreamRateLimiter rateLimiter;
+    private final RpcEndpointRouter router;
+    private final RpcSingleFlight singleFlight;
+    private final AccountCache accountCache;
+    private final AccountBufferPool bufferPool;
+    private final Set<Pubkey> raydiumClmmPrograms;
+    private volatile boolean zstdEnabled; // 節點不支援時自動關閉
+    private final RpcFixtureStore fixtureRecorder; // 錄製模式
+    private final RpcReplayTransport replayTransport; // 回放模式
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+    private final RpcMetrics metrics;
     
-    public SolanaService(SolanaConfig solanaConfig) {
+    public SolanaService(SolanaConfig solanaConfig, HttpTransport httpTransport, UpstreamRateLimiter rateLimiter,
+                         MeterRegistry meterRegistry) {
         this.solanaConfig = solanaConfig;
+        this.rateLimiter = rateLimiter;
+        this.metrics = new RpcMetrics(meterRegistry);
         this.objectMapper = new ObjectMapper();
+        this.requestWriter = new RpcRequestWriter(objectMapper);
         
-        // 設定 RestTemplate 超時
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(solanaConfig.getConnectTimeout());
-        factory.setReadTimeout(solanaConfig.getReadTimeout());
-        this.restTemplate = new RestTemplate(factory);
+        // 使用共用的連線池傳輸層，直接以非阻塞方式送出請求
+        this.httpTransport = httpTransport;
+        this.httpClient = httpTransport.getHttpClient();
+        this.concurrencyLimiter = new RpcConcurrencyLimiter(solanaConfig.getRpcMaxConcurrentRequests());
+        this.router = new RpcEndpointRouter(solanaConfig);
+        this.singleFlight = new RpcSingleFlight(solanaConfig.getRpcCoalesceWindow());
+        this.accountCache = new AccountCache(solanaConfig.getAccountCacheTtl(),
+            solanaConfig.getAccountCacheMaxSlotAge(), solanaConfig.getAccountCacheMaxBytes());
+        this.bufferPool = new AccountBufferPool(solanaConfig.isAccountBufferDirect(), solanaConfig.getAccountBufferPoolSize());
+        this.raydiumClmmPrograms = new HashSet<>();
+        for (String programId : solanaConfig.getRaydiumClmmProgramIds()) {
+            raydiumClmmPrograms.add(Pubkey.of(programId));
+        }
+        this.zstdEnabled = solanaConfig.isAccountZstdEnabled() && ZstdDecompressor.isAvailable();
+        this.fixtureRecorder = solanaConfig.isRpcRecording() ? openFixtureStore(true) : null;
+        this.replayTransport = solanaConfig.isRpcReplaying()
+            ? new RpcReplayTransport(openFixtureStore(false), objectMapper,
+                solanaConfig.getRpcReplayLatency(), solanaConfig.getRpcReplaySeed())
+            : null;
+        
+        this.rpcBatcher = new SolanaRpcBatcher(body -> postRPCAsync("batch", body), requestWriter, requestId,
+            solanaConfig.getRpcBatchMaxSize(), solanaConfig.getRpcBatchFlushDelay());
     }
     
     /**
      * 通用的 Solana RPC 呼叫方法
      */
     private JsonNode callSolanaRPC(String method, Object... params) throws Exception {
-        Map<String, Object> request = new HashMap<>();
-        request.put("jsonrpc", "2.0");
-        request.put("id", requestId.getAndIncrement());
-        request.put("method", method);
-        request.put("params", Arrays.asList(params));
+        return await(callSolanaRPCAsync(method, params));
+    }
+    
+    /**
+     * 非同步的 Solana RPC 呼叫，不佔用呼叫端執行緒；相同方法與參數（含 commitment）的呼叫會合併
+     */
+    public CompletableFuture<JsonNode> callSolanaRPCAsync(String method, Object... params) {
+        RpcRequestWriter.EncodedRequest request;
+        try {
+            request = requestWriter.encode(requestId.getAndIncrement(), method, params);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        return singleFlight.execute(request.coalesceKey(), () -> {
+            System.out.printf("🌐 呼叫 Solana RPC: %s%n", method);
+            
+            return postRPCAsync(method, request.body()).thenApply(SolanaService::extractResult);
+        });
+    }
+    
+    /**
+     * 以批次模式呼叫 Solana RPC，與其他呼叫合併成同一個 HTTP 請求；每個呼叫依本身的方法另外記錄延遲
+     */
+    public CompletableFuture<JsonNode> callSolanaRPCBatched(String method, Object... params) {
+        long start = System.nanoTime();
+        return rpcBatcher.submit(method, params).whenComplete((result, error) ->
+            metrics.recordBatchedCall(method, error == null ? "success" : "error", System.nanoTime() - start));
+    }
+    
+    /**
+     * 立即送出累積中的批次呼叫
+     */
+    public void flushBatchedRPC() {
+        rpcBatcher.flush();
+    }
+    
+    /**
+     * 從單一 JSON-RPC 回應取出 result，錯誤時拋出例外
+     */
+    static JsonNode extractResult(JsonNode jsonResponse) {
+        if (jsonResponse.has("error")) {
+            throw new SolanaRpcException("Solana RPC 錯誤: ", jsonResponse.get("error"));
+        }
+        
+        return jsonResponse.get("result");
+    }
+    
+    /**
+     * 送出已編碼的 RPC 請求內容（單一物件或批次陣列），先取得速率額度，同時進行中的請求數受 rpcMaxConcurrentRequests 限制
+     */
+    private CompletableFuture<JsonNode> postRPCAsync(String method, byte[] body) {
+        if (replayTransport != null) {
+            // 回放不連接節點，不需要取得速率額度
+            return concurrencyLimiter.submit(() -> replayRPC(method, body));
+        }
         
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("User-Agent", "Java-Solana-LP-Option/1.0");
+        return rateLimiter.acquireAsync(UpstreamRateLimiter.SOLANA_RPC)
+            .thenCompose(ignored -> concurrencyLimiter.submit(
+                () -> fixtureRecorder != null ? recordRPC(method, body) : sendRPC(method, body)));
+    }
+    
+    private CompletableFuture<JsonNode> replayRPC(String method, byte[] body) {
+        long start = System.nanoTime();
+        return replayTransport.send(body).whenComplete((response, error) ->
+            metrics.recordRequest(method, "replay", error == null ? "success" : "error", System.nanoTime() - start));
+    }
+    
+    /**
+     * 送出請求並把請求與回應寫入錄製檔
+     */
+    private CompletableFuture<JsonNode> recordRPC(String method, byte[] body) {
+        long start = System.nanoTime();
+        return sendRPC(method, body).thenApply(response -> {
+            fixtureRecorder.record(body, response, System.nanoTime() - start);
+            return response;
+        });
+    }
+    
+    private CompletableFuture<JsonNode> sendRPC(String method, byte[] body) {
+        RpcEndpointRouter.Endpoint primary = router.select();
+        if (primary == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("所有 RPC 端點皆在熔斷中"));
+        }
         
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
+        CompletableFuture<HttpResponse<byte[]>> first = attempt(primary, method, body);
+        if (!solanaConfig.isRpcHedgingEnabled()) {
+            return first.thenApply(response -> parseResponse(method, response));
+        }
+        
+        // 主要請求在自適應延遲內未回應時，改送一份到次佳端點，取先成功者
+        HedgedCall<HttpResponse<byte[]>> call = new HedgedCall<>(
+            response -> isFailureStatus(response.statusCode()), hedgeWinCount::incrementAndGet);
+        call.add(first, false);
         
-        System.out.printf("🌐 呼叫 Solana RPC: %s%n", method);
+        long delay = Math.max(solanaConfig.getRpcHedgeMinDelay(),
+            primary.latencyPercentile(solanaConfig.getRpcHedgePercentile()));
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            if (call.result().isDone()) {
+                return;
+            }
+            RpcEndpointRouter.Endpoint secondary = router.selectHedge(primary);
+            // 對沖請求同樣消耗上游額度；沒有可立即使用的令牌時不送出，避免對正在限流的節點超量請求
+            if (secondary == null || !rateLimiter.tryAcquire(UpstreamRateLimiter.SOLANA_RPC)) {
+                return;
+            }
+            hedgeCount.incrementAndGet();
+            metrics.recordRetry(method, "hedge");
+            call.add(attempt(secondary, method, body), true);
+        });
+        
+        return call.result().thenApply(response -> parseResponse(method, response));
+    }
+    
+    /**
+     * 對單一端點送出請求：先以非阻塞方式取得該主機的連線許可（與 RestTemplate 呼叫共用 maxConnectionsPerHost / hostConnectionLimits），
+     * 回應完成後釋放；等待許可期間被取消（例如對沖落敗）時不送出
+     */
+    private CompletableFuture<HttpResponse<byte[]>> attempt(RpcEndpointRouter.Endpoint endpoint, String method, byte[] body) {
+        HostPermits permits = httpTransport.hostPermits(endpoint.getUri().getHost());
+        CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+        permits.acquireAsync().thenRun(() -> {
+            if (result.isDone()) {
+                permits.release();
+                return;
+            }
+            CompletableFuture<HttpResponse<byte[]>> sent = send(endpoint, method, body);
+            sent.whenComplete((response, error) -> {
+                permits.release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+            });
+            // 取消傳遞給實際的 HTTP 請求
+            result.whenComplete((response, error) -> {
+                if (result.isCancelled()) {
+                    sent.cancel(true);
+                }
+            });
+        });
+        return result;
+    }
+    
+    /**
+     * 對單一端點送出請求，並回報延遲與成敗給路由器、熔斷器與指標
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(RpcEndpointRouter.Endpoint endpoint, String method, byte[] body) {
+        String endpointLabel = RpcMetrics.endpointLabel(endpoint.getUri());
+        if (!endpoint.getBreaker().tryAcquire()) {
+            metrics.recordError(method, endpointLabel, "circuit_open");
+            return CompletableFuture.failedFuture(
+                new RuntimeException("RPC 端點熔斷中: " + endpoint.getUrl()));
+        }
         
-        ResponseEntity<String> response = restTemplate.postForEntity(
-            solanaConfig.getRpcUrl(), entity, String.class);
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> future =
+            httpClient.sendAsync(newRpcRequest(endpoint, body), HttpResponse.BodyHandlers.ofByteArray());
         
-        if (response.getStatusCode().is2xxSuccessful()) {
-            JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+        future.whenComplete((response, error) -> {
+            long elapsed = System.nanoTime() - start;
+            
+            // 連線錯誤、限流與 5xx 都計入端點錯誤率
+            if (error instanceof CancellationException) {
+                router.recordCancelled(endpoint);
+                metrics.recordRequest(method, endpointLabel, "cancelled", elapsed);
+                return;
+            }
+            if (error != null || isFailureStatus(response.statusCode())) {
+                router.recordFailure(endpoint);
+                if (response != null && response.statusCode() == 429) {
+                    rateLimiter.onRateLimited(UpstreamRateLimiter.SOLANA_RPC,
+                        response.headers().firstValue("Retry-After").orElse(null));
+                }
+            } else {
+                router.recordSuccess(endpoint, elapsed);
+            }
             
-            if (jsonResponse.has("error")) {
-                JsonNode error = jsonResponse.get("error");
-                throw new RuntimeException("Solana RPC 錯誤: " + error.toString());
+            boolean ok = error == null && response.statusCode() >= 200 && response.statusCode() < 300;
+            metrics.recordRequest(method, endpointLabel, ok ? "success" : "error", elapsed);
+            if (error != null) {
+                metrics.recordError(method, endpointLabel, RpcMetrics.errorLabel(error));
+            } else {
+                metrics.recordResponseSize(method, endpointLabel, response.body().length);
+                if (!ok) {
+                    metrics.recordError(method, endpointLabel, "http_" + response.statusCode());
+                }
             }
+        });
+        return future;
+    }
+    
+    private HttpRequest newRpcRequest(RpcEndpointRouter.Endpoint endpoint, byte[] body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint.getUri())
+            .timeout(Duration.ofMillis(solanaConfig.getReadTimeout()))
+            .header("Content-Type", "application/json")
+            .header("User-Agent", "Java-Solana-LP-Option/1.0")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        
+        if (solanaConfig.isGzipEnabled()) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        return builder.build();
+    }
+    
+    /**
+     * 以串流方式送出 RPC 請求，回傳尚未讀取的回應內容（已處理 gzip），由呼叫端負責關閉
+     */
+    private InputStream openRPCStream(String method, byte[] body) throws Exception {
+        if (replayTransport != null) {
+            return replayTransport.open(body);
+        }
+        
+        rateLimiter.acquire(UpstreamRateLimiter.SOLANA_RPC);
+        
+        RpcEndpointRouter.Endpoint endpoint = router.select();
+        if (endpoint == null) {
+            throw new RuntimeException("所有 RPC 端點皆在熔斷中");
+        }
+        if (!endpoint.getBreaker().tryAcquire()) {
+            throw new RuntimeException("RPC 端點熔斷中: " + endpoint.getUrl());
+        }
+        
+        // 串流讀取期間一直佔用連線，呼叫端關閉串流時才釋放主機許可
+        HostPermits permits = httpTransport.hostPermits(endpoint.getUri().getHost());
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            router.recordCancelled(endpoint);
+            throw e;
+        }
+        InputStream in;
+        try {
+            in = openRPCStream(endpoint, method, body);
+        } catch (Exception e) {
+            permits.release();
+            throw e;
+        }
+        return new FilterInputStream(in) {
+            private boolean released;
             
-            return jsonResponse.get("result");
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (!released) {
+                        released = true;
+                        permits.release();
+                    }
+                }
+            }
+        };
+    }
+    
+    private InputStream openRPCStream(RpcEndpointRouter.Endpoint endpoint, String method, byte[] body) throws Exception {
+        String endpointLabel = RpcMetrics.endpointLabel(endpoint.getUri());
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(newRpcRequest(endpoint, body), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (Exception e) {
+            router.recordFailure(endpoint);
+            metrics.recordRequest(method, endpointLabel, "error", System.nanoTime() - start);
+            metrics.recordError(method, endpointLabel, RpcMetrics.errorLabel(e));
+            throw e;
+        }
+        
+        int status = response.statusCode();
+        boolean ok = status >= 200 && status < 300;
+        metrics.recordRequest(method, endpointLabel, ok ? "success" : "error", System.nanoTime() - start);
+        if (!ok) {
+            metrics.recordError(method, endpointLabel, "http_" + status);
+        }
+        if (isFailureStatus(status)) {
+            router.recordFailure(endpoint);
+            if (status == 429) {
+                rateLimiter.onRateLimited(UpstreamRateLimiter.SOLANA_RPC,
+                    response.headers().firstValue("Retry-After").orElse(null));
+            }
         } else {
-            throw new RuntimeException("HTTP 錯誤: " + response.getStatusCode());
+            // 串流模式以收到回應標頭的時間作為延遲
+            router.recordSuccess(endpoint, System.nanoTime() - start);
+        }
+        
+        InputStream in = response.body();
+        if (!ok) {
+            in.close();
+            throw new RuntimeException("HTTP 錯誤: " + status);
         }
+        
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+        InputStream decoded = encoding.toLowerCase().contains("gzip") ? new GZIPInputStream(in) : in;
+        if (fixtureRecorder == null) {
+            return decoded;
+        }
+        
+        // 錄製需要完整的回應內容，先讀完再交給呼叫端
+        byte[] bytes;
+        try (decoded) {
+            bytes = decoded.readAllBytes();
+        }
+        fixtureRecorder.record(body, objectMapper.readTree(bytes), System.nanoTime() - start);
+        return new ByteArrayInputStream(bytes);
+    }
+    
+    private static boolean isFailureStatus(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+    
+    private JsonNode parseResponse(String method, HttpResponse<byte[]> response) {
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new RuntimeException("HTTP 錯誤: " + response.statusCode());
+        }
+        
+        long start = System.nanoTime();
+        JsonNode json;
+        try {
+            String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+            if (encoding.toLowerCase().contains("gzip")) {
+                json = objectMapper.readTree(new GZIPInputStream(new ByteArrayInputStream(response.body())));
+            } else {
+                json = objectMapper.readTree(response.body());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        metrics.recordDecode(method, "json", System.nanoTime() - start);
+        
+        // JSON-RPC 層級的錯誤（批次中每個呼叫各自計算）
+        String endpointLabel = RpcMetrics.endpointLabel(response.uri());
+        for (JsonNode item : json.isArray() ? json : List.of(json)) {
+            JsonNode error = item.get("error");
+            if (error != null) {
+                metrics.recordError(method, endpointLabel, "rpc_" + error.path("code").asText("unknown"));
+            }
+        }
+        return json;
+    }
+    
+    /**
+     * 等待非同步結果，並還原原始例外以保留既有的錯誤訊息
+     */
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        rpcBatcher.shutdown();
+        if (fixtureRecorder != null) {
+            fixtureRecorder.close();
+        }
+    }
+    
+    /**
+     * 各 RPC 端點目前的延遲、錯誤率與 slot 落後狀態
+     */
+    public List<RpcEndpointRouter.Endpoint> getRpcEndpoints() {
+        return router.getEndpoints();
+    }
+    
+    /**
+     * 端點路由器，供 NodeHealthMonitor 回報探測結果
+     */
+    RpcEndpointRouter getRouter() {
+        return router;
+    }
+    
+    /**
+     * 錄製模式下的錄製檔，未錄製時為 null
+     */
+    RpcFixtureStore getFixtureRecorder() {
+        return fixtureRecorder;
+    }
+    
+    /**
+     * 回放模式下的傳輸層，未回放時為 null
+     */
+    public RpcReplayTransport getReplayTransport() {
+        return replayTransport;
+    }
+    
+    private RpcFixtureStore openFixtureStore(boolean recording) {
+        Path path = Path.of(solanaConfig.getRpcFixturePath());
+        try {
+            if (recording) {
+                System.out.printf("📼 錄製 RPC 請求與回應到 %s%n", path);
+                return RpcFixtureStore.record(path, objectMapper);
+            }
+            
+            RpcFixtureStore store = RpcFixtureStore.load(path, objectMapper);
+            System.out.printf("📼 RPC 回放模式: 已載入 %d 筆回應 (%d 種請求), 延遲 %s%n",
+                store.getFixtureCount(), store.getKeyCount(), solanaConfig.getRpcReplayLatency());
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * 因合併重複請求而省下的 RPC 呼叫次數
+     */
+    public long getCoalescedCount() {
+        return singleFlight.getCoalescedCount();
+    }
+    
+    /**
+     * 已送出的對沖請求數
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+    
+    /**
+     * 對沖請求先於主要請求完成的次數
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
     }
     
     /**
      * 獲取帳戶資訊
      */
     public JsonNode getAccountInfo(String publicKey) throws Exception {
+        return await(getAccountInfoAsync(publicKey));
+    }
+    
+    public CompletableFuture<JsonNode> getAccountInfoAsync(String publicKey) {
+        return callSolanaRPCAsync("getAccountInfo", publicKey, accountInfoConfig());
+    }
+    
+    /**
+     * 以批次模式獲取帳戶資訊，與同時送出的其他批次呼叫合併成同一個 HTTP 請求
+     */
+    public CompletableFuture<JsonNode> getAccountInfoBatched(String publicKey) {
+        return callSolanaRPCBatched("getAccountInfo", publicKey, accountInfoConfig());
+    }
+    
+    private Map<String, Object> accountInfoConfig() {
         Map<String, Object> config = new HashMap<>();
         config.put("encoding", "base64");
         config.put("commitment", solanaConfig.getCommitment());
+        return config;
+    }
+    
+    /**
+     * 獲取帳戶資料（已解碼的位元組），優先使用快取；帳戶不存在時回傳 null。
+     * 解析完成後呼叫 AccountData.release() 歸還緩衝區
+     */
+    public AccountData getAccount(String publicKey) throws Exception {
+        return getAccount(publicKey, 0);
+    }
+    
+    /**
+     * 獲取 context slot 不低於 minSlot 的帳戶資料
+     */
+    public AccountData getAccount(String publicKey, long minSlot) throws Exception {
+        return await(getAccountAsync(publicKey, minSlot));
+    }
+    
+    public CompletableFuture<AccountData> getAccountAsync(String publicKey, long minSlot) {
+        String commitment = solanaConfig.getCommitment();
+        if (solanaConfig.isAccountCacheEnabled()) {
+            AccountData cached = accountCache.get(publicKey, commitment, minSlot);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
         
-        return callSolanaRPC("getAccountInfo", publicKey, config);
+        Map<String, Object> config = new HashMap<>();
+        config.put("commitment", commitment);
+        if (minSlot > 0) {
+            config.put("minContextSlot", minSlot);
+        }
+        
+        return callAccountRPCAsync("getAccountInfo", publicKey, config).thenApply(result -> {
+            AccountData account = parseAccountData(publicKey, result);
+            if (account != null && solanaConfig.isAccountCacheEnabled()) {
+                accountCache.put(commitment, account);
+            }
+            return account;
+        });
+    }
+    
+    /**
+     * 將 getAccountInfo 的結果轉為 AccountData，帳戶不存在時回傳 null
+     */
+    private AccountData parseAccountData(String publicKey, JsonNode result) {
+        if (result == null) {
+            return null;
+        }
+        
+        long slot = result.path("context").path("slot").asLong();
+        accountCache.observeSlot(slot);
+        
+        return parseAccountValue(publicKey, result.get("value"), slot);
+    }
+    
+    private AccountData parseAccountValue(String publicKey, JsonNode value, long slot) {
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        
+        AccountData account = new AccountData();
+        account.setPubkey(publicKey);
+        account.setSlot(slot);
+        account.setOwner(PubkeyInterner.global().intern(value.get("owner").asText()));
+        account.setLamports(value.path("lamports").asLong());
+        account.setExecutable(value.path("executable").asBoolean());
+        account.setData(decodeAccountData(value.get("data")));
+        return account;
+    }
+    
+    /**
+     * 解碼 ["<資料>", "<編碼>"]：直接從 JSON 字串解碼，不經過中間 byte[]；
+     * 快取會長期保存資料，因此啟用快取（預設）時不使用緩衝池，直接解碼到剛好等長的獨立 heap 陣列；
+     * 緩衝池只用於不會被保留的資料
+     */
+    private AccountBytes decodeAccountData(JsonNode data) {
+        String encoded = data.get(0).textValue();
+        boolean cacheable = solanaConfig.isAccountCacheEnabled();
+        long start = System.nanoTime();
+        
+        if (!ENCODING_BASE64_ZSTD.equals(data.path(1).asText())) {
+            AccountBytes decoded = cacheable ? AccountBytes.decodeBase64(encoded) : bufferPool.decodeBase64(encoded);
+            metrics.recordDecode("account", ENCODING_BASE64, System.nanoTime() - start);
+            return decoded;
+        }
+        
+        AccountBytes decompressed;
+        try {
+            decompressed = cacheable ? bufferPool.decodeBase64ZstdUnpooled(encoded) : bufferPool.decodeBase64Zstd(encoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException("zstd 解壓縮失敗", e);
+        }
+        metrics.recordDecode("account", ENCODING_BASE64_ZSTD, System.nanoTime() - start);
+        return decompressed;
+    }
+    
+    /**
+     * 以帳戶資料編碼呼叫 RPC：優先使用 base64+zstd，節點不支援時改用 base64 重送，之後不再嘗試 zstd
+     */
+    private CompletableFuture<JsonNode> callAccountRPCAsync(String method, Object target, Map<String, Object> config) {
+        if (!zstdEnabled) {
+            return callSolanaRPCAsync(method, target, withEncoding(config, ENCODING_BASE64));
+        }
+        
+        return callSolanaRPCAsync(method, target, withEncoding(config, ENCODING_BASE64_ZSTD))
+            .handle((result, error) -> {
+                if (error == null) {
+                    return CompletableFuture.completedFuture(result);
+                }
+                if (!isUnsupportedEncoding(error)) {
+                    return CompletableFuture.<JsonNode>failedFuture(error);
+                }
+                
+                if (zstdEnabled) {
+                    zstdEnabled = false;
+                    System.out.println("⚠️ RPC 節點不支援 base64+zstd，改用 base64");
+                }
+                metrics.recordRetry(method, "encoding_fallback");
+                return callSolanaRPCAsync(method, target, withEncoding(config, ENCODING_BASE64));
+            })
+            .thenCompose(future -> future);
+    }
+    
+    private static Map<String, Object> withEncoding(Map<String, Object> config, String encoding) {
+        Map<String, Object> copy = new HashMap<>(config);
+        copy.put("encoding", encoding);
+        return copy;
+    }
+    
+    /**
+     * 節點是否以 JSON-RPC 參數錯誤（-32602）拒絕 base64+zstd；其他提到 encoding 的錯誤不視為不支援
+     */
+    static boolean isUnsupportedEncoding(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (!(cause instanceof SolanaRpcException rpcError)) {
+            return false;
+        }
+        Integer code = rpcError.getCode();
+        return code != null && code == SolanaRpcException.INVALID_PARAMS
+            && rpcError.getRpcMessage().toLowerCase().contains(ENCODING_BASE64_ZSTD);
+    }
+    
+    /**
+     * 批次獲取大量帳戶資料：依 maxAccountsPerRequest 切塊並行查詢，結果依輸入順序排列，
+     * 不存在或查詢失敗的帳戶個別標示，不會讓整批失敗
+     */
+    public MultipleAccounts getAccounts(List<String> publicKeys) throws Exception {
+        return await(getAccountsAsync(publicKeys));
+    }
+    
+    public CompletableFuture<MultipleAccounts> getAccountsAsync(List<String> publicKeys) {
+        String commitment = solanaConfig.getCommitment();
+        AccountData[] accounts = new AccountData[publicKeys.size()];
+        boolean[] failed = new boolean[publicKeys.size()];
+        
+        // 先從快取取得，只查詢未命中的帳戶
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < publicKeys.size(); i++) {
+            AccountData cached = solanaConfig.isAccountCacheEnabled()
+                ? accountCache.get(publicKeys.get(i), commitment, 0) : null;
+            if (cached != null) {
+                accounts[i] = cached;
+            } else {
+                pending.add(i);
+            }
+        }
+        
+        Map<String, Object> config = new HashMap<>();
+        config.put("commitment", commitment);
+        
+        int chunkSize = Math.max(1, solanaConfig.getMaxAccountsPerRequest());
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<Integer> indexes = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            List<String> keys = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                keys.add(publicKeys.get(index));
+            }
+            
+            chunks.add(callAccountRPCAsync("getMultipleAccounts", keys, config).handle((result, error) -> {
+                if (error != null) {
+                    System.err.printf("⚠️ getMultipleAccounts 分塊失敗 (%d 個帳戶): %s%n", keys.size(), error.getMessage());
+                    for (int index : indexes) {
+                        failed[index] = true;
+                    }
+                    return null;
+                }
+                
+                long slot = result.path("context").path("slot").asLong();
+                accountCache.observeSlot(slot);
+                JsonNode values = result.path("value");
+                for (int i = 0; i < indexes.size(); i++) {
+                    // 單一帳戶解析失敗（缺少欄位、解壓縮錯誤）只標示該帳戶，不讓整個分塊失敗而遺漏其他已解碼帳戶的緩衝區
+                    AccountData account;
+                    try {
+                        account = parseAccountValue(keys.get(i), values.get(i), slot);
+                    } catch (RuntimeException e) {
+                        System.err.printf("⚠️ 帳戶 %s 解析失敗: %s%n", keys.get(i), e.getMessage());
+                        failed[indexes.get(i)] = true;
+                        continue;
+                    }
+                    accounts[indexes.get(i)] = account;
+                    if (account != null && solanaConfig.isAccountCacheEnabled()) {
+                        accountCache.put(commitment, account);
+                    }
+                }
+                return null;
+            }));
+        }
+        
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            MultipleAccounts result = new MultipleAccounts();
+            for (int i = 0; i < accounts.length; i++) {
+                result.getAccounts().add(accounts[i]);
+                if (failed[i]) {
+                    result.getFailedKeys().add(publicKeys.get(i));
+                } else if (accounts[i] == null) {
+                    result.getMissingKeys().add(publicKeys.get(i));
+                }
+            }
+            return result;
+        });
+    }
+    
+    /**
+     * 帳戶快取（命中率、容量等統計）
+     */
+    public AccountCache getAccountCache() {
+        return accountCache;
+    }
+    
+    /**
+     * 帳戶資料緩衝池（配置與重複使用次數）
+     */
+    public AccountBufferPool getAccountBufferPool() {
+        return bufferPool;
     }
     
     /**
      * 獲取指定帳戶的代幣帳戶
      */
     public JsonNode getTokenAccountsByOwner(String ownerAddress, String mintAddress) throws Exception {
+        return await(getTokenAccountsByOwnerAsync(ownerAddress, mintAddress));
+    }
+    
+    public CompletableFuture<JsonNode> getTokenAccountsByOwnerAsync(String ownerAddress, String mintAddress) {
+        return callSolanaRPCAsync("getTokenAccountsByOwner", ownerAddress, tokenAccountsFilter(mintAddress),
+            jsonParsedConfig());
+    }
+    
+    /**
+     * 以批次模式獲取代幣帳戶，與同時送出的其他批次呼叫合併成同一個 HTTP 請求
+     */
+    public CompletableFuture<JsonNode> getTokenAccountsByOwnerBatched(String ownerAddress, String mintAddress) {
+        return callSolanaRPCBatched("getTokenAccountsByOwner", ownerAddress, tokenAccountsFilter(mintAddress),
+            jsonParsedConfig());
+    }
+    
+    private static Map<String, Object> tokenAccountsFilter(String mintAddress) {
         Map<String, Object> filter = new HashMap<>();
         if (mintAddress != null) {
             filter.put("mint", mintAddress);
         } else {
             filter.put("programId", "TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA");
         }
-        
+        return filter;
+    }
+    
+    private Map<String, Object> jsonParsedConfig() {
         Map<String, Object> config = new HashMap<>();
         config.put("encoding", "jsonParsed");
         config.put("commitment", solanaConfig.getCommitment());
-        
-        return callSolanaRPC("getTokenAccountsByOwner", ownerAddress, filter, config);
+        return config;
     }
     
     /**
      * 獲取帳戶的交易簽名
      */
     public JsonNode getSignaturesForAddress(String address, int limit) throws Exception {
+        return await(getSignaturesForAddressAsync(address, limit));
+    }
+    
+    public CompletableFuture<JsonNode> getSignaturesForAddressAsync(String address, int limit) {
         Map<String, Object> config = new HashMap<>();
         config.put("limit", limit);
         config.put("commitment", solanaConfig.getCommitment());
         
-        return callSolanaRPC("getSignaturesForAddress", address, config);
+        return callSolanaRPCAsync("getSignaturesForAddress", address, config);
     }
     
     /**
-     * 獲取多個帳戶資訊
+     * 以 before / until 游標取得一頁交易簽名（由新到舊）
      */
-    public JsonNode getMultipleAccounts(List<String> publicKeys) throws Exception {
+    public CompletableFuture<JsonNode> getSignaturesForAddressAsync(String address, int limit, String before, String until) {
         Map<String, Object> config = new HashMap<>();
-        config.put("encoding", "base64");
+        config.put("limit", limit);
         config.put("commitment", solanaConfig.getCommitment());
+        if (before != null) {
+            config.put("before", before);
+        }
+        if (until != null) {
+            config.put("until", until);
+        }
         
-        return callSolanaRPC("getMultipleAccounts", publicKeys, config);
+        return callSolanaRPCAsync("getSignaturesForAddress", address, config);
+    }
+    
+    /**
+     * 逐頁讀取帳戶的完整交易簽名歷史，讀取當前頁時預先取得下一頁；使用完畢需關閉
+     */
+    public SignatureStream streamSignaturesForAddress(String address, SignatureQuery query) {
+        return new SignatureStream(
+            (before, limit) -> getSignaturesForAddressAsync(address, limit, before, query.getUntil()), query);
     }
     
     /**
      * 獲取程序帳戶
      */
     public JsonNode getProgramAccounts(String programId) throws Exception {
-        return getProgramAccounts(programId, null);
+        return getProgramAccounts(programId, (List<Map<String, Object>>) null);
+    }
+    
+    public CompletableFuture<JsonNode> getProgramAccountsAsync(String programId) {
+        return getProgramAccountsAsync(programId, (List<Map<String, Object>>) null);
     }
     
     /**
      * 獲取程序帳戶（帶過濾器）
      */
     public JsonNode getProgramAccounts(String programId, List<Map<String, Object>> filters) throws Exception {
+        return await(getProgramAccountsAsync(programId, filters));
+    }
+    
+    public CompletableFuture<JsonNode> getProgramAccountsAsync(String programId, List<Map<String, Object>> filters) {
+        return callSolanaRPCAsync("getProgramAccounts", programId, programAccountsConfig(filters, null));
+    }
+    
+    /**
+     * 獲取程序帳戶（memcmp / dataSlice 等條件在節點端處理）
+     */
+    public JsonNode getProgramAccounts(String programId, ProgramAccountFilters filters) throws Exception {
+        return await(callSolanaRPCAsync("getProgramAccounts", programId,
+            programAccountsConfig(filters.getFilters(), filters.getDataSlice())));
+    }
+    
+    /**
+     * 以串流方式獲取程序帳戶，逐一讀出而不把整個回應載入記憶體；使用完畢需關閉
+     */
+    public ProgramAccountStream streamProgramAccounts(String programId, List<Map<String, Object>> filters) throws Exception {
+        return streamProgramAccounts(programId, programAccountsConfig(filters, null));
+    }
+    
+    public ProgramAccountStream streamProgramAccounts(String programId, ProgramAccountFilters filters) throws Exception {
+        return streamProgramAccounts(programId, programAccountsConfig(filters.getFilters(), filters.getDataSlice()));
+    }
+    
+    private ProgramAccountStream streamProgramAccounts(String programId, Map<String, Object> config) throws Exception {
+        if (zstdEnabled) {
+            try {
+                return openProgramAccountStream(programId, withEncoding(config, ENCODING_BASE64_ZSTD));
+            } catch (RuntimeException e) {
+                if (!isUnsupportedEncoding(e)) {
+                    throw e;
+                }
+                zstdEnabled = false;
+                System.out.println("⚠️ RPC 節點不支援 base64+zstd，改用 base64");
+                metrics.recordRetry("getProgramAccounts", "encoding_fallback");
+            }
+        }
+        return openProgramAccountStream(programId, withEncoding(config, ENCODING_BASE64));
+    }
+    
+    private ProgramAccountStream openProgramAccountStream(String programId, Map<String, Object> config) throws Exception {
+        byte[] body = requestWriter.write(requestId.getAndIncrement(), "getProgramAccounts", programId, config);
+        
+        System.out.printf("🌐 呼叫 Solana RPC (串流): %s%n", "getProgramAccounts");
+        
+        InputStream in = openRPCStream("getProgramAccounts", body);
+        return new ProgramAccountStream(objectMapper.getFactory(), in, bufferPool);
+    }
+    
+    /**
+     * 以串流方式逐一處理程序帳戶，回傳處理的帳戶數
+     */
+    public long forEachProgramAccount(String programId, List<Map<String, Object>> filters,
+                                      Consumer<ProgramAccountStream.ProgramAccount> consumer) throws Exception {
+        try (ProgramAccountStream stream = streamProgramAccounts(programId, filters)) {
+            return drain(stream, consumer);
+        }
+    }
+    
+    public long forEachProgramAccount(String programId, ProgramAccountFilters filters,
+                                      Consumer<ProgramAccountStream.ProgramAccount> consumer) throws Exception {
+        try (ProgramAccountStream stream = streamProgramAccounts(programId, filters)) {
+            return drain(stream, consumer);
+        }
+    }
+    
+    private static long drain(ProgramAccountStream stream, Consumer<ProgramAccountStream.ProgramAccount> consumer) {
+        long count = 0;
+        while (stream.hasNext()) {
+            consumer.accept(stream.next());
+            count++;
+        }
+        return count;
+    }
+    
+    private Map<String, Object> programAccountsConfig(List<Map<String, Object>> filters, Map<String, Object> dataSlice) {
         Map<String, Object> config = new HashMap<>();
         config.put("encoding", "base64");
         config.put("commitment", solanaConfig.getCommitment());
@@ -138,54 +980,48 @@ public class SolanaService {
         if (filters != null && !filters.isEmpty()) {
             config.put("filters", filters);
         }
-        
-        return callSolanaRPC("getProgramAccounts", programId, config);
+        if (dataSlice != null) {
+            config.put("dataSlice", dataSlice);
+        }
+        return config;
     }
     
     /**
      * 檢查是否為 Raydium CLMM Program
      */
     private boolean isRaydiumClmmProgram(String programId) {
-        for (String raydiumProgramId : solanaConfig.getRaydiumClmmProgramIds()) {
-            if (raydiumProgramId.equals(programId)) {
-                return true;
-            }
-        }
-        return false;
+        Pubkey key = Pubkey.tryOf(programId);
+        return key != null && raydiumClmmPrograms.contains(key);
     }
     
     /**
      * 獲取 Token Extensions 帳戶資訊
      */
     public TokenExtensionsInfo getTokenExtensions(String mintAddress) {
+        AccountData account = null;
         try {
             System.out.printf("🔍 獲取 Token Extensions 資訊: %s%n", mintAddress);
             
-            JsonNode accountInfo = getAccountInfo(mintAddress);
+            account = getAccount(mintAddress);
             
-            if (accountInfo == null || accountInfo.get("value").isNull()) {
+            if (account == null) {
                 System.out.println("❌ 帳戶不存在");
                 return null;
             }
             
-            JsonNode value = accountInfo.get("value");
-            String owner = value.get("owner").asText();
+            String owner = account.getOwner();
             
             System.out.printf("🔍 帳戶擁有者: %s%n", owner);
             
             // 檢查是否為 Token Program 擁有的 NFT
             if (solanaConfig.getTokenProgramId().equals(owner)) {
                 System.out.println("✅ 這是標準 Token Program 帳戶");
-                String data = value.get("data").get(0).asText();
-                byte[] accountData = Base64.getDecoder().decode(data);
-                return parseTokenExtensions(accountData, mintAddress);
+                return parseTokenExtensions(account.getData(), mintAddress);
             } 
             // 檢查是否為 Token Extensions Program 擁有
-            else if ("TokenzQdBNbLqP5VEhdkAS6EPFLC1PHnBqCXEpPxuEb".equals(owner)) {
+            else if (TOKEN_2022_PROGRAM_ID.equals(owner)) {
                 System.out.println("✅ 這是 Token Extensions Program 帳戶");
-                String data = value.get("data").get(0).asText();
-                byte[] accountData = Base64.getDecoder().decode(data);
-                return parseTokenExtensions(accountData, mintAddress);
+                return parseTokenExtensions(account.getData(), mintAddress);
             }
             // 檢查是否為 Raydium CLMM Program 擁有的 Position 帳戶
             else if (isRaydiumClmmProgram(owner)) {
@@ -207,22 +1043,26 @@ public class SolanaService {
         } catch (Exception e) {
             System.err.printf("❌ 獲取 Token Extensions 失敗: %s%n", e.getMessage());
             return null;
+        } finally {
+            if (account != null) {
+                account.release();
+            }
         }
     }
     
     /**
      * 解析 Token Extensions 數據
      */
-    private TokenExtensionsInfo parseTokenExtensions(byte[] data, String mintAddress) {
+    private TokenExtensionsInfo parseTokenExtensions(AccountBytes data, String mintAddress) {
         try {
             // 基本的 Token Mint 結構解析
-            if (data.length < 82) {
+            if (data.length() < 82) {
                 System.out.println("⚠️ 數據長度不足，可能不是標準的 Token Mint");
                 return null;
             }
             
             // 檢查是否有 Extensions
-            if (data.length > 82) {
+            if (data.length() > 82) {
                 System.out.println("✅ 發現 Token Extensions 數據");
                 
                 // 簡化的解析 - 在實際環境中需要完整的 Token Extensions 解析邏輯
@@ -254,250 +1094,188 @@ public class SolanaService {
             return createMockPositionAccount();
         }
         
+        MultipleAccounts accounts = null;
         try {
             System.out.printf("🔍 查找 CLMM Position 帳戶: %s%n", positionNftMint);
             
-            // 首先嘗試直接讀取該地址的帳戶資訊
-            JsonNode accountInfo = getAccountInfo(positionNftMint);
+            // 目標地址可能本身就是 Position 帳戶，或是 Position NFT mint（由 PDA 推導帳戶地址），一次查詢兩者
+            List<String> keys = new ArrayList<>();
+            keys.add(positionNftMint);
+            Pubkey mint = Pubkey.tryOf(positionNftMint);
+            if (mint != null) {
+                keys.addAll(positionAddresses(mint));
+            }
+            accounts = getAccounts(keys);
             
-            if (accountInfo != null && !accountInfo.get("value").isNull()) {
-                JsonNode value = accountInfo.get("value");
-                String owner = value.get("owner").asText();
-                
-                // 如果這個地址本身就是 Raydium CLMM Position 帳戶
-                if (isRaydiumClmmProgram(owner)) {
-                    System.out.printf("✅ 目標地址本身就是 CLMM Position 帳戶 (程序: %s)%n", owner);
-                    
-                    String data = value.get("data").get(0).asText();
-                    byte[] accountData = Base64.getDecoder().decode(data);
-                    
-                    // 直接解析這個帳戶的 tick 數據
-                    PositionAccountInfo positionInfo = parsePositionAccountData(accountData, positionNftMint);
+            for (AccountData account : accounts.getAccounts()) {
+                if (account != null && isRaydiumClmmProgram(account.getOwner())) {
+                    PositionAccountInfo positionInfo = parsePositionAccountData(account.getData(), account.getPubkey());
                     if (positionInfo != null) {
                         return positionInfo;
                     }
                 }
             }
             
-            // 如果直接讀取失敗，嘗試在程序帳戶中搜索
-            System.out.println("🔍 在 Raydium CLMM 程序帳戶中搜索...");
-            
-            for (String programId : solanaConfig.getRaydiumClmmProgramIds()) {
-                System.out.printf("🔍 搜索程序: %s%n", programId);
-                
-                PositionAccountInfo positionInfo = searchPositionInProgram(programId, positionNftMint);
-                if (positionInfo != null) {
-                    return positionInfo;
-                }
-            }
-            
             System.out.println("❌ 未找到 CLMM Position 帳戶，使用模擬數據");
             return createMockPositionAccount();
             
         } catch (Exception e) {
             System.err.printf("❌ 查找 CLMM Position 帳戶失敗: %s%n", e.getMessage());
             return createMockPositionAccount();
+        } finally {
+            if (accounts != null) {
+                accounts.release();
+            }
         }
     }
     
     /**
-     * 解析 Position 帳戶數據（針對直接的 CLMM Position 帳戶）
+     * 由 Position NFT mint 批次查找 Position 帳戶：每個 mint 在各 CLMM 程序下推導 PDA，
+     * 以分塊的 getMultipleAccounts 一次取得；帳戶不存在的 mint（一般 NFT）直接略過，結果依 mint 輸入順序排列
      */
-    private PositionAccountInfo parsePositionAccountData(byte[] data, String positionAddress) {
+    public List<PositionAccountInfo> findPositionsByNftMints(List<String> nftMints) throws Exception {
+        List<String> keys = new ArrayList<>();
+        List<String> keyMints = new ArrayList<>();
+        for (String nftMint : new LinkedHashSet<>(nftMints)) {
+            Pubkey mint = Pubkey.tryOf(nftMint);
+            if (mint == null) {
+                continue;
+            }
+            for (String address : positionAddresses(mint)) {
+                keys.add(address);
+                keyMints.add(nftMint);
+            }
+        }
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        MultipleAccounts accounts = getAccounts(keys);
+        Map<String, PositionAccountInfo> found = new LinkedHashMap<>();
         try {
-            System.out.printf("🔍 解析 Position 帳戶數據 (長度: %d)%n", data.length);
-            
-            // CLMM Position 帳戶的典型結構
-            if (data.length >= 264) {
-                // 嘗試在固定偏移位置讀取 tick 數據
-                // 基於 Raydium CLMM Position 帳戶結構
-                int[] possibleOffsets = {
-                    41,   // 常見的 tick 偏移位置
-                    73,   // 另一個可能的位置
-                    105,  // 第三個可能的位置
-                    137   // 第四個可能的位置
-                };
-                
-                for (int offset : possibleOffsets) {
-                    if (offset + 8 <= data.length) {
-                        int tickLower = bytesToInt32LE(data, offset);
-                        int tickUpper = bytesToInt32LE(data, offset + 4);
-                        
-                        if (isValidTickPair(tickLower, tickUpper)) {
-                            PositionAccountInfo info = new PositionAccountInfo();
-                            info.setTickLower(tickLower);
-                            info.setTickUpper(tickUpper);
-                            info.setAccountAddress(offset); // 使用偏移作為標識
-                            
-                            System.out.printf("✅ 在偏移 %d 找到有效 tick 數據: %d 到 %d%n", 
-                                offset, tickLower, tickUpper);
-                            return info;
-                        }
-                    }
+            for (int i = 0; i < keys.size(); i++) {
+                AccountData account = accounts.getAccounts().get(i);
+                if (account == null || found.containsKey(keyMints.get(i)) || !isRaydiumClmmProgram(account.getOwner())
+                        || !PersonalPositionState.isPositionAccount(account.getData())) {
+                    continue;
                 }
-                
-                // 如果固定偏移失敗，進行全面掃描
-                System.out.println("🔍 進行全面 tick 數據掃描...");
-                return scanForTickData(data);
-            } else {
-                System.out.printf("⚠️ 帳戶數據長度不足: %d < 264%n", data.length);
-                return null;
+                // 帳戶資料可能來自緩衝池，複製一份供 Position 資訊長期保存
+                PersonalPositionState state = new PersonalPositionState()
+                    .wrap(AccountBytes.wrap(account.getData().toByteArray()));
+                found.put(keyMints.get(i), toPositionAccountInfo(keys.get(i), state));
             }
-            
-        } catch (Exception e) {
-            System.err.printf("❌ 解析 Position 帳戶數據失敗: %s%n", e.getMessage());
-            return null;
+        } finally {
+            accounts.release();
         }
+        
+        if (!accounts.getFailedKeys().isEmpty()) {
+            System.err.printf("⚠️ %d 個 Position 帳戶查詢失敗%n", accounts.getFailedKeys().size());
+        }
+        return new ArrayList<>(found.values());
     }
     
     /**
-     * 掃描數據中的 tick 資訊
+     * NFT mint 在各 CLMM 程序下的 Position 帳戶地址
      */
-    private PositionAccountInfo scanForTickData(byte[] data) {
-        for (int offset = 0; offset < data.length - 8; offset += 4) {
-            int tickLower = bytesToInt32LE(data, offset);
-            int tickUpper = bytesToInt32LE(data, offset + 4);
-            
-            if (isValidTickPair(tickLower, tickUpper)) {
-                PositionAccountInfo info = new PositionAccountInfo();
-                info.setTickLower(tickLower);
-                info.setTickUpper(tickUpper);
-                info.setAccountAddress(offset);
-                
-                System.out.printf("✅ 掃描找到 tick 數據 (偏移 %d): %d 到 %d%n", 
-                    offset, tickLower, tickUpper);
-                return info;
-            }
+    private List<String> positionAddresses(Pubkey nftMint) {
+        List<String> addresses = new ArrayList<>();
+        for (String programId : solanaConfig.getRaydiumClmmProgramIds()) {
+            addresses.add(PersonalPositionState.address(Pubkey.of(programId), nftMint).toBase58());
         }
-        
-        System.out.println("❌ 掃描未找到有效的 tick 數據");
-        return null;
+        return addresses;
     }
     
     /**
-     * 在特定程序中搜索 Position 帳戶
+     * 解析 Position 帳戶數據（針對直接的 CLMM Position 帳戶），依 PersonalPositionState 的固定佈局讀取
      */
-    private PositionAccountInfo searchPositionInProgram(String programId, String positionNftMint) {
-        try {
-            // 創建過濾器以減少返回的帳戶數量
-            List<Map<String, Object>> filters = new ArrayList<>();
-            
-            // 過濾器：帳戶大小 (CLMM Position 帳戶通常是 264-281 字節)
-            Map<String, Object> sizeFilter = new HashMap<>();
-            sizeFilter.put("dataSize", 281);
-            filters.add(sizeFilter);
-            
-            JsonNode programAccounts = getProgramAccounts(programId, filters);
-            
-            if (programAccounts == null || !programAccounts.isArray()) {
-                return null;
-            }
-            
-            System.out.printf("📊 找到 %d 個候選帳戶%n", programAccounts.size());
-            
-            // 檢查每個帳戶
-            int maxAccountsToCheck = Math.min(20, programAccounts.size()); // 限制檢查數量
-            for (int i = 0; i < maxAccountsToCheck; i++) {
-                JsonNode account = programAccounts.get(i);
-                String accountAddress = account.get("pubkey").asText();
-                
-                try {
-                    PositionAccountInfo positionInfo = parsePositionAccount(account, positionNftMint);
-                    if (positionInfo != null) {
-                        System.out.printf("✅ 找到匹配的 Position 帳戶: %s%n", accountAddress);
-                        return positionInfo;
-                    }
-                } catch (Exception e) {
-                    // 繼續檢查下一個帳戶
-                    continue;
-                }
-            }
-            
-            return null;
-            
-        } catch (Exception e) {
-            System.err.printf("⚠️ 搜索程序 %s 失敗: %s%n", programId, e.getMessage());
+    private PositionAccountInfo parsePositionAccountData(AccountBytes data, String positionAddress) {
+        if (!PersonalPositionState.isPositionAccount(data)) {
+            System.out.printf("⚠️ 不是 CLMM Position 帳戶 (長度: %d)%n", data.length());
             return null;
         }
+        
+        // 帳戶資料可能來自緩衝池，複製一份供 Position 資訊長期保存
+        PersonalPositionState state = new PersonalPositionState().wrap(AccountBytes.wrap(data.toByteArray()));
+        PositionAccountInfo info = toPositionAccountInfo(positionAddress, state);
+        
+        System.out.printf("✅ 解析 Position 帳戶: pool %s, tick %d 到 %d%n",
+            info.getPoolId(), info.getTickLower(), info.getTickUpper());
+        return info;
     }
     
     /**
-     * 解析 Position 帳戶數據
+     * 查找指定池子的所有 Position（memcmp 比對 pool id）
      */
-    private PositionAccountInfo parsePositionAccount(JsonNode account, String targetNftMint) {
-        try {
-            String accountData = account.get("account").get("data").get(0).asText();
-            byte[] data = Base64.getDecoder().decode(accountData);
-            
-            // 在數據中搜索 NFT mint
-            byte[] targetMintBytes = base58Decode(targetNftMint);
-            
-            // 簡化的搜索邏輯
-            for (int offset = 0; offset <= data.length - 32; offset += 4) {
-                if (offset + 32 <= data.length) {
-                    byte[] candidate = Arrays.copyOfRange(data, offset, offset + 32);
-                    
-                    if (Arrays.equals(candidate, targetMintBytes)) {
-                        System.out.printf("✅ 在偏移 %d 找到匹配的 NFT mint%n", offset);
-                        
-                        // 嘗試解析 tick 數據
-                        return extractTickData(data, offset);
-                    }
-                }
-            }
-            
-            return null;
-            
-        } catch (Exception e) {
-            return null;
+    public List<PositionAccountInfo> findPositionsByPool(String poolId) throws Exception {
+        List<PositionAccountInfo> positions = new ArrayList<>();
+        ProgramAccountFilters filters = ProgramAccountFilters.create()
+            .dataSize(PersonalPositionState.SIZE)
+            .memcmp(PersonalPositionState.POOL_ID_OFFSET, poolId)
+            .dataSlice(PersonalPositionState.NFT_MINT_OFFSET, POSITION_SLICE_LENGTH);
+        
+        for (String programId : solanaConfig.getRaydiumClmmProgramIds()) {
+            forEachProgramAccount(programId, filters, account -> positions.add(toPositionAccountInfo(account)));
         }
+        
+        System.out.printf("📊 池子 %s 共有 %d 個 Position%n", poolId, positions.size());
+        return positions;
     }
     
     /**
-     * 從帳戶數據中提取 tick 資訊
+     * 查找錢包持有的所有 Position：先列出錢包中數量為 1 的 NFT，再由 NFT mint 推導 Position 地址批次查詢
      */
-    private PositionAccountInfo extractTickData(byte[] data, int nftMintOffset) {
-        try {
-            // 在 NFT mint 附近搜索 tick 數據
-            int searchStart = Math.max(0, nftMintOffset - 100);
-            int searchEnd = Math.min(data.length - 8, nftMintOffset + 100);
-            
-            for (int tickOffset = searchStart; tickOffset < searchEnd; tickOffset += 4) {
-                if (tickOffset + 8 <= data.length) {
-                    int tickLower = bytesToInt32LE(data, tickOffset);
-                    int tickUpper = bytesToInt32LE(data, tickOffset + 4);
-                    
-                    // 驗證 tick 值是否合理
-                    if (isValidTickPair(tickLower, tickUpper)) {
-                        PositionAccountInfo info = new PositionAccountInfo();
-                        info.setTickLower(tickLower);
-                        info.setTickUpper(tickUpper);
-                        info.setAccountAddress(nftMintOffset); // 臨時使用偏移作為標識
-                        
-                        System.out.printf("✅ 提取到 tick 數據: %d 到 %d%n", tickLower, tickUpper);
-                        return info;
-                    }
+    public List<PositionAccountInfo> findPositionsByOwner(String ownerAddress) throws Exception {
+        List<PositionAccountInfo> positions = findPositionsByNftMints(findNftMintsOwnedBy(ownerAddress));
+        
+        System.out.printf("📊 錢包 %s 共持有 %d 個 Position%n", ownerAddress, positions.size());
+        return positions;
+    }
+    
+    /**
+     * 錢包在 Token Program 與 Token Extensions Program 下持有的 NFT mint（數量 1、小數位 0）；
+     * 兩個查詢合併為一個批次請求
+     */
+    private List<String> findNftMintsOwnedBy(String ownerAddress) throws Exception {
+        List<CompletableFuture<JsonNode>> lookups = new ArrayList<>();
+        for (String tokenProgram : new String[] { solanaConfig.getTokenProgramId(), TOKEN_2022_PROGRAM_ID }) {
+            lookups.add(callSolanaRPCBatched("getTokenAccountsByOwner", ownerAddress,
+                Map.of("programId", tokenProgram), jsonParsedConfig()));
+        }
+        flushBatchedRPC();
+        
+        List<String> mints = new ArrayList<>();
+        for (CompletableFuture<JsonNode> lookup : lookups) {
+            JsonNode result = await(lookup);
+            for (JsonNode tokenAccount : result.path("value")) {
+                JsonNode info = tokenAccount.path("account").path("data").path("parsed").path("info");
+                JsonNode amount = info.path("tokenAmount");
+                if ("1".equals(amount.path("amount").asText()) && amount.path("decimals").asInt() == 0) {
+                    mints.add(info.path("mint").asText());
                 }
             }
-            
-            return null;
-            
-        } catch (Exception e) {
-            return null;
         }
+        return mints;
     }
     
     /**
-     * 驗證 tick 值是否合理
+     * 由 dataSlice（nft_mint 起算的 216 bytes）建立 Position 資訊；slice 來自串流的共用緩衝區，複製一份供長期保存
      */
-    private boolean isValidTickPair(int tickLower, int tickUpper) {
-        final int MAX_TICK = 887272;
-        
-        return Math.abs(tickLower) <= MAX_TICK &&
-               Math.abs(tickUpper) <= MAX_TICK &&
-               tickLower < tickUpper &&
-               (tickUpper - tickLower) > 0 &&
-               (tickUpper - tickLower) < 100000; // 合理的範圍差值
+    private PositionAccountInfo toPositionAccountInfo(ProgramAccountStream.ProgramAccount account) {
+        PersonalPositionState state = new PersonalPositionState()
+            .wrap(ByteBuffer.wrap(account.getData().toByteArray()), PersonalPositionState.NFT_MINT_OFFSET);
+        return toPositionAccountInfo(account.getPubkey(), state);
+    }
+    
+    private PositionAccountInfo toPositionAccountInfo(String positionAddress, PersonalPositionState state) {
+        PositionAccountInfo info = new PositionAccountInfo();
+        info.setPositionAddress(positionAddress);
+        info.setNftMint(state.nftMintBase58());
+        info.setPoolId(state.poolIdBase58());
+        info.setTickLower(state.tickLower());
+        info.setTickUpper(state.tickUpper());
+        info.setLiquidity(state.liquidity(new U128()));
+        info.setState(state);
+        return info;
     }
     
     /**
@@ -507,7 +1285,6 @@ public class SolanaService {
         PositionAccountInfo mockInfo = new PositionAccountInfo();
         mockInfo.setTickLower(-18973);
         mockInfo.setTickUpper(-12041);
-        mockInfo.setAccountAddress(0); // 模擬地址
         
         System.out.println("⚠️ 使用模擬的 Position 帳戶數據");
         System.out.printf("   Tick 範圍: %d 到 %d%n", mockInfo.getTickLower(), mockInfo.getTickUpper());
@@ -515,27 +1292,6 @@ public class SolanaService {
         return mockInfo;
     }
     
-    /**
-     * 工具方法：將字節轉換為 32 位小端序整數
-     */
-    private int bytesToInt32LE(byte[] data, int offset) {
-        return (data[offset] & 0xFF) |
-               ((data[offset + 1] & 0xFF) << 8) |
-               ((data[offset + 2] & 0xFF) << 16) |
-               ((data[offset + 3] & 0xFF) << 24);
-    }
-    
-    /**
-     * 工具方法：Base58 解碼（簡化版）
-     */
-    private byte[] base58Decode(String input) {
-        // 這是一個簡化的實現，實際應用中應該使用完整的 Base58 解碼庫
-        // 目前返回固定長度的字節數組作為佔位符
-        byte[] result = new byte[32];
-        // 這裡應該實現實際的 Base58 解碼邏輯
-        return result;
-    }
-    
     /**
      * 檢查 Solana 節點連接狀態
      */
@@ -586,14 +1342,80 @@ public class SolanaService {
     public static class PositionAccountInfo {
         private int tickLower;
         private int tickUpper;
-        private int accountAddress; // 簡化為 int，實際應該是 String
+        private String positionAddress;
+        private String nftMint;
+        private String poolId;
+        private U128 liquidity;
+        private PersonalPositionState state; // dataSlice 搜索的結果只含 nft_mint 到 recent_epoch 的欄位，模擬數據為 null
         
         // Getters and Setters
         public int getTickLower() { return tickLower; }
         public void setTickLower(int tickLower) { this.tickLower = tickLower; }
         public int getTickUpper() { return tickUpper; }
         public void setTickUpper(int tickUpper) { this.tickUpper = tickUpper; }
-        public int getAccountAddress() { return accountAddress; }
-        public void setAccountAddress(int accountAddress) { this.accountAddress = accountAddress; }
+        public String getPositionAddress() { return positionAddress; }
+        public void setPositionAddress(String positionAddress) { this.positionAddress = positionAddress; }
+        public String getNftMint() { return nftMint; }
+        public void setNftMint(String nftMint) { this.nftMint = nftMint; }
+        public String getPoolId() { return poolId; }
+        public void setPoolId(String poolId) { this.poolId = poolId; }
+        public U128 getLiquidity() { return liquidity; }
+        public void setLiquidity(U128 liquidity) { this.liquidity = liquidity; }
+        public PersonalPositionState getState() { return state; }
+        public void setState(PersonalPositionState state) { this.state = state; }
+    }
+    
+    public static class AccountData {
+        private String pubkey;
+        private String owner;
+        private long lamports;
+        private boolean executable;
+        private AccountBytes data; // 快取中的資料為獨立 heap 緩衝區，未啟用快取時來自緩衝池
+        private long slot; // 回應的 context slot
+        
+        // Getters and Setters
+        public String getPubkey() { return pubkey; }
+        public void setPubkey(String pubkey) { this.pubkey = pubkey; }
+        public String getOwner() { return owner; }
+        public void setOwner(String owner) { this.owner = owner; }
+        public long getLamports() { return lamports; }
+        public void setLamports(long lamports) { this.lamports = lamports; }
+        public boolean isExecutable() { return executable; }
+        public void setExecutable(boolean executable) { this.executable = executable; }
+        public AccountBytes getData() { return data; }
+        public void setData(AccountBytes data) { this.data = data; }
+        public long getSlot() { return slot; }
+        public void setSlot(long slot) { this.slot = slot; }
+        
+        /**
+         * 解析完成後歸還資料緩衝區；快取中的資料不屬於緩衝池，呼叫不影響其他使用者
+         */
+        public void release() {
+            if (data != null) {
+                data.release();
+            }
+        }
+    }
+    
+    public static class MultipleAccounts {
+        private final List<AccountData> accounts = new ArrayList<>(); // 與輸入順序相同，未取得時為 null
+        private final List<String> missingKeys = new ArrayList<>();   // 鏈上不存在的帳戶
+        private final List<String> failedKeys = new ArrayList<>();    // 查詢失敗的帳戶
+        
+        // Getters
+        public List<AccountData> getAccounts() { return accounts; }
+        public List<String> getMissingKeys() { return missingKeys; }
+        public List<String> getFailedKeys() { return failedKeys; }
+        
+        /**
+         * 歸還所有帳戶的資料緩衝區
+         */
+        public void release() {
+            for (AccountData account : accounts) {
+                if (account != null) {
+                    account.release();
+                }
+            }
+        }
     }
 }
\ No newline at end of file
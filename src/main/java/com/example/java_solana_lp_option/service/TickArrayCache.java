@@ -0,0 +1,141 @@
+package com.example.java_solana_lp_option.service;
+
+import com.example.java_solana_lp_option.util.Pubkey;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tick array 帳戶的週期快取 - 同一個週期內每個 tick array 只讀取一次，週期結束時整批清空；
+ * 多個 Position 共用的 tick array（同一池子中相近的價格區間）不會重複讀取，未命中的部分以一次批次查詢取得
+ *
+ * tick array 的 PDA 推導結果不會改變，另外長期保存，不受週期影響
+ */
+public class TickArrayCache {
+    
+    private static final int MAX_ADDRESSES = 1 << 14;
+    
+    private final SolanaService solanaService;
+    private final long cycleMs;
+    
+    private final Map<Pubkey, TickArrayState> arrays = new ConcurrentHashMap<>();
+    private final Map<AddressKey, Pubkey> addresses = new ConcurrentHashMap<>();
+    private volatile long cycleStart = System.currentTimeMillis();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong fetched = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    
+    public TickArrayCache(SolanaService solanaService, long cycleMs) {
+        this.solanaService = solanaService;
+        this.cycleMs = cycleMs;
+    }
+    
+    /**
+     * 開始新的週期，之後的查詢重新讀取 tick array
+     */
+    public void startCycle() {
+        arrays.clear();
+        cycleStart = System.currentTimeMillis();
+    }
+    
+    /**
+     * 包含 tick 的 tick array 地址
+     */
+    public Pubkey address(Pubkey programId, Pubkey poolId, int tick, int tickSpacing) {
+        AddressKey key = new AddressKey(programId, poolId, TickArrayState.startTickIndex(tick, tickSpacing));
+        Pubkey address = addresses.get(key);
+        if (address == null) {
+            if (addresses.size() >= MAX_ADDRESSES) {
+                addresses.clear();
+            }
+            address = TickArrayState.address(programId, poolId, key.startTickIndex);
+            addresses.put(key, address);
+        }
+        return address;
+    }
+    
+    /**
+     * 取得多個 tick array，本週期已讀取的直接回傳，其餘以一次 getMultipleAccounts 查詢；
+     * 不存在或不是 TickArrayState 的帳戶不列入結果
+     */
+    public Map<Pubkey, TickArrayState> load(Collection<Pubkey> keys) throws Exception {
+        if (System.currentTimeMillis() - cycleStart >= cycleMs) {
+            startCycle();
+        }
+        
+        Map<Pubkey, TickArrayState> result = new HashMap<>();
+        List<Pubkey> missing = new ArrayList<>();
+        for (Pubkey key : new LinkedHashSet<>(keys)) {
+            TickArrayState cached = arrays.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                result.put(key, cached);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        
+        List<String> base58 = new ArrayList<>(missing.size());
+        for (Pubkey key : missing) {
+            base58.add(key.toBase58());
+        }
+        requests.incrementAndGet();
+        SolanaService.MultipleAccounts accounts = solanaService.getAccounts(base58);
+        for (int i = 0; i < missing.size(); i++) {
+            SolanaService.AccountData account = accounts.getAccounts().get(i);
+            if (account == null) {
+                continue;
+            }
+            try {
+                if (TickArrayState.isTickArrayAccount(account.getData())) {
+                    // 帳戶資料可能來自緩衝池，複製一份保存到週期結束
+                    TickArrayState state = new TickArrayState().wrap(AccountBytes.wrap(account.getData().toByteArray()));
+                    arrays.put(missing.get(i), state);
+                    result.put(missing.get(i), state);
+                    fetched.incrementAndGet();
+                }
+            } finally {
+                account.release();
+            }
+        }
+        return result;
+    }
+    
+    public int size() { return arrays.size(); }
+    public long getHitCount() { return hits.get(); }
+    public long getFetchedCount() { return fetched.get(); }
+    public long getRequestCount() { return requests.get(); }
+    
+    private static final class AddressKey {
+        private final Pubkey programId;
+        private final Pubkey poolId;
+        private final int startTickIndex;
+        
+        private AddressKey(Pubkey programId, Pubkey poolId, int startTickIndex) {
+            this.programId = programId;
+            this.poolId = poolId;
+            this.startTickIndex = startTickIndex;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof AddressKey)) {
+                return false;
+            }
+            AddressKey key = (AddressKey) other;
+            return startTickIndex == key.startTickIndex && poolId.equals(key.poolId) && programId.equals(key.programId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * poolId.hashCode() + startTickIndex;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.java_solana_lp_option.service;
+
+import com.example.java_solana_lp_option.util.ProgramAddress;
+import com.example.java_solana_lp_option.util.Pubkey;
+import com.example.java_solana_lp_option.util.U128;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Raydium CLMM TickArrayState 帳戶的 flyweight 解碼器 - 每個帳戶保存 60 個連續可初始化 tick 的狀態
+ *
+ * 佈局（Anchor zero_copy，little-endian，共 10240 bytes）：
+ * discriminator(8) pool_id(32) start_tick_index(i32) ticks[60]{tick(i32) liquidity_net(i128) liquidity_gross(u128)
+ * fee_growth_outside_0_x64(u128) fee_growth_outside_1_x64(u128) reward_growths_outside_x64(u128 x 3) padding(u32 x 13)}
+ * initialized_tick_count(u8) recent_epoch(u64) padding(107)
+ *
+ * 帳戶地址為 PDA：seeds = ["tick_array", pool_id, start_tick_index（big-endian i32）]
+ */
+public final class TickArrayState {
+    
+    public static final int SIZE = 10240;
+    public static final int POOL_ID_OFFSET = 8;
+    public static final int START_TICK_INDEX_OFFSET = 40;
+    public static final int TICKS_OFFSET = 44;
+    public static final int TICK_STATE_SIZE = 168;
+    public static final int TICK_ARRAY_SIZE = 60;
+    
+    // TickState 內的欄位 offset
+    public static final int TICK_LIQUIDITY_GROSS_OFFSET = 20;
+    public static final int TICK_FEE_GROWTH_OUTSIDE_0_OFFSET = 36;
+    public static final int TICK_FEE_GROWTH_OUTSIDE_1_OFFSET = 52;
+    public static final int TICK_REWARD_GROWTHS_OUTSIDE_OFFSET = 68;
+    
+    private static final byte[] DISCRIMINATOR = PersonalPositionState.anchorDiscriminator("TickArrayState");
+    private static final byte[] SEED = "tick_array".getBytes(StandardCharsets.US_ASCII);
+    
+    private ByteBuffer buffer;
+    
+    public TickArrayState wrap(AccountBytes data) {
+        this.buffer = data.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        return this;
+    }
+    
+    /**
+     * 長度與 Anchor discriminator 皆符合 TickArrayState
+     */
+    public static boolean isTickArrayAccount(AccountBytes data) {
+        if (data.length() != SIZE) {
+            return false;
+        }
+        for (int i = 0; i < DISCRIMINATOR.length; i++) {
+            if (data.get(i) != DISCRIMINATOR[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 包含 tick 的 tick array 起始 tick：tickSpacing * 60 的倍數（向負無限大取整）
+     */
+    public static int startTickIndex(int tick, int tickSpacing) {
+        int ticksInArray = tickSpacing * TICK_ARRAY_SIZE;
+        return Math.floorDiv(tick, ticksInArray) * ticksInArray;
+    }
+    
+    /**
+     * tick array 帳戶地址
+     */
+    public static Pubkey address(Pubkey programId, Pubkey poolId, int startTickIndex) {
+        byte[] index = ByteBuffer.allocate(4).putInt(startTickIndex).array();
+        return ProgramAddress.find(programId, SEED, poolId.toBytes(), index);
+    }
+    
+    public Pubkey poolId() { return Pubkey.read(buffer, POOL_ID_OFFSET); }
+    public int startTickIndex() { return buffer.getInt(START_TICK_INDEX_OFFSET); }
+    
+    /**
+     * tick 在陣列中的位置；tick 不屬於此陣列或不是 tickSpacing 的倍數時拋出 IllegalArgumentException
+     */
+    public int indexOf(int tick, int tickSpacing) {
+        int offset = tick - startTickIndex();
+        if (offset < 0 || offset % tickSpacing != 0 || offset / tickSpacing >= TICK_ARRAY_SIZE) {
+            throw new IllegalArgumentException("tick " + tick + " 不在 tick array " + startTickIndex() + " 中");
+        }
+        return offset / tickSpacing;
+    }
+    
+    public int tick(int index) { return buffer.getInt(tickOffset(index)); }
+    public U128 liquidityGross(int index, U128 out) { return out.read(buffer, tickOffset(index) + TICK_LIQUIDITY_GROSS_OFFSET); }
+    public U128 feeGrowthOutside0(int index, U128 out) { return out.read(buffer, tickOffset(index) + TICK_FEE_GROWTH_OUTSIDE_0_OFFSET); }
+    public U128 feeGrowthOutside1(int index, U128 out) { return out.read(buffer, tickOffset(index) + TICK_FEE_GROWTH_OUTSIDE_1_OFFSET); }
+    
+    public U128 rewardGrowthOutside(int index, int rewardIndex, U128 out) {
+        if (rewardIndex < 0 || rewardIndex >= PersonalPositionState.REWARD_COUNT) {
+            throw new IndexOutOfBoundsException("reward index " + rewardIndex);
+        }
+        return out.read(buffer, tickOffset(index) + TICK_REWARD_GROWTHS_OUTSIDE_OFFSET + rewardIndex * 16);
+    }
+    
+    private static int tickOffset(int index) {
+        if (index < 0 || index >= TICK_ARRAY_SIZE) {
+            throw new IndexOutOfBoundsException("tick index " + index);
+        }
+        return TICKS_OFFSET + index * TICK_STATE_SIZE;
+    }
+}
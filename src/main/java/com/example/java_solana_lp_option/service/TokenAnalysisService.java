@@ -1,17 +1,17 @@
 package com.example.java_solana_lp_option.service;
 
+import com.example.java_solana_lp_option.config.HttpTransport;
 import com.example.java_solana_lp_option.config.SolanaConfig;
+import com.example.java_solana_lp_option.util.Pubkey;
+import com.example.java_solana_lp_option.util.PubkeyInterner;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.Base64;
 
 /**
  * 代幣分析服務 - 專門分析 SPL Token 和 Token Extensions 的詳細資訊
@@ -25,7 +25,7 @@ public class TokenAnalysisService {
     private final ObjectMapper objectMapper;
     
     // 代幣資訊快取
-    private final Map<String, TokenAnalysisResult> tokenCache = new ConcurrentHashMap<>();
+    private final Map<Pubkey, TokenAnalysisResult> tokenCache = new ConcurrentHashMap<>();
     
     // 目標代幣地址
     private static final String TARGET_TOKEN = "CYsWY6tmV3WhNHAcSrbC3VPd5KiBhjPiPGMzg6xxn66t";
@@ -33,15 +33,12 @@ public class TokenAnalysisService {
     // Token Extensions Program ID
     private static final String TOKEN_EXTENSIONS_PROGRAM_ID = "TokenzQdBNbLqP5VEhdkAS6EPFLC1PHnBqCXEpPxuEb";
     
-    public TokenAnalysisService(SolanaService solanaService, SolanaConfig solanaConfig) {
+    public TokenAnalysisService(SolanaService solanaService, SolanaConfig solanaConfig, HttpTransport httpTransport) {
         this.solanaService = solanaService;
         this.solanaConfig = solanaConfig;
         this.objectMapper = new ObjectMapper();
         
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(solanaConfig.getConnectTimeout());
-        factory.setReadTimeout(solanaConfig.getReadTimeout());
-        this.restTemplate = new RestTemplate(factory);
+        this.restTemplate = new RestTemplate(httpTransport.requestFactory());
     }
     
     /**
@@ -52,9 +49,11 @@ public class TokenAnalysisService {
             System.out.printf("🔍 開始分析代幣: %s%n", mintAddress);
             
             // 檢查快取
-            if (tokenCache.containsKey(mintAddress)) {
+            Pubkey mint = Pubkey.of(mintAddress);
+            TokenAnalysisResult cached = tokenCache.get(mint);
+            if (cached != null) {
                 System.out.println("📊 使用快取的代幣資訊");
-                return tokenCache.get(mintAddress);
+                return cached;
             }
             
             TokenAnalysisResult result = new TokenAnalysisResult();
@@ -82,7 +81,7 @@ public class TokenAnalysisService {
             result.setSecurityAnalysis(security);
             
             // 快取結果
-            tokenCache.put(mintAddress, result);
+            tokenCache.put(mint, result);
             
             System.out.printf("✅ 代幣分析完成: %s%n", basicInfo.getSymbol());
             return result;
@@ -97,33 +96,30 @@ public class TokenAnalysisService {
      * 獲取基本代幣資訊
      */
     private TokenBasicInfo fetchBasicTokenInfo(String mintAddress) {
+        SolanaService.AccountData account = null;
         try {
             System.out.println("📋 獲取基本代幣資訊...");
             
-            JsonNode accountInfo = solanaService.getAccountInfo(mintAddress);
-            if (accountInfo == null || accountInfo.get("value").isNull()) {
+            account = solanaService.getAccount(mintAddress);
+            if (account == null) {
                 throw new RuntimeException("代幣帳戶不存在");
             }
             
-            JsonNode value = accountInfo.get("value");
-            String owner = value.get("owner").asText();
-            String data = value.get("data").get(0).asText();
-            byte[] mintData = Base64.getDecoder().decode(data);
+            String owner = account.getOwner();
+            AccountBytes mintData = account.getData();
             
             TokenBasicInfo basicInfo = new TokenBasicInfo();
             basicInfo.setMintAddress(mintAddress);
             basicInfo.setOwnerProgram(owner);
             
             // 解析 Mint 帳戶結構
-            if (mintData.length >= 82) { // 標準 SPL Token Mint 大小
-                ByteBuffer buffer = ByteBuffer.wrap(mintData).order(ByteOrder.LITTLE_ENDIAN);
+            if (mintData.length() >= 82) { // 標準 SPL Token Mint 大小
+                ByteBuffer buffer = mintData.buffer();
                 
                 // Mint Authority (32 bytes, option)
                 int mintAuthorityOption = buffer.getInt();
                 if (mintAuthorityOption == 1) {
-                    byte[] mintAuthority = new byte[32];
-                    buffer.get(mintAuthority);
-                    basicInfo.setMintAuthority(Base64.getEncoder().encodeToString(mintAuthority));
+                    basicInfo.setMintAuthority(PubkeyInterner.global().intern(buffer));
                 } else {
                     buffer.position(buffer.position() + 32);
                     basicInfo.setMintAuthority(null);
@@ -144,9 +140,7 @@ public class TokenAnalysisService {
                 // Freeze Authority (32 bytes, option)
                 int freezeAuthorityOption = buffer.getInt();
                 if (freezeAuthorityOption == 1) {
-                    byte[] freezeAuthority = new byte[32];
-                    buffer.get(freezeAuthority);
-                    basicInfo.setFreezeAuthority(Base64.getEncoder().encodeToString(freezeAuthority));
+                    basicInfo.setFreezeAuthority(PubkeyInterner.global().intern(buffer));
                 } else {
                     basicInfo.setFreezeAuthority(null);
                 }
@@ -169,6 +163,10 @@ public class TokenAnalysisService {
             basicInfo.setMintAddress(mintAddress);
             basicInfo.setError("Failed to fetch basic info: " + e.getMessage());
             return basicInfo;
+        } finally {
+            if (account != null) {
+                account.release();
+            }
         }
     }
     
@@ -282,25 +280,24 @@ public class TokenAnalysisService {
      * 分析 Token Extensions
      */
     private TokenExtensionsInfo analyzeTokenExtensions(String mintAddress) {
+        SolanaService.AccountData account = null;
         try {
             System.out.println("🔧 分析 Token Extensions...");
             
             TokenExtensionsInfo extensions = new TokenExtensionsInfo();
             extensions.setMintAddress(mintAddress);
             
-            JsonNode accountInfo = solanaService.getAccountInfo(mintAddress);
-            if (accountInfo != null && !accountInfo.get("value").isNull()) {
-                JsonNode value = accountInfo.get("value");
-                String owner = value.get("owner").asText();
+            account = solanaService.getAccount(mintAddress);
+            if (account != null) {
+                String owner = account.getOwner();
                 
                 if (TOKEN_EXTENSIONS_PROGRAM_ID.equals(owner)) {
                     extensions.setIsTokenExtensions(true);
                     
-                    String data = value.get("data").get(0).asText();
-                    byte[] mintData = Base64.getDecoder().decode(data);
+                    AccountBytes mintData = account.getData();
                     
                     // 解析 Token Extensions 數據
-                    if (mintData.length > 82) {
+                    if (mintData.length() > 82) {
                         Map<String, Object> extensionsData = parseTokenExtensionsData(mintData);
                         extensions.setExtensionsData(extensionsData);
                         
@@ -326,19 +323,23 @@ public class TokenAnalysisService {
             extensions.setMintAddress(mintAddress);
             extensions.setError("Extensions analysis failed: " + e.getMessage());
             return extensions;
+        } finally {
+            if (account != null) {
+                account.release();
+            }
         }
     }
     
     /**
      * 解析 Token Extensions 數據
      */
-    private Map<String, Object> parseTokenExtensionsData(byte[] data) {
+    private Map<String, Object> parseTokenExtensionsData(AccountBytes data) {
         Map<String, Object> extensions = new HashMap<>();
         
         try {
             // Token Extensions 在標準 Mint 數據之後
-            if (data.length > 82) {
-                ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            if (data.length() > 82) {
+                ByteBuffer buffer = data.buffer();
                 buffer.position(82); // 跳過標準 Mint 數據
                 
                 // 解析擴展區域
@@ -351,8 +352,9 @@ public class TokenAnalysisService {
                         break;
                     }
                     
-                    byte[] extensionData = new byte[extensionLength];
-                    buffer.get(extensionData);
+                    // 擴展內容以視圖傳遞，不複製
+                    ByteBuffer extensionData = data.slice(buffer.position(), extensionLength);
+                    buffer.position(buffer.position() + extensionLength);
                     
                     // 根據 Extension Type 解析數據
                     switch (extensionType) {
@@ -381,12 +383,11 @@ public class TokenAnalysisService {
         return extensions;
     }
     
-    private Map<String, Object> parseTransferFeeExtension(byte[] data) {
+    private Map<String, Object> parseTransferFeeExtension(ByteBuffer data) {
         Map<String, Object> transferFee = new HashMap<>();
-        if (data.length >= 8) {
-            ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
-            int feeBasisPoints = buffer.getShort() & 0xFFFF;
-            long maxFee = buffer.getLong();
+        if (data.remaining() >= 8) {
+            int feeBasisPoints = data.getShort() & 0xFFFF;
+            long maxFee = data.getLong();
             
             transferFee.put("feeBasisPoints", feeBasisPoints);
             transferFee.put("maxFee", maxFee);
@@ -395,29 +396,26 @@ public class TokenAnalysisService {
         return transferFee;
     }
     
-    private Map<String, Object> parseTransferHookExtension(byte[] data) {
+    private Map<String, Object> parseTransferHookExtension(ByteBuffer data) {
         Map<String, Object> transferHook = new HashMap<>();
-        if (data.length >= 32) {
-            byte[] programId = Arrays.copyOf(data, 32);
-            transferHook.put("hookProgramId", Base64.getEncoder().encodeToString(programId));
+        if (data.remaining() >= 32) {
+            transferHook.put("hookProgramId", PubkeyInterner.global().intern(data));
         }
         return transferHook;
     }
     
-    private Map<String, Object> parseMetadataPointerExtension(byte[] data) {
+    private Map<String, Object> parseMetadataPointerExtension(ByteBuffer data) {
         Map<String, Object> metadataPointer = new HashMap<>();
-        if (data.length >= 32) {
-            byte[] metadataAddress = Arrays.copyOf(data, 32);
-            metadataPointer.put("metadataAddress", Base64.getEncoder().encodeToString(metadataAddress));
+        if (data.remaining() >= 32) {
+            metadataPointer.put("metadataAddress", PubkeyInterner.global().intern(data));
         }
         return metadataPointer;
     }
     
-    private Map<String, Object> parsePermanentDelegateExtension(byte[] data) {
+    private Map<String, Object> parsePermanentDelegateExtension(ByteBuffer data) {
         Map<String, Object> permanentDelegate = new HashMap<>();
-        if (data.length >= 32) {
-            byte[] delegateAddress = Arrays.copyOf(data, 32);
-            permanentDelegate.put("delegateAddress", Base64.getEncoder().encodeToString(delegateAddress));
+        if (data.remaining() >= 32) {
+            permanentDelegate.put("delegateAddress", PubkeyInterner.global().intern(data));
         }
         return permanentDelegate;
     }
@@ -0,0 +1,127 @@
+package com.example.java_solana_lp_option.service;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.util.Native;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * base64+zstd 帳戶資料解壓縮 - 從已解碼的壓縮位元組串流解壓到輸出緩衝區
+ */
+final class ZstdDecompressor {
+    
+    private static final boolean AVAILABLE = loadNative();
+    
+    private static final int MAGIC = 0xFD2FB528;
+    private static final int[] DICT_ID_SIZES = {0, 1, 2, 4};
+    
+    // 每個執行緒重複使用的搬移緩衝區
+    private static final ThreadLocal<byte[]> TRANSFER_BUFFER = ThreadLocal.withInitial(() -> new byte[32 * 1024]);
+    
+    private ZstdDecompressor() {
+    }
+    
+    /**
+     * zstd 原生函式庫是否可用；不可用時一律使用 base64
+     */
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+    
+    /**
+     * 將 compressed 的內容解壓縮寫入 out
+     */
+    static void decompress(AccountBytes compressed, OutputStream out) throws IOException {
+        byte[] transfer = TRANSFER_BUFFER.get();
+        try (InputStream in = new ZstdInputStream(new ByteBufferInputStream(compressed.buffer()))) {
+            int read;
+            while ((read = in.read(transfer, 0, transfer.length)) != -1) {
+                out.write(transfer, 0, read);
+            }
+        }
+    }
+    
+    /**
+     * 將 compressed 的內容解壓縮到 target，解壓後長度必須剛好等於 target.length
+     */
+    static void decompress(AccountBytes compressed, byte[] target) throws IOException {
+        try (InputStream in = new ZstdInputStream(new ByteBufferInputStream(compressed.buffer()))) {
+            int size = in.readNBytes(target, 0, target.length);
+            if (size != target.length || in.read() != -1) {
+                throw new IOException("zstd 解壓縮後長度與 frame 標頭不符: " + target.length);
+            }
+        }
+    }
+    
+    /**
+     * 讀取 zstd frame 標頭中的解壓後長度（RFC 8878 Frame_Content_Size），標頭未記錄時回傳 -1
+     */
+    static long frameContentSize(ByteBuffer frame) {
+        ByteBuffer header = frame.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int start = header.position();
+        if (header.remaining() < 5 || header.getInt(start) != MAGIC) {
+            return -1;
+        }
+        
+        int descriptor = header.get(start + 4) & 0xFF;
+        int sizeFlag = descriptor >>> 6;
+        boolean singleSegment = (descriptor & 0x20) != 0;
+        int offset = start + 5 + (singleSegment ? 0 : 1) + DICT_ID_SIZES[descriptor & 0x03];
+        int fieldSize = sizeFlag == 0 ? (singleSegment ? 1 : 0) : 1 << sizeFlag;
+        if (fieldSize == 0 || offset + fieldSize > header.limit()) {
+            return -1;
+        }
+        
+        switch (fieldSize) {
+            case 1: return header.get(offset) & 0xFF;
+            case 2: return (header.getShort(offset) & 0xFFFF) + 256;
+            case 4: return header.getInt(offset) & 0xFFFFFFFFL;
+            default: return header.getLong(offset);
+        }
+    }
+    
+    private static boolean loadNative() {
+        try {
+            Native.load();
+            return true;
+        } catch (Throwable e) {
+            System.err.printf("⚠️ 無法載入 zstd 原生函式庫，帳戶資料改用 base64: %s%n", e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 以 ByteBuffer（heap 或 direct）為來源的 InputStream
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer source;
+        
+        ByteBufferInputStream(ByteBuffer source) {
+            this.source = source;
+        }
+        
+        @Override
+        public int read() {
+            return source.hasRemaining() ? source.get() & 0xFF : -1;
+        }
+        
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!source.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, source.remaining());
+            source.get(target, offset, count);
+            return count;
+        }
+        
+        @Override
+        public int available() {
+            return source.remaining();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.java_solana_lp_option.util;
+
+import java.util.Arrays;
+
+/**
+ * Base58 編解碼（Bitcoin / Solana 字母表）- 以 32-bit limb 做進位轉換，每次除以 58^5 一次產生 5 個字元，
+ * 不使用 BigInteger；32 bytes 的 pubkey 只需約 9 輪、每輪 8 次 long 除法
+ */
+public final class Base58 {
+    
+    private static final char[] ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+    private static final int[] INDEXES = new int[128];
+    private static final long BASE_POW_5 = 58L * 58 * 58 * 58 * 58; // 656356768，小於 2^32
+    private static final long[] BASE_POWERS = { 1, 58, 58 * 58, 58 * 58 * 58, 58L * 58 * 58 * 58, BASE_POW_5 };
+    
+    /**
+     * Solana pubkey 長度
+     */
+    public static final int PUBKEY_LENGTH = 32;
+    
+    static {
+        Arrays.fill(INDEXES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            INDEXES[ALPHABET[i]] = i;
+        }
+    }
+    
+    private Base58() {
+    }
+    
+    public static String encode(byte[] input) {
+        return encode(input, 0, input.length);
+    }
+    
+    public static String encode(byte[] input, int offset, int length) {
+        int zeros = 0;
+        while (zeros < length && input[offset + zeros] == 0) {
+            zeros++;
+        }
+        
+        // 以大端序的 32-bit limb 表示整數，limbs[0] 為最高位
+        int limbCount = (length + 3) / 4;
+        int[] limbs = new int[limbCount];
+        for (int i = 0; i < length; i++) {
+            int fromEnd = length - 1 - i;
+            limbs[limbCount - 1 - fromEnd / 4] |= (input[offset + i] & 0xFF) << ((fromEnd % 4) * 8);
+        }
+        
+        // 每 256 進位 1 byte 約需 1.37 個 58 進位字元，另外預留 5 個字元給最後一輪的補零
+        char[] out = new char[length * 2 + 5];
+        int pos = out.length;
+        int start = 0;
+        while (start < limbCount && limbs[start] == 0) {
+            start++;
+        }
+        
+        while (start < limbCount) {
+            long remainder = 0;
+            for (int i = start; i < limbCount; i++) {
+                long current = (remainder << 32) | (limbs[i] & 0xFFFFFFFFL);
+                limbs[i] = (int) (current / BASE_POW_5);
+                remainder = current % BASE_POW_5;
+            }
+            while (start < limbCount && limbs[start] == 0) {
+                start++;
+            }
+            
+            for (int k = 0; k < 5; k++) {
+                out[--pos] = ALPHABET[(int) (remainder % 58)];
+                remainder /= 58;
+            }
+        }
+        
+        // 去掉最後一輪補出的前導 '1'，再依前導零位元組補回
+        while (pos < out.length && out[pos] == ALPHABET[0]) {
+            pos++;
+        }
+        for (int i = 0; i < zeros; i++) {
+            out[--pos] = ALPHABET[0];
+        }
+        return new String(out, pos, out.length - pos);
+    }
+    
+    /**
+     * 解碼 Base58 字串；含有字母表以外的字元時拋出 IllegalArgumentException
+     */
+    public static byte[] decode(CharSequence input) {
+        int length = input.length();
+        int zeros = 0;
+        while (zeros < length && input.charAt(zeros) == ALPHABET[0]) {
+            zeros++;
+        }
+        
+        // 每個 58 進位字元約 0.733 byte
+        int maxBytes = (int) ((length - zeros) * 733L / 1000) + 1;
+        int limbCount = (maxBytes + 3) / 4;
+        int[] limbs = new int[limbCount];
+        
+        // 每次讀入最多 5 個字元：limbs = limbs * 58^n + value
+        int i = zeros;
+        while (i < length) {
+            int chunk = Math.min(5, length - i);
+            long value = 0;
+            for (int k = 0; k < chunk; k++) {
+                value = value * 58 + digit(input.charAt(i + k));
+            }
+            i += chunk;
+            
+            long multiplier = BASE_POWERS[chunk];
+            long carry = value;
+            for (int j = limbCount - 1; j >= 0; j--) {
+                long current = (limbs[j] & 0xFFFFFFFFL) * multiplier + carry;
+                limbs[j] = (int) current;
+                carry = current >>> 32;
+            }
+        }
+        
+        int firstByte = 0;
+        int totalBytes = limbCount * 4;
+        while (firstByte < totalBytes && limbByte(limbs, firstByte) == 0) {
+            firstByte++;
+        }
+        
+        byte[] out = new byte[zeros + totalBytes - firstByte];
+        for (int b = firstByte; b < totalBytes; b++) {
+            out[zeros + b - firstByte] = limbByte(limbs, b);
+        }
+        return out;
+    }
+    
+    /**
+     * 解碼 32 bytes 的 pubkey；長度不符時拋出 IllegalArgumentException
+     */
+    public static byte[] decodePubkey(CharSequence input) {
+        // 32 bytes 的 Base58 長度為 32 到 44 個字元
+        if (input.length() < PUBKEY_LENGTH || input.length() > 44) {
+            throw new IllegalArgumentException("無效的 pubkey 長度: " + input.length());
+        }
+        byte[] bytes = decode(input);
+        if (bytes.length != PUBKEY_LENGTH) {
+            throw new IllegalArgumentException("無效的 pubkey: 解碼後為 " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+    
+    /**
+     * 是否為合法的 32 bytes pubkey 字串
+     */
+    public static boolean isPubkey(CharSequence input) {
+        try {
+            decodePubkey(input);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    private static int digit(char c) {
+        int digit = c < 128 ? INDEXES[c] : -1;
+        if (digit < 0) {
+            throw new IllegalArgumentException("無效的 Base58 字元: '" + c + "'");
+        }
+        return digit;
+    }
+    
+    private static byte limbByte(int[] limbs, int index) {
+        return (byte) (limbs[index / 4] >>> ((3 - index % 4) * 8));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.java_solana_lp_option.util;
+
+/**
+ * CLMM 手續費與獎勵成長值的換算 - 與 Raydium CLMM 的 get_fee_growth_inside / get_reward_growths_inside 相同，
+ * 成長值皆為 Q64.64 的累計量，減法在 mod 2^128 下環繞（wrapping_sub）
+ */
+public final class FeeGrowthMath {
+    
+    private FeeGrowthMath() {
+    }
+    
+    /**
+     * 區間內成長值 = global - below - above，寫入 out 並回傳：
+     * below 在當前 tick >= tickLower 時為下界 tick 的 outside，否則為 global - outside；above 在當前 tick < tickUpper 時為上界的 outside，否則為 global - outside；
+     * out 不可與其他參數為同一實例
+     */
+    public static U128 growthInside(int tickCurrent, U128 global,
+                                    int tickLower, U128 outsideLower,
+                                    int tickUpper, U128 outsideUpper, U128 out) {
+        out.set(global);
+        if (tickCurrent >= tickLower) {
+            out.sub(outsideLower);
+        } else {
+            out.sub(global).add(outsideLower);
+        }
+        if (tickCurrent < tickUpper) {
+            out.sub(outsideUpper);
+        } else {
+            out.sub(global).add(outsideUpper);
+        }
+        return out;
+    }
+    
+    /**
+     * 上次結算後新增的應得數量 = (growthInside - growthInsideLast) * liquidity / 2^64（向下取整），寫入 out 並回傳
+     */
+    public static U128 accrued(U128 growthInside, U128 growthInsideLast, U128 liquidity, U128 out) {
+        return out.set(growthInside).sub(growthInsideLast).mulQ64(liquidity);
+    }
+    
+    /**
+     * 把池子的獎勵累計值推進到 now（秒）：global += (min(now, endTime) - lastUpdateTime) * emissionsPerSecondX64 / liquidity，
+     * 與 Raydium update_reward_infos 相同；池子流動性為 0 或尚未開始時不變
+     */
+    public static U128 projectRewardGrowthGlobal(U128 global, long now, long openTime, long endTime, long lastUpdateTime,
+                                                 U128 emissionsPerSecondX64, U128 poolLiquidity, U128 scratch) {
+        if (now <= openTime || poolLiquidity.isZero()) {
+            return global;
+        }
+        long timeDelta = Math.min(now, endTime) - lastUpdateTime;
+        if (timeDelta <= 0) {
+            return global;
+        }
+        return global.add(scratch.setUnsigned(timeDelta).mulDiv(emissionsPerSecondX64, poolLiquidity));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.java_solana_lp_option.util;
+
+/**
+ * CLMM 流動性與代幣數量的換算 - 與 Raydium CLMM liquidity_math 的 get_delta_amount_0/1（向下取整）相同，
+ * 移除全部流動性時可取回的代幣數量
+ *
+ * 實例持有暫存的 {@link U128}，同一個實例可反覆計算大量 Position 而不配置物件；非執行緒安全
+ */
+public final class LiquidityMath {
+    
+    private final U128 sqrtPriceLower = new U128();
+    private final U128 sqrtPriceUpper = new U128();
+    private final U128 diff = new U128();
+    private final U128 amount0 = new U128();
+    private final U128 amount1 = new U128();
+    
+    /**
+     * 計算 [tickLower, tickUpper) 區間內 liquidity 對應的代幣數量，結果由 amount0() / amount1() 取得：
+     * 當前 tick 低於區間時全部為代幣 0，高於（或等於 tickUpper）時全部為代幣 1，區間內則以當前價格拆分
+     */
+    public LiquidityMath amountsForLiquidity(int tickCurrent, U128 sqrtPriceCurrent, int tickLower, int tickUpper, U128 liquidity) {
+        if (tickLower >= tickUpper) {
+            throw new IllegalArgumentException("tick 區間不合法: " + tickLower + " 到 " + tickUpper);
+        }
+        TickMath.getSqrtPriceAtTick(tickLower, sqrtPriceLower);
+        TickMath.getSqrtPriceAtTick(tickUpper, sqrtPriceUpper);
+        
+        if (tickCurrent < tickLower) {
+            amount0Delta(sqrtPriceLower, sqrtPriceUpper, liquidity, amount0);
+            amount1.set(0, 0);
+        } else if (tickCurrent < tickUpper) {
+            amount0Delta(sqrtPriceCurrent, sqrtPriceUpper, liquidity, amount0);
+            amount1Delta(sqrtPriceLower, sqrtPriceCurrent, liquidity, amount1);
+        } else {
+            amount0.set(0, 0);
+            amount1Delta(sqrtPriceLower, sqrtPriceUpper, liquidity, amount1);
+        }
+        return this;
+    }
+    
+    public U128 amount0() { return amount0; }
+    public U128 amount1() { return amount1; }
+    
+    /**
+     * 代幣 0 數量：floor(floor((L << 64) * (sqrtB - sqrtA) / sqrtB) / sqrtA)，寫入 out 並回傳
+     *
+     * L 超過 64 位元時 L << 64 超出 256 位元中間值的範圍，改為先除以 sqrtB 再放大，誤差在 2^64 / sqrtA 個最小單位內
+     */
+    public U128 amount0Delta(U128 sqrtA, U128 sqrtB, U128 liquidity, U128 out) {
+        if (sqrtA.compareTo(sqrtB) > 0) {
+            U128 swap = sqrtA;
+            sqrtA = sqrtB;
+            sqrtB = swap;
+        }
+        if (sqrtA.isZero()) {
+            throw new ArithmeticException("sqrt_price_x64 為 0");
+        }
+        diff.set(sqrtB).sub(sqrtA);
+        
+        if (liquidity.hi() == 0) {
+            return out.set(liquidity.lo(), 0).mulDiv(diff, sqrtB).div(sqrtA);
+        }
+        return out.set(liquidity).mulDiv(diff, sqrtB).divQ64(sqrtA);
+    }
+    
+    /**
+     * 代幣 1 數量：floor(L * (sqrtB - sqrtA) / 2^64)，寫入 out 並回傳
+     */
+    public U128 amount1Delta(U128 sqrtA, U128 sqrtB, U128 liquidity, U128 out) {
+        if (sqrtA.compareTo(sqrtB) > 0) {
+            U128 swap = sqrtA;
+            sqrtA = sqrtB;
+            sqrtB = swap;
+        }
+        diff.set(sqrtB).sub(sqrtA);
+        return out.set(liquidity).mulQ64(diff);
+    }
+}
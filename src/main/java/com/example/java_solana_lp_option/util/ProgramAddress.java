@@ -0,0 +1,91 @@
+package com.example.java_solana_lp_option.util;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Program Derived Address - 與 Solana find_program_address 相同：
+ * sha256(seeds || bump || program_id || "ProgramDerivedAddress")，bump 由 255 往下找第一個不在 ed25519 曲線上的結果
+ *
+ * 曲線判斷以 BigInteger 做模冪運算，每個地址約數百微秒；需要大量重複推導時由呼叫端快取結果
+ */
+public final class ProgramAddress {
+    
+    public static final int MAX_SEED_LENGTH = 32;
+    
+    private static final byte[] PDA_MARKER = "ProgramDerivedAddress".getBytes(StandardCharsets.US_ASCII);
+    
+    // ed25519：p = 2^255 - 19，d = -121665 / 121666 mod p
+    private static final BigInteger P = BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19));
+    private static final BigInteger D = BigInteger.valueOf(-121665)
+        .multiply(BigInteger.valueOf(121666).modInverse(P)).mod(P);
+    private static final BigInteger LEGENDRE_EXPONENT = P.subtract(BigInteger.ONE).shiftRight(1);
+    
+    private ProgramAddress() {
+    }
+    
+    /**
+     * 由 seeds 推導 PDA；255 個 bump 都落在曲線上時拋出 IllegalStateException（實務上不會發生）
+     */
+    public static Pubkey find(Pubkey programId, byte[]... seeds) {
+        for (int bump = 255; bump >= 0; bump--) {
+            Pubkey address = create(programId, bump, seeds);
+            if (address != null) {
+                return address;
+            }
+        }
+        throw new IllegalStateException("找不到有效的 program address");
+    }
+    
+    /**
+     * 以指定 bump 推導地址；結果落在曲線上（不是合法 PDA）時回傳 null
+     */
+    public static Pubkey create(Pubkey programId, int bump, byte[]... seeds) {
+        MessageDigest sha256 = sha256();
+        for (byte[] seed : seeds) {
+            if (seed.length > MAX_SEED_LENGTH) {
+                throw new IllegalArgumentException("seed 長度超過 32 bytes: " + seed.length);
+            }
+            sha256.update(seed);
+        }
+        sha256.update((byte) bump);
+        sha256.update(programId.toBytes());
+        sha256.update(PDA_MARKER);
+        byte[] hash = sha256.digest();
+        return isOnCurve(hash) ? null : Pubkey.fromBytes(hash, 0);
+    }
+    
+    /**
+     * 32 bytes 是否為 ed25519 曲線上的點（壓縮格式：y 座標 little-endian，最高位元為 x 的正負號）：
+     * x^2 = (y^2 - 1) / (d * y^2 + 1) 在 mod p 下有平方根即為曲線上的點
+     */
+    public static boolean isOnCurve(byte[] point) {
+        byte[] bigEndian = new byte[32];
+        for (int i = 0; i < 32; i++) {
+            bigEndian[i] = point[31 - i];
+        }
+        bigEndian[0] &= 0x7f;
+        
+        BigInteger y = new BigInteger(1, bigEndian).mod(P);
+        BigInteger y2 = y.multiply(y).mod(P);
+        BigInteger u = y2.subtract(BigInteger.ONE).mod(P);
+        BigInteger v = D.multiply(y2).add(BigInteger.ONE).mod(P);
+        if (u.signum() == 0) {
+            return true;
+        }
+        
+        // 歐拉判別法：u / v 為平方剩餘 <=> u * v 為平方剩餘
+        BigInteger legendre = u.multiply(v).mod(P).modPow(LEGENDRE_EXPONENT, P);
+        return legendre.equals(BigInteger.ONE);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
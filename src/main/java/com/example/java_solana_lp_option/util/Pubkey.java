@@ -0,0 +1,156 @@
+package com.example.java_solana_lp_option.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Solana 公鑰 - 以 4 個大端序 long 保存 32 bytes，作為快取與 Map 的鍵
+ *
+ * 每個實例約 48 bytes（44 字元的 Base58 String 約 100 bytes 以上），
+ * equals 只比較 4 個 long，hashCode 不需走訪字元；Base58 字串經由 {@link PubkeyInterner} 取得，同一個 key 只編碼一次
+ */
+public final class Pubkey implements Comparable<Pubkey> {
+    
+    public static final int LENGTH = Base58.PUBKEY_LENGTH;
+    
+    private static final VarHandle LONG_BIG_ENDIAN =
+        MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    
+    private final long w0;
+    private final long w1;
+    private final long w2;
+    private final long w3;
+    
+    private Pubkey(long w0, long w1, long w2, long w3) {
+        this.w0 = w0;
+        this.w1 = w1;
+        this.w2 = w2;
+        this.w3 = w3;
+    }
+    
+    /**
+     * 由 Base58 字串取得公鑰；不是合法的 32 bytes pubkey 時拋出 IllegalArgumentException
+     */
+    public static Pubkey of(String base58) {
+        return PubkeyInterner.global().pubkey(base58);
+    }
+    
+    /**
+     * 由 Base58 字串取得公鑰；不合法時回傳 null
+     */
+    public static Pubkey tryOf(String base58) {
+        if (base58 == null) {
+            return null;
+        }
+        try {
+            return of(base58);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * 讀取 bytes[offset, offset + 32)
+     */
+    public static Pubkey fromBytes(byte[] bytes, int offset) {
+        return new Pubkey(
+            (long) LONG_BIG_ENDIAN.get(bytes, offset),
+            (long) LONG_BIG_ENDIAN.get(bytes, offset + 8),
+            (long) LONG_BIG_ENDIAN.get(bytes, offset + 16),
+            (long) LONG_BIG_ENDIAN.get(bytes, offset + 24));
+    }
+    
+    /**
+     * 讀取 buffer 中絕對位置 offset 的 32 bytes，不改變 position，不受 buffer 的位元組順序影響
+     */
+    public static Pubkey read(ByteBuffer buffer, int offset) {
+        boolean little = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+        return new Pubkey(
+            word(buffer, offset, little),
+            word(buffer, offset + 8, little),
+            word(buffer, offset + 16, little),
+            word(buffer, offset + 24, little));
+    }
+    
+    /**
+     * 從 buffer 目前位置讀取 32 bytes 並前進 32 bytes
+     */
+    public static Pubkey read(ByteBuffer buffer) {
+        int offset = buffer.position();
+        Pubkey pubkey = read(buffer, offset);
+        buffer.position(offset + LENGTH);
+        return pubkey;
+    }
+    
+    public byte[] toBytes() {
+        byte[] bytes = new byte[LENGTH];
+        writeTo(bytes, 0);
+        return bytes;
+    }
+    
+    public void writeTo(byte[] bytes, int offset) {
+        LONG_BIG_ENDIAN.set(bytes, offset, w0);
+        LONG_BIG_ENDIAN.set(bytes, offset + 8, w1);
+        LONG_BIG_ENDIAN.set(bytes, offset + 16, w2);
+        LONG_BIG_ENDIAN.set(bytes, offset + 24, w3);
+    }
+    
+    public String toBase58() {
+        return PubkeyInterner.global().intern(this);
+    }
+    
+    /**
+     * 是否與 Base58 字串代表同一個公鑰；字串不合法時為 false
+     */
+    public boolean matches(String base58) {
+        return equals(tryOf(base58));
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Pubkey)) {
+            return false;
+        }
+        Pubkey pubkey = (Pubkey) other;
+        return w0 == pubkey.w0 && w1 == pubkey.w1 && w2 == pubkey.w2 && w3 == pubkey.w3;
+    }
+    
+    @Override
+    public int hashCode() {
+        // 公鑰本身已是均勻分佈的位元組，混合前後兩段即可
+        return Long.hashCode(w0 ^ w3);
+    }
+    
+    /**
+     * 以無號位元組順序比較，與 Base58 字串的數值大小一致
+     */
+    @Override
+    public int compareTo(Pubkey other) {
+        int c = Long.compareUnsigned(w0, other.w0);
+        if (c == 0) {
+            c = Long.compareUnsigned(w1, other.w1);
+        }
+        if (c == 0) {
+            c = Long.compareUnsigned(w2, other.w2);
+        }
+        if (c == 0) {
+            c = Long.compareUnsigned(w3, other.w3);
+        }
+        return c;
+    }
+    
+    @Override
+    public String toString() {
+        return toBase58();
+    }
+    
+    private static long word(ByteBuffer buffer, int offset, boolean little) {
+        long value = buffer.getLong(offset);
+        return little ? Long.reverseBytes(value) : value;
+    }
+}
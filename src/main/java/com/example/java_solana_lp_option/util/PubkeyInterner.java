@@ -0,0 +1,122 @@
+package com.example.java_solana_lp_option.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pubkey 字串池 - 同一個 pubkey 不論來自 Base58 字串或帳戶資料中的 32 bytes，都對應到同一個 String 實例
+ *
+ * 從位元組查詢時以 {@link Pubkey} 的 4 個 long 比對，已見過的 key 不必再做 Base58 編碼；
+ * 作為 Map 鍵時 hashCode 只計算一次，equals 在同一實例時直接成立，不必逐字元比較 44 個字元
+ */
+public final class PubkeyInterner {
+    
+    private static final PubkeyInterner GLOBAL = new PubkeyInterner(1 << 16);
+    
+    private final int maxSize;
+    private final ConcurrentHashMap<Pubkey, String> byKey = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Pubkey> byBase58 = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    /**
+     * @param maxSize 池中最多保留的 key 數，超過時整批清空重新累積
+     */
+    public PubkeyInterner(int maxSize) {
+        this.maxSize = maxSize;
+    }
+    
+    /**
+     * 全域共用的池
+     */
+    public static PubkeyInterner global() {
+        return GLOBAL;
+    }
+    
+    /**
+     * 取得 Base58 字串的標準實例；不是合法 32 bytes pubkey 的字串原樣回傳，不進入池
+     */
+    public String intern(String base58) {
+        if (base58 == null) {
+            return null;
+        }
+        Pubkey key;
+        try {
+            key = pubkey(base58);
+        } catch (IllegalArgumentException e) {
+            return base58;
+        }
+        String canonical = byKey.get(key);
+        return canonical != null ? canonical : base58;
+    }
+    
+    /**
+     * 解析 Base58 字串為 Pubkey，已見過的字串不必重新解碼；不合法時拋出 IllegalArgumentException
+     */
+    public Pubkey pubkey(String base58) {
+        if (base58 == null) {
+            throw new IllegalArgumentException("pubkey 不可為 null");
+        }
+        Pubkey key = byBase58.get(base58);
+        if (key != null) {
+            hits.incrementAndGet();
+            return key;
+        }
+        misses.incrementAndGet();
+        key = Pubkey.fromBytes(Base58.decodePubkey(base58), 0);
+        register(key, base58);
+        return key;
+    }
+    
+    /**
+     * 取得公鑰的 Base58 標準實例
+     */
+    public String intern(Pubkey key) {
+        String canonical = byKey.get(key);
+        if (canonical != null) {
+            hits.incrementAndGet();
+            return canonical;
+        }
+        misses.incrementAndGet();
+        return register(key, Base58.encode(key.toBytes()));
+    }
+    
+    /**
+     * 取得 bytes[offset, offset + 32) 這個 pubkey 的 Base58 標準實例
+     */
+    public String intern(byte[] bytes, int offset) {
+        return intern(Pubkey.fromBytes(bytes, offset));
+    }
+    
+    /**
+     * 從 buffer 目前位置讀取 32 bytes 的 pubkey 並前進 32 bytes，不受 buffer 的位元組順序影響
+     */
+    public String intern(ByteBuffer buffer) {
+        return intern(Pubkey.read(buffer));
+    }
+    
+    /**
+     * 讀取 buffer 中絕對位置 offset 的 32 bytes pubkey，不改變 position
+     */
+    public String intern(ByteBuffer buffer, int offset) {
+        return intern(Pubkey.read(buffer, offset));
+    }
+    
+    public int size() { return byKey.size(); }
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    
+    private String register(Pubkey key, String base58) {
+        if (byKey.size() >= maxSize) {
+            byKey.clear();
+            byBase58.clear();
+        }
+        
+        // 並行登錄同一個 key 時以先放入者為準
+        String existing = byKey.putIfAbsent(key, base58);
+        String canonical = existing != null ? existing : base58;
+        byBase58.putIfAbsent(canonical, key);
+        return canonical;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.java_solana_lp_option.util;
+
+/**
+ * CLMM tick 與價格的換算 - 與 Raydium CLMM 的 tick_math 相同的 Q64.64 位元分解演算法，結果與鏈上一致
+ *
+ * 精確路徑：getSqrtPriceAtTick / getTickAtSqrtPrice 以 {@link U128} 運算，不經過浮點數；
+ * 快速路徑：priceAtTick 以兩層查表（tick 高位 x 低 10 位元）各取一個預先算好的價格相乘，取代 Math.pow(1.0001, tick)，
+ * fillPrices 以同樣的方式批次填入 double[]，適合繪製流動性曲線或掃描大量區間
+ */
+public final class TickMath {
+    
+    public static final int MIN_TICK = -443636;
+    public static final int MAX_TICK = 443636;
+    
+    /** sqrt(1.0001^MIN_TICK) * 2^64 */
+    public static final long MIN_SQRT_PRICE_X64 = 4295048016L;
+    /** sqrt(1.0001^MAX_TICK) * 2^64 = 79226673521066979257578248091 */
+    public static final long MAX_SQRT_PRICE_X64_HI = 4294886577L;
+    public static final long MAX_SQRT_PRICE_X64_LO = -8909216648378361957L;
+    
+    // 2^64 / sqrt(1.0001)^(2^i)，i = 0..18
+    private static final long[] RATIOS = {
+        0xfffcb933bd6fb800L, 0xfff97272373d4000L, 0xfff2e50f5f657000L, 0xffe5caca7e10f000L,
+        0xffcb9843d60f7000L, 0xff973b41fa98e800L, 0xff2ea16466c9b000L, 0xfe5dee046a9a3800L,
+        0xfcbe86c7900bb000L, 0xf987a7253ac65800L, 0xf3392b0822bb6000L, 0xe7159475a2caf000L,
+        0xd097f3bdfd2f2000L, 0xa9f746462d9f8000L, 0x70d869a156f31c00L, 0x31be135f97ed3200L,
+        0x09aa508b5b85a500L, 0x005d6af8dedc582cL, 0x00002216e584f5faL,
+    };
+    
+    private static final double LOG_SQRT_BASE = Math.log(1.0001) / 2;
+    
+    // 兩層價格表：price(tick) = COARSE[(tick - MIN_TICK) >> 10] * FINE[(tick - MIN_TICK) & 1023]
+    private static final int FINE_BITS = 10;
+    private static final int FINE_SIZE = 1 << FINE_BITS;
+    private static final double[] FINE = new double[FINE_SIZE];
+    private static final double[] COARSE = new double[((MAX_TICK - MIN_TICK) >> FINE_BITS) + 1];
+    
+    // 10^n，n = -36..36，換算代幣小數位數差
+    private static final int MAX_DECIMALS = 36;
+    private static final double[] DECIMAL_FACTORS = new double[MAX_DECIMALS * 2 + 1];
+    
+    static {
+        // 表格只在載入時計算一次；Math.pow 誤差在 1 ulp 內，比 Q64.64 在極端 tick 的精度更好
+        for (int i = 0; i < FINE_SIZE; i++) {
+            FINE[i] = Math.pow(1.0001, i);
+        }
+        for (int i = 0; i < COARSE.length; i++) {
+            COARSE[i] = Math.pow(1.0001, MIN_TICK + (i << FINE_BITS));
+        }
+        for (int n = -MAX_DECIMALS; n <= MAX_DECIMALS; n++) {
+            DECIMAL_FACTORS[n + MAX_DECIMALS] = Double.parseDouble("1e" + n);
+        }
+    }
+    
+    private TickMath() {
+    }
+    
+    /**
+     * sqrt(1.0001^tick) 的 Q64.64 定點數，寫入 out 並回傳
+     */
+    public static U128 getSqrtPriceAtTick(int tick, U128 out) {
+        int absTick = Math.abs(tick);
+        if (absTick > MAX_TICK) {
+            throw new IllegalArgumentException("tick 超出範圍: " + tick);
+        }
+        
+        if ((absTick & 1) != 0) {
+            out.set(0, RATIOS[0]);
+        } else {
+            out.set(1, 0);
+        }
+        for (int i = 1; i < RATIOS.length; i++) {
+            if ((absTick & (1 << i)) != 0) {
+                out.mulQ64(0, RATIOS[i]);
+            }
+        }
+        
+        // 以上求得 1 / sqrt(1.0001^|tick|)，正的 tick 取倒數
+        if (tick > 0) {
+            long hi = out.hi();
+            long lo = out.lo();
+            out.set(-1L, -1L).div(hi, lo);
+        }
+        return out;
+    }
+    
+    public static U128 getSqrtPriceAtTick(int tick) {
+        return getSqrtPriceAtTick(tick, new U128());
+    }
+    
+    /**
+     * 滿足 getSqrtPriceAtTick(tick) <= sqrtPriceX64 的最大 tick
+     */
+    public static int getTickAtSqrtPrice(U128 sqrtPriceX64) {
+        if (U128.compare(sqrtPriceX64.hi(), sqrtPriceX64.lo(), 0, MIN_SQRT_PRICE_X64) < 0
+                || U128.compare(sqrtPriceX64.hi(), sqrtPriceX64.lo(), MAX_SQRT_PRICE_X64_HI, MAX_SQRT_PRICE_X64_LO) >= 0) {
+            throw new IllegalArgumentException("sqrt_price_x64 超出範圍: " + sqrtPriceX64);
+        }
+        
+        // 先以浮點數估計，誤差遠小於 1 個 tick，再以精確值修正
+        int tick = (int) Math.floor(Math.log(sqrtPriceX64.q64ToDouble()) / LOG_SQRT_BASE);
+        tick = Math.max(MIN_TICK, Math.min(MAX_TICK - 1, tick));
+        
+        U128 candidate = new U128();
+        while (tick > MIN_TICK && getSqrtPriceAtTick(tick, candidate).compareTo(sqrtPriceX64) > 0) {
+            tick--;
+        }
+        while (tick < MAX_TICK - 1 && getSqrtPriceAtTick(tick + 1, candidate).compareTo(sqrtPriceX64) <= 0) {
+            tick++;
+        }
+        return tick;
+    }
+    
+    /**
+     * 1.0001^tick（未調整小數位數）
+     */
+    public static double priceAtTick(int tick) {
+        if (tick < MIN_TICK || tick > MAX_TICK) {
+            throw new IllegalArgumentException("tick 超出範圍: " + tick);
+        }
+        int index = tick - MIN_TICK;
+        return COARSE[index >> FINE_BITS] * FINE[index & (FINE_SIZE - 1)];
+    }
+    
+    /**
+     * 以代幣 B 計價的代幣 A 價格：1.0001^tick * 10^(decimalsA - decimalsB)
+     */
+    public static double priceAtTick(int tick, int decimalsA, int decimalsB) {
+        return priceAtTick(tick) * decimalFactor(decimalsA - decimalsB);
+    }
+    
+    /**
+     * 依 sqrt_price_x64 計算以代幣 B 計價的代幣 A 價格
+     */
+    public static double priceFromSqrtPriceX64(U128 sqrtPriceX64, int decimalsA, int decimalsB) {
+        return square(sqrtPriceX64.q64ToDouble()) * decimalFactor(decimalsA - decimalsB);
+    }
+    
+    /**
+     * 批次計算 tick = fromTick + i * tickStep（i = 0..out.length-1）的價格，填入 out
+     */
+    public static double[] fillPrices(int fromTick, int tickStep, int decimalsA, int decimalsB, double[] out) {
+        long lastTick = fromTick + (long) tickStep * (out.length - 1);
+        if (out.length > 0 && (fromTick < MIN_TICK || fromTick > MAX_TICK || lastTick < MIN_TICK || lastTick > MAX_TICK)) {
+            throw new IllegalArgumentException("tick 範圍超出界限: " + fromTick + " 到 " + lastTick);
+        }
+        
+        double factor = decimalFactor(decimalsA - decimalsB);
+        int index = fromTick - MIN_TICK;
+        for (int i = 0; i < out.length; i++, index += tickStep) {
+            out[i] = COARSE[index >> FINE_BITS] * FINE[index & (FINE_SIZE - 1)] * factor;
+        }
+        return out;
+    }
+    
+    /**
+     * 不大於 tick 的最近一個 tickSpacing 倍數（可初始化的 tick）
+     */
+    public static int floorToSpacing(int tick, int tickSpacing) {
+        return Math.floorDiv(tick, tickSpacing) * tickSpacing;
+    }
+    
+    /**
+     * 10^exponent
+     */
+    public static double decimalFactor(int exponent) {
+        if (exponent < -MAX_DECIMALS || exponent > MAX_DECIMALS) {
+            return Math.pow(10, exponent);
+        }
+        return DECIMAL_FACTORS[exponent + MAX_DECIMALS];
+    }
+    
+    private static double square(double value) {
+        return value * value;
+    }
+}
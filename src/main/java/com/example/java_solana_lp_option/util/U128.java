@@ -0,0 +1,419 @@
+package com.example.java_solana_lp_option.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 可變的 128 位元無號整數 - 以高位、低位兩個 long 表示，供 CLMM 的 u128 欄位（liquidity、fee growth、sqrt_price_x64）運算
+ *
+ * 所有運算都直接修改此實例並回傳自己，可在迴圈中重複使用同一個累加器，不產生垃圾；
+ * add / sub / mul 依 2^128 取模（與鏈上 wrapping 運算一致），mulDiv 以 256 位元中間值計算，結果超過 128 位元時拋出 ArithmeticException
+ *
+ * Q64.64 定點數（例如 sqrt_price_x64、fee_growth_x64）即為此型別的原始值除以 2^64
+ */
+public final class U128 implements Comparable<U128> {
+    
+    private static final double TWO_POW_64 = 0x1p64;
+    
+    private long hi;
+    private long lo;
+    
+    public U128() {
+    }
+    
+    /**
+     * @param hi 高 64 位元
+     * @param lo 低 64 位元
+     */
+    public U128(long hi, long lo) {
+        this.hi = hi;
+        this.lo = lo;
+    }
+    
+    public static U128 of(long hi, long lo) {
+        return new U128(hi, lo);
+    }
+    
+    /**
+     * 將 long 視為無號的 u64
+     */
+    public static U128 ofUnsigned(long value) {
+        return new U128(0, value);
+    }
+    
+    /**
+     * 讀取 little-endian 的 u128（低位在前），不改變 position
+     */
+    public U128 read(ByteBuffer buffer, int offset) {
+        long low = buffer.getLong(offset);
+        long high = buffer.getLong(offset + 8);
+        if (buffer.order() == ByteOrder.BIG_ENDIAN) {
+            low = Long.reverseBytes(low);
+            high = Long.reverseBytes(high);
+        }
+        return set(high, low);
+    }
+    
+    public long hi() { return hi; }
+    public long lo() { return lo; }
+    
+    public U128 set(long hi, long lo) {
+        this.hi = hi;
+        this.lo = lo;
+        return this;
+    }
+    
+    public U128 set(U128 other) {
+        return set(other.hi, other.lo);
+    }
+    
+    public U128 setUnsigned(long value) {
+        return set(0, value);
+    }
+    
+    public U128 copy() {
+        return new U128(hi, lo);
+    }
+    
+    public boolean isZero() {
+        return (hi | lo) == 0;
+    }
+    
+    /**
+     * 值是否小於 2^64（可用 lo() 取得完整數值）
+     */
+    public boolean fitsInLong() {
+        return hi == 0;
+    }
+    
+    // ---- 加減乘（mod 2^128） ----
+    
+    public U128 add(U128 other) {
+        return add(other.hi, other.lo);
+    }
+    
+    public U128 add(long otherHi, long otherLo) {
+        long sum = lo + otherLo;
+        long carry = Long.compareUnsigned(sum, lo) < 0 ? 1 : 0;
+        hi = hi + otherHi + carry;
+        lo = sum;
+        return this;
+    }
+    
+    public U128 addUnsigned(long value) {
+        return add(0, value);
+    }
+    
+    public U128 sub(U128 other) {
+        return sub(other.hi, other.lo);
+    }
+    
+    public U128 sub(long otherHi, long otherLo) {
+        long borrow = Long.compareUnsigned(lo, otherLo) < 0 ? 1 : 0;
+        lo = lo - otherLo;
+        hi = hi - otherHi - borrow;
+        return this;
+    }
+    
+    public U128 mul(U128 other) {
+        return mul(other.hi, other.lo);
+    }
+    
+    public U128 mul(long otherHi, long otherLo) {
+        long high = unsignedMultiplyHigh(lo, otherLo) + lo * otherHi + hi * otherLo;
+        lo = lo * otherLo;
+        hi = high;
+        return this;
+    }
+    
+    public U128 mulUnsigned(long value) {
+        return mul(0, value);
+    }
+    
+    // ---- 位移 ----
+    
+    public U128 shiftLeft(int bits) {
+        if (bits >= 128) {
+            return set(0, 0);
+        }
+        if (bits >= 64) {
+            return set(lo << (bits - 64), 0);
+        }
+        if (bits > 0) {
+            set((hi << bits) | (lo >>> (64 - bits)), lo << bits);
+        }
+        return this;
+    }
+    
+    public U128 shiftRight(int bits) {
+        if (bits >= 128) {
+            return set(0, 0);
+        }
+        if (bits >= 64) {
+            return set(0, hi >>> (bits - 64));
+        }
+        if (bits > 0) {
+            set(hi >>> bits, (lo >>> bits) | (hi << (64 - bits)));
+        }
+        return this;
+    }
+    
+    // ---- 除法與 256 位元中間值 ----
+    
+    /**
+     * this = this / divisor（無號，向下取整）
+     */
+    public U128 div(U128 divisor) {
+        return div(divisor.hi, divisor.lo);
+    }
+    
+    public U128 div(long divisorHi, long divisorLo) {
+        return mulDiv(0, 1, divisorHi, divisorLo, false);
+    }
+    
+    public U128 divUnsigned(long divisor) {
+        if (hi == 0) {
+            return set(0, Long.divideUnsigned(lo, divisor));
+        }
+        return mulDiv(0, 1, 0, divisor, false);
+    }
+    
+    /**
+     * this = this * multiplier / denominator，中間乘積保留 256 位元
+     */
+    public U128 mulDiv(U128 multiplier, U128 denominator) {
+        return mulDiv(multiplier.hi, multiplier.lo, denominator.hi, denominator.lo, false);
+    }
+    
+    /**
+     * 同 mulDiv，有餘數時無條件進位
+     */
+    public U128 mulDivRoundingUp(U128 multiplier, U128 denominator) {
+        return mulDiv(multiplier.hi, multiplier.lo, denominator.hi, denominator.lo, true);
+    }
+    
+    /**
+     * this = (this * other) >> 64，即兩個 Q64.64 定點數相乘，中間乘積保留 256 位元
+     */
+    public U128 mulQ64(U128 other) {
+        return mulQ64(other.hi, other.lo);
+    }
+    
+    public U128 mulQ64(long otherHi, long otherLo) {
+        // 256 位元乘積的 r1、r2 兩個字即為右移 64 位元後的結果，r3 不為 0 表示溢位
+        long a0 = lo, a1 = hi, b0 = otherLo, b1 = otherHi;
+        long h00 = unsignedMultiplyHigh(a0, b0);
+        long l01 = a0 * b1, h01 = unsignedMultiplyHigh(a0, b1);
+        long l10 = a1 * b0, h10 = unsignedMultiplyHigh(a1, b0);
+        long l11 = a1 * b1, h11 = unsignedMultiplyHigh(a1, b1);
+        
+        long r1 = h00 + l01;
+        long c = Long.compareUnsigned(r1, h00) < 0 ? 1 : 0;
+        long r1b = r1 + l10;
+        c += Long.compareUnsigned(r1b, r1) < 0 ? 1 : 0;
+        
+        long r2 = h01 + h10;
+        long c2 = Long.compareUnsigned(r2, h01) < 0 ? 1 : 0;
+        long r2b = r2 + l11;
+        c2 += Long.compareUnsigned(r2b, r2) < 0 ? 1 : 0;
+        long r2c = r2b + c;
+        c2 += Long.compareUnsigned(r2c, r2b) < 0 ? 1 : 0;
+        
+        if (h11 + c2 != 0) {
+            throw new ArithmeticException("u128 Q64.64 乘法溢位");
+        }
+        return set(r2c, r1b);
+    }
+    
+    /**
+     * this = (this << 64) / divisor，即兩個 Q64.64 定點數相除
+     */
+    public U128 divQ64(U128 divisor) {
+        return mulDiv(1, 0, divisor.hi, divisor.lo, false);
+    }
+    
+    private U128 mulDiv(long mHi, long mLo, long dHi, long dLo, boolean roundUp) {
+        if ((dHi | dLo) == 0) {
+            throw new ArithmeticException("u128 除以 0");
+        }
+        
+        // 256 位元乘積 r3:r2:r1:r0
+        long a0 = lo, a1 = hi;
+        long l00 = a0 * mLo, h00 = unsignedMultiplyHigh(a0, mLo);
+        long l01 = a0 * mHi, h01 = unsignedMultiplyHigh(a0, mHi);
+        long l10 = a1 * mLo, h10 = unsignedMultiplyHigh(a1, mLo);
+        long l11 = a1 * mHi, h11 = unsignedMultiplyHigh(a1, mHi);
+        
+        long r0 = l00;
+        long r1 = h00 + l01;
+        long c1 = Long.compareUnsigned(r1, h00) < 0 ? 1 : 0;
+        long t = r1 + l10;
+        c1 += Long.compareUnsigned(t, r1) < 0 ? 1 : 0;
+        r1 = t;
+        
+        long r2 = h01 + h10;
+        long c2 = Long.compareUnsigned(r2, h01) < 0 ? 1 : 0;
+        t = r2 + l11;
+        c2 += Long.compareUnsigned(t, r2) < 0 ? 1 : 0;
+        r2 = t;
+        t = r2 + c1;
+        c2 += Long.compareUnsigned(t, r2) < 0 ? 1 : 0;
+        r2 = t;
+        
+        long r3 = h11 + c2;
+        
+        // 被除數與除數皆在 128 位元內時直接以 long 運算
+        if ((r3 | r2 | r1 | dHi) == 0) {
+            long q = Long.divideUnsigned(r0, dLo);
+            if (roundUp && q * dLo != r0) {
+                q++;
+            }
+            return set(0, q);
+        }
+        
+        // 逐位元的長除法：餘數最多 129 位元（remTop 為第 129 位）
+        long remHi = 0, remLo = 0;
+        long qHi = 0, qLo = 0;
+        int start = r3 != 0 ? 255 - Long.numberOfLeadingZeros(r3)
+            : r2 != 0 ? 191 - Long.numberOfLeadingZeros(r2)
+            : r1 != 0 ? 127 - Long.numberOfLeadingZeros(r1)
+            : 63 - Long.numberOfLeadingZeros(r0);
+        for (int bit = start; bit >= 0; bit--) {
+            long word = bit >= 192 ? r3 : bit >= 128 ? r2 : bit >= 64 ? r1 : r0;
+            long remTop = remHi >>> 63;
+            remHi = (remHi << 1) | (remLo >>> 63);
+            remLo = (remLo << 1) | ((word >>> (bit & 63)) & 1);
+            
+            boolean fits = remTop != 0
+                || Long.compareUnsigned(remHi, dHi) > 0
+                || (remHi == dHi && Long.compareUnsigned(remLo, dLo) >= 0);
+            if (fits) {
+                long borrow = Long.compareUnsigned(remLo, dLo) < 0 ? 1 : 0;
+                remLo -= dLo;
+                remHi = remHi - dHi - borrow;
+                if (bit >= 128) {
+                    throw new ArithmeticException("u128 mulDiv 結果溢位");
+                }
+                if (bit >= 64) {
+                    qHi |= 1L << (bit - 64);
+                } else {
+                    qLo |= 1L << bit;
+                }
+            }
+        }
+        
+        if (roundUp && (remHi | remLo) != 0) {
+            qLo++;
+            if (qLo == 0) {
+                qHi++;
+                if (qHi == 0) {
+                    throw new ArithmeticException("u128 mulDiv 結果溢位");
+                }
+            }
+        }
+        return set(qHi, qLo);
+    }
+    
+    // ---- 比較與轉換 ----
+    
+    @Override
+    public int compareTo(U128 other) {
+        return compare(hi, lo, other.hi, other.lo);
+    }
+    
+    /**
+     * 無號比較兩個以 (高位, 低位) 表示的 u128
+     */
+    public static int compare(long aHi, long aLo, long bHi, long bLo) {
+        int c = Long.compareUnsigned(aHi, bHi);
+        return c != 0 ? c : Long.compareUnsigned(aLo, bLo);
+    }
+    
+    /**
+     * 最接近的 double（正確捨入）
+     */
+    public double doubleValue() {
+        if (hi == 0) {
+            return unsignedToDouble(lo);
+        }
+        // 取最高的 64 位元，被捨去的位元併入最低位（sticky bit）以維持正確捨入
+        int shift = 64 - Long.numberOfLeadingZeros(hi);
+        long top = shift == 64 ? hi : (hi << (64 - shift)) | (lo >>> shift);
+        long dropped = shift == 64 ? lo : lo << (64 - shift);
+        return Math.scalb(unsignedToDouble(top | (dropped != 0 ? 1 : 0)), shift);
+    }
+    
+    /**
+     * 視為 Q64.64 定點數時的數值
+     */
+    public double q64ToDouble() {
+        return Math.scalb(doubleValue(), -64);
+    }
+    
+    /**
+     * 由非負的 double 設定 Q64.64 定點數（精度受 double 的 53 位元尾數限制）
+     */
+    public U128 setQ64(double value) {
+        if (!(value >= 0) || value >= TWO_POW_64) {
+            throw new ArithmeticException("超出 Q64.64 範圍: " + value);
+        }
+        double integer = Math.floor(value);
+        return set(doubleToUnsigned(integer), doubleToUnsigned((value - integer) * TWO_POW_64));
+    }
+    
+    /**
+     * 十進位字串（僅供顯示與輸出，會配置暫存物件）
+     */
+    @Override
+    public String toString() {
+        if (hi == 0) {
+            return Long.toUnsignedString(lo);
+        }
+        // 以 10^19 為單位拆成兩段或三段
+        final long chunk = -8446744073709551616L; // 10^19 的無號表示
+        U128 quotient = copy().divUnsigned(chunk);
+        U128 remainder = quotient.copy().mulUnsigned(chunk);
+        long low = lo - remainder.lo;
+        String tail = String.format("%19s", Long.toUnsignedString(low)).replace(' ', '0');
+        return quotient + tail;
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof U128)) {
+            return false;
+        }
+        U128 value = (U128) other;
+        return hi == value.hi && lo == value.lo;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hi * 31 + lo);
+    }
+    
+    /**
+     * 無號 64 x 64 位元乘積的高 64 位元（Math.unsignedMultiplyHigh 在 Java 18 才提供）
+     */
+    static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+    
+    static double unsignedToDouble(long value) {
+        if (value >= 0) {
+            return value;
+        }
+        // 保留最低位避免捨入偏差
+        return (double) ((value >>> 1) | (value & 1)) * 2.0;
+    }
+    
+    private static long doubleToUnsigned(double value) {
+        if (value < 0x1p63) {
+            return (long) value;
+        }
+        return (long) (value - 0x1p63) ^ Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.java_solana_lp_option.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 主機許可：非同步與阻塞取得共用同一個上限，釋放時依排隊順序轉交
+ */
+class HostPermitsTest {
+
+	@Test
+	void asyncWaitersAreServedInOrder() throws Exception {
+		HostPermits permits = new HostPermits(1);
+		assertTrue(permits.acquireAsync().isDone());
+
+		CompletableFuture<Void> second = permits.acquireAsync();
+		CompletableFuture<Void> third = permits.acquireAsync();
+		assertFalse(second.isDone());
+		assertEquals(2, permits.getQueued());
+
+		permits.release();
+		second.get(5, TimeUnit.SECONDS);
+		assertFalse(third.isDone());
+
+		permits.release();
+		third.get(5, TimeUnit.SECONDS);
+		permits.release();
+		assertEquals(1, permits.getAvailable());
+		assertEquals(0, permits.getQueued());
+	}
+
+	@Test
+	void blockingAcquireSharesLimitWithAsyncCallers() throws Exception {
+		HostPermits permits = new HostPermits(1);
+		permits.acquireAsync().join();
+
+		AtomicBoolean acquired = new AtomicBoolean();
+		Thread blocking = new Thread(() -> {
+			try {
+				permits.acquire();
+				acquired.set(true);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		blocking.start();
+		Thread.sleep(100);
+		assertFalse(acquired.get());
+
+		permits.release();
+		blocking.join(5000);
+		assertTrue(acquired.get());
+		assertEquals(0, permits.getAvailable());
+	}
+
+	@Test
+	void interruptedAcquireWithdrawsFromQueue() throws Exception {
+		HostPermits permits = new HostPermits(1);
+		permits.acquireAsync().join();
+
+		Thread blocking = new Thread(() -> {
+			try {
+				permits.acquire();
+			} catch (InterruptedException e) {
+				// 預期中斷
+			}
+		});
+		blocking.start();
+		while (permits.getQueued() == 0) {
+			Thread.sleep(5);
+		}
+		blocking.interrupt();
+		blocking.join(5000);
+
+		assertEquals(0, permits.getQueued());
+		permits.release();
+		assertEquals(1, permits.getAvailable());
+	}
+
+}
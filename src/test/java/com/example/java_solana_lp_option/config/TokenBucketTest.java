@@ -0,0 +1,85 @@
+package com.example.java_solana_lp_option.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 令牌桶：以可控時鐘驗證補充、多個呼叫端累積的等待時間，以及暫停期間不補充令牌
+ */
+class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+
+	@Test
+	void deficitWaitGrowsWithEachCaller() {
+		TokenBucket bucket = new TokenBucket("test", 2, 2, now::get);
+
+		assertEquals(0L, bucket.reserve());
+		assertEquals(0L, bucket.reserve());
+		// 之後每個呼叫端排在前一個預約之後，每個令牌 0.5 秒
+		assertEquals(SECOND / 2, bucket.reserve());
+		assertEquals(SECOND, bucket.reserve());
+		assertEquals(SECOND * 3 / 2, bucket.reserve());
+		assertEquals(0.0, bucket.getAvailableTokens(), 1e-9);
+
+		now.addAndGet(SECOND * 3 / 2);
+		assertEquals(0.0, bucket.getAvailableTokens(), 1e-9);
+		assertEquals(SECOND / 2, bucket.reserve());
+	}
+
+	@Test
+	void refillIsCappedAtCapacity() {
+		TokenBucket bucket = new TokenBucket("test", 2, 2, now::get);
+		bucket.reserve();
+		bucket.reserve();
+
+		now.addAndGet(SECOND / 4);
+		assertEquals(0.5, bucket.getAvailableTokens(), 1e-9);
+		assertFalse(bucket.tryAcquire());
+
+		now.addAndGet(10 * SECOND);
+		assertEquals(2.0, bucket.getAvailableTokens(), 1e-9);
+		assertTrue(bucket.tryAcquire());
+		assertEquals(1.0, bucket.getAvailableTokens(), 1e-9);
+	}
+
+	@Test
+	void pauseMovesRefillIntoTheFuture() {
+		TokenBucket bucket = new TokenBucket("test", 2, 2, now::get);
+		bucket.pauseFor(1000);
+
+		// 暫停期間沒有可用令牌，預約者要等到暫停結束，之後再依速率排隊
+		assertEquals(0.0, bucket.getAvailableTokens(), 1e-9);
+		assertFalse(bucket.tryAcquire());
+		assertEquals(SECOND, bucket.reserve());
+		assertEquals(SECOND * 3 / 2, bucket.reserve());
+
+		now.addAndGet(SECOND / 2);
+		assertEquals(SECOND * 3 / 2, bucket.reserve());
+
+		// 較短的暫停不會縮短既有的暫停
+		bucket.pauseFor(100);
+		assertEquals(SECOND * 2, bucket.reserve());
+	}
+
+	@Test
+	void resumesRefillingAfterPause() {
+		TokenBucket bucket = new TokenBucket("test", 2, 2, now::get);
+		bucket.pauseFor(1000);
+
+		now.addAndGet(SECOND);
+		assertEquals(1.0, bucket.getAvailableTokens(), 1e-9);
+
+		now.addAndGet(SECOND / 2);
+		assertEquals(2.0, bucket.getAvailableTokens(), 1e-9);
+		assertEquals(0L, bucket.reserve());
+	}
+}
@@ -0,0 +1,65 @@
+package com.example.java_solana_lp_option.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retry-After 解析（秒數與 HTTP 日期）以及限流時暫停對應上游的令牌桶
+ */
+class UpstreamRateLimiterTest {
+
+	private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-18T08:00:00Z"), ZoneOffset.UTC);
+
+	@Test
+	void parsesRetryAfterSeconds() {
+		assertEquals(120_000L, UpstreamRateLimiter.parseRetryAfter("120", CLOCK));
+		assertEquals(1_500L, UpstreamRateLimiter.parseRetryAfter(" 1.5 ", CLOCK));
+		assertEquals(0L, UpstreamRateLimiter.parseRetryAfter("-3", CLOCK));
+	}
+
+	@Test
+	void parsesRetryAfterHttpDate() {
+		assertEquals(30_000L, UpstreamRateLimiter.parseRetryAfter("Sun, 18 Oct 2026 08:00:30 GMT", CLOCK));
+		// 已過去的時間不等待
+		assertEquals(0L, UpstreamRateLimiter.parseRetryAfter("Sun, 18 Oct 2026 07:59:00 GMT", CLOCK));
+	}
+
+	@Test
+	void unparseableRetryAfterReturnsMinusOne() {
+		assertEquals(-1L, UpstreamRateLimiter.parseRetryAfter(null, CLOCK));
+		assertEquals(-1L, UpstreamRateLimiter.parseRetryAfter("  ", CLOCK));
+		assertEquals(-1L, UpstreamRateLimiter.parseRetryAfter("soon", CLOCK));
+	}
+
+	@Test
+	void rateLimitPausesOnlyThatUpstream() {
+		UpstreamRateLimiter limiter = new UpstreamRateLimiter(new SolanaConfig(), new SimpleMeterRegistry());
+
+		limiter.onRateLimited(UpstreamRateLimiter.DERIBIT, "5");
+
+		assertEquals(0.0, limiter.getRemainingBudget(UpstreamRateLimiter.DERIBIT), 1e-9);
+		long waitNanos = limiter.bucket(UpstreamRateLimiter.DERIBIT).reserve();
+		assertTrue(waitNanos > TimeUnit.SECONDS.toNanos(4) && waitNanos <= TimeUnit.SECONDS.toNanos(5));
+		assertTrue(limiter.tryAcquire(UpstreamRateLimiter.TAIFEX));
+	}
+
+	@Test
+	void missingRetryAfterFallsBackToRetryDelay() {
+		SolanaConfig config = new SolanaConfig();
+		config.setRetryDelay(3000);
+		UpstreamRateLimiter limiter = new UpstreamRateLimiter(config, new SimpleMeterRegistry());
+
+		limiter.onRateLimited(UpstreamRateLimiter.SOLANA_RPC, null);
+
+		long waitNanos = limiter.bucket(UpstreamRateLimiter.SOLANA_RPC).reserve();
+		assertTrue(waitNanos > TimeUnit.SECONDS.toNanos(2) && waitNanos <= TimeUnit.SECONDS.toNanos(3));
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.java_solana_lp_option.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 對沖呼叫：先成功者勝出並取消落敗的請求，失敗的回應在另一個請求完成前不採用
+ */
+class HedgedCallTest {
+
+	private static final String FAILED = "503";
+
+	private final AtomicInteger hedgeWins = new AtomicInteger();
+
+	private HedgedCall<String> newCall() {
+		return new HedgedCall<>(FAILED::equals, hedgeWins::incrementAndGet);
+	}
+
+	@Test
+	void primaryWinsAndCancelsHedge() {
+		HedgedCall<String> call = newCall();
+		CompletableFuture<String> primary = new CompletableFuture<>();
+		CompletableFuture<String> hedge = new CompletableFuture<>();
+		call.add(primary, false);
+		call.add(hedge, true);
+
+		primary.complete("ok");
+		assertEquals("ok", call.result().join());
+		assertTrue(hedge.isCancelled());
+		assertEquals(0, hedgeWins.get());
+	}
+
+	@Test
+	void hedgeWinsAndCancelsPrimary() {
+		HedgedCall<String> call = newCall();
+		CompletableFuture<String> primary = new CompletableFuture<>();
+		CompletableFuture<String> hedge = new CompletableFuture<>();
+		call.add(primary, false);
+		call.add(hedge, true);
+
+		hedge.complete("hedged");
+		assertEquals("hedged", call.result().join());
+		assertTrue(primary.isCancelled());
+		assertEquals(1, hedgeWins.get());
+	}
+
+	@Test
+	void failedResponseWaitsForOtherAttempt() {
+		HedgedCall<String> call = newCall();
+		CompletableFuture<String> primary = new CompletableFuture<>();
+		CompletableFuture<String> hedge = new CompletableFuture<>();
+		call.add(primary, false);
+		call.add(hedge, true);
+
+		primary.complete(FAILED);
+		assertFalse(call.result().isDone());
+
+		hedge.complete("ok");
+		assertEquals("ok", call.result().join());
+		assertEquals(1, hedgeWins.get());
+	}
+
+	@Test
+	void lastFailureCompletesWhenAllFail() {
+		HedgedCall<String> call = newCall();
+		CompletableFuture<String> primary = new CompletableFuture<>();
+		CompletableFuture<String> hedge = new CompletableFuture<>();
+		call.add(primary, false);
+		call.add(hedge, true);
+
+		IllegalStateException error = new IllegalStateException("連線失敗");
+		hedge.completeExceptionally(error);
+		assertFalse(call.result().isDone());
+
+		primary.complete(FAILED);
+		assertEquals(FAILED, call.result().join());
+		assertEquals(0, hedgeWins.get());
+	}
+
+	@Test
+	void errorWithoutOtherAttemptFailsResult() {
+		HedgedCall<String> call = newCall();
+		CompletableFuture<String> primary = new CompletableFuture<>();
+		call.add(primary, false);
+
+		IllegalStateException error = new IllegalStateException("連線失敗");
+		primary.completeExceptionally(error);
+		Throwable thrown = assertThrows(Exception.class, () -> call.result().join());
+		assertSame(error, thrown.getCause());
+	}
+
+	@Test
+	void attemptAddedAfterResultIsCancelled() {
+		HedgedCall<String> call = newCall();
+		call.add(CompletableFuture.completedFuture("ok"), false);
+		assertEquals("ok", call.result().join());
+
+		CompletableFuture<String> late = new CompletableFuture<>();
+		call.add(late, true);
+		assertTrue(late.isCancelled());
+		assertEquals(0, hedgeWins.get());
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.example.java_solana_lp_option.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 熔斷器狀態轉換：CLOSED → OPEN → HALF_OPEN（單一試探）→ CLOSED / OPEN
+ */
+class RpcCircuitBreakerTest {
+
+	private static final long LONG_OPEN_MS = 60_000;
+
+	@Test
+	void opensAfterConsecutiveFailures() {
+		RpcCircuitBreaker breaker = new RpcCircuitBreaker(true, 3, LONG_OPEN_MS);
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess(); // 成功重設連續失敗次數
+		breaker.onFailure();
+		breaker.onFailure();
+		assertEquals(RpcCircuitBreaker.State.CLOSED, breaker.getState());
+
+		breaker.onFailure();
+		assertEquals(RpcCircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(1, breaker.getTripCount());
+		assertFalse(breaker.tryAcquire());
+		assertFalse(breaker.isAvailable());
+
+		// 熔斷前已送出的請求陸續失敗時不重複計算
+		breaker.onFailure();
+		assertEquals(1, breaker.getTripCount());
+	}
+
+	@Test
+	void lateSuccessDoesNotCloseOpenBreaker() {
+		RpcCircuitBreaker breaker = new RpcCircuitBreaker(true, 1, LONG_OPEN_MS);
+		breaker.onFailure();
+		assertEquals(RpcCircuitBreaker.State.OPEN, breaker.getState());
+
+		breaker.onSuccess();
+		assertEquals(RpcCircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+	}
+
+	@Test
+	void halfOpenAllowsSingleTrialThenCloses() {
+		RpcCircuitBreaker breaker = new RpcCircuitBreaker(true, 1, 0);
+		breaker.onFailure();
+		assertEquals(RpcCircuitBreaker.State.OPEN, breaker.getState());
+		assertTrue(breaker.isAvailable());
+
+		assertTrue(breaker.tryAcquire());
+		assertEquals(RpcCircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+		assertFalse(breaker.isAvailable());
+
+		breaker.onSuccess();
+		assertEquals(RpcCircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.tryAcquire());
+		assertTrue(breaker.tryAcquire());
+	}
+
+	@Test
+	void failedTrialReopens() {
+		RpcCircuitBreaker breaker = new RpcCircuitBreaker(true, 1, 0);
+		breaker.onFailure();
+		assertTrue(breaker.tryAcquire());
+		assertEquals(RpcCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+		breaker.onFailure();
+		assertEquals(RpcCircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(2, breaker.getTripCount());
+	}
+
+	@Test
+	void cancelledTrialReleasesSlot() {
+		RpcCircuitBreaker breaker = new RpcCircuitBreaker(true, 1, 0);
+		breaker.onFailure();
+		assertTrue(breaker.tryAcquire());
+		assertFalse(breaker.tryAcquire());
+
+		breaker.onCancel();
+		assertEquals(RpcCircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertTrue(breaker.tryAcquire());
+	}
+
+	@Test
+	void disabledBreakerAlwaysAllows() {
+		RpcCircuitBreaker breaker = new RpcCircuitBreaker(false, 1, LONG_OPEN_MS);
+		for (int i = 0; i < 10; i++) {
+			breaker.onFailure();
+		}
+		assertTrue(breaker.tryAcquire());
+		assertTrue(breaker.isAvailable());
+		assertEquals(0, breaker.getTripCount());
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.example.java_solana_lp_option.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 並行上限與排隊：大量同步完成的排隊工作不會讓轉交許可的呼叫堆疊加深
+ */
+class RpcConcurrencyLimiterTest {
+
+	@Test
+	void queuesBeyondLimitAndStartsInOrder() {
+		RpcConcurrencyLimiter limiter = new RpcConcurrencyLimiter(2);
+		List<CompletableFuture<Integer>> gates = new ArrayList<>();
+		List<Integer> started = new ArrayList<>();
+		List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+		for (int i = 0; i < 5; i++) {
+			int id = i;
+			CompletableFuture<Integer> gate = new CompletableFuture<>();
+			gates.add(gate);
+			results.add(limiter.submit(() -> {
+				started.add(id);
+				return gate;
+			}));
+		}
+		assertEquals(List.of(0, 1), started);
+		assertEquals(2, limiter.getInFlight());
+		assertEquals(3, limiter.getQueued());
+
+		gates.get(1).complete(1);
+		assertEquals(List.of(0, 1, 2), started);
+		assertEquals(1, (int) results.get(1).join());
+
+		gates.get(0).completeExceptionally(new IllegalStateException("失敗"));
+		assertTrue(results.get(0).isCompletedExceptionally());
+		assertEquals(List.of(0, 1, 2, 3), started);
+
+		gates.get(2).complete(2);
+		gates.get(3).complete(3);
+		gates.get(4).complete(4);
+		assertEquals(0, limiter.getInFlight());
+		assertEquals(0, limiter.getQueued());
+	}
+
+	@Test
+	void drainsLongQueueOfSynchronousTasksWithoutRecursion() {
+		RpcConcurrencyLimiter limiter = new RpcConcurrencyLimiter(1);
+		CompletableFuture<Integer> gate = new CompletableFuture<>();
+		limiter.submit(() -> gate);
+
+		// 排隊的工作全部同步完成（如熔斷時的 failedFuture），逐層遞迴時會 StackOverflowError
+		int queued = 200_000;
+		AtomicInteger completed = new AtomicInteger();
+		CompletableFuture<Integer> last = null;
+		for (int i = 0; i < queued; i++) {
+			int id = i;
+			last = limiter.submit(() -> id % 2 == 0
+				? CompletableFuture.completedFuture(id)
+				: CompletableFuture.failedFuture(new IllegalStateException("熔斷中")));
+			last.whenComplete((value, error) -> completed.incrementAndGet());
+		}
+		assertFalse(last.isDone());
+
+		gate.complete(0);
+		assertEquals(queued, completed.get());
+		assertEquals(0, limiter.getInFlight());
+		assertEquals(0, limiter.getQueued());
+	}
+
+	@Test
+	void submitFromCompletionCallbackStillStarts() {
+		RpcConcurrencyLimiter limiter = new RpcConcurrencyLimiter(1);
+		CompletableFuture<Integer> gate = new CompletableFuture<>();
+		CompletableFuture<Integer> first = limiter.submit(() -> gate);
+
+		CompletableFuture<Integer> chained = first.thenCompose(
+			value -> limiter.submit(() -> CompletableFuture.completedFuture(value + 1)));
+		gate.complete(1);
+		assertEquals(2, (int) chained.join());
+		assertEquals(0, limiter.getInFlight());
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JSON-RPC 請求編碼的每次配置量，不需要 JMH：以 ThreadMXBean.getThreadAllocatedBytes 量測暖機後連續編碼的配置總量，
+ * 除以次數即為每個請求配置的位元組數（對應 RpcRequestEncodingBenchmark 的 gc.alloc.rate.norm）
+ *
+ * 執行：以測試 classpath 執行 main()，可傳入次數（預設 200000）
+ */
+public class RpcRequestEncodingAllocation {
+
+	private static final String PUBKEY = "9WzDXwBbmkg8ZTbNMqUxvQRAyrZzDsGYdLVL9zYtAWWM";
+
+	private static long sink; // 避免編碼結果被最佳化掉
+
+	@FunctionalInterface
+	private interface Encoding {
+		void encode(long id) throws Exception;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+		ObjectMapper objectMapper = new ObjectMapper();
+		RpcRequestWriter requestWriter = new RpcRequestWriter(objectMapper);
+		Map<String, Object> config = new HashMap<>();
+		config.put("encoding", "base64");
+		config.put("commitment", "confirmed");
+
+		// 舊做法：合併鍵序列化一次參數，再以 HashMap 信封序列化整個請求
+		Encoding objectMapperEnvelope = id -> {
+			Object[] params = { PUBKEY, config };
+			sink += ("getAccountInfo:" + objectMapper.writeValueAsString(params)).length();
+
+			Map<String, Object> request = new HashMap<>();
+			request.put("jsonrpc", "2.0");
+			request.put("id", id);
+			request.put("method", "getAccountInfo");
+			request.put("params", Arrays.asList(params));
+			sink += objectMapper.writeValueAsBytes(request).length;
+		};
+		Encoding writer = id -> {
+			RpcRequestWriter.EncodedRequest request = requestWriter.encode(id, "getAccountInfo", PUBKEY, config);
+			sink += request.coalesceKey().length() + request.body().length;
+		};
+
+		report("objectMapperEnvelope", objectMapperEnvelope, iterations);
+		report("requestWriter", writer, iterations);
+	}
+
+	private static void report(String name, Encoding encoding, int iterations) throws Exception {
+		// 暖機讓 JIT 完成編譯與逃逸分析，量測結果才接近穩定狀態
+		for (int i = 0; i < iterations; i++) {
+			encoding.encode(i);
+		}
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < iterations; i++) {
+			encoding.encode(i);
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+		System.out.printf("%-22s %8.1f B/op (%d 次, sink %d)%n", name, (double) allocated / iterations, iterations, sink);
+	}
+
+}
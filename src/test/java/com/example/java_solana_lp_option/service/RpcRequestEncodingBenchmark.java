@@ -0,0 +1,83 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON-RPC 請求編碼的配置量比較：舊的 HashMap 信封 + ObjectMapper 與 RpcRequestWriter
+ *
+ * 執行：以測試 classpath 執行 main()，看 gc.alloc.rate.norm（每個請求配置的位元組數）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RpcRequestEncodingBenchmark {
+
+	private static final String PUBKEY = "9WzDXwBbmkg8ZTbNMqUxvQRAyrZzDsGYdLVL9zYtAWWM";
+
+	private ObjectMapper objectMapper;
+	private RpcRequestWriter requestWriter;
+	private Map<String, Object> config;
+	private long id;
+
+	@Setup
+	public void setup() {
+		objectMapper = new ObjectMapper();
+		requestWriter = new RpcRequestWriter(objectMapper);
+		config = new HashMap<>();
+		config.put("encoding", "base64");
+		config.put("commitment", "confirmed");
+	}
+
+	/**
+	 * 舊做法：合併鍵序列化一次參數，再以 HashMap 信封序列化整個請求
+	 */
+	@Benchmark
+	public void objectMapperEnvelope(Blackhole blackhole) throws Exception {
+		Object[] params = { PUBKEY, config };
+		blackhole.consume("getAccountInfo:" + objectMapper.writeValueAsString(params));
+
+		Map<String, Object> request = new HashMap<>();
+		request.put("jsonrpc", "2.0");
+		request.put("id", id++);
+		request.put("method", "getAccountInfo");
+		request.put("params", Arrays.asList(params));
+		blackhole.consume(objectMapper.writeValueAsBytes(request));
+	}
+
+	@Benchmark
+	public void requestWriter(Blackhole blackhole) {
+		RpcRequestWriter.EncodedRequest request = requestWriter.encode(id++, "getAccountInfo", PUBKEY, config);
+		blackhole.consume(request.coalesceKey());
+		blackhole.consume(request.body());
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+			.include(RpcRequestEncodingBenchmark.class.getSimpleName())
+			.addProfiler(GCProfiler.class)
+			.build()).run();
+	}
+
+}
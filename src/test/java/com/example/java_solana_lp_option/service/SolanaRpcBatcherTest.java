@@ -0,0 +1,159 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批次請求器：依 id 分派亂序回應、缺少 id 與整批錯誤時個別失敗、超出批次上限的呼叫分批送出
+ */
+class SolanaRpcBatcherTest {
+
+	private static final long NO_AUTO_FLUSH = TimeUnit.MINUTES.toMillis(10);
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	void dispatchesOutOfOrderResponsesById() throws Exception {
+		StubSender sender = new StubSender(this::reversedResults);
+		SolanaRpcBatcher batcher = batcher(sender, 10, NO_AUTO_FLUSH);
+
+		List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			futures.add(batcher.submit("getSlot"));
+		}
+		batcher.flush();
+
+		assertEquals(1, sender.batches.size());
+		List<Long> ids = sender.batches.get(0);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(ids.get(i) * 10, futures.get(i).get(1, TimeUnit.SECONDS).asLong());
+		}
+		batcher.shutdown();
+	}
+
+	@Test
+	void failsOnlyCallsMissingFromResponse() throws Exception {
+		StubSender sender = new StubSender(request -> {
+			ArrayNode response = reversedResults(request);
+			response.remove(0);
+			return response;
+		});
+		SolanaRpcBatcher batcher = batcher(sender, 10, NO_AUTO_FLUSH);
+
+		CompletableFuture<JsonNode> first = batcher.submit("getSlot");
+		CompletableFuture<JsonNode> second = batcher.submit("getSlot");
+		CompletableFuture<JsonNode> missing = batcher.submit("getSlot");
+		batcher.flush();
+
+		List<Long> ids = sender.batches.get(0);
+		assertEquals(ids.get(0) * 10, first.get(1, TimeUnit.SECONDS).asLong());
+		assertEquals(ids.get(1) * 10, second.get(1, TimeUnit.SECONDS).asLong());
+		CompletionException error = assertThrows(CompletionException.class, missing::join);
+		assertTrue(error.getCause().getMessage().contains("缺少對應的 id"));
+		batcher.shutdown();
+	}
+
+	@Test
+	void failsWholeBatchOnNonArrayErrorResponse() throws Exception {
+		JsonNode errorResponse = mapper.readTree(
+			"{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32600,\"message\":\"batch requests are disabled\"},\"id\":null}");
+		SolanaRpcBatcher batcher = batcher(new StubSender(request -> errorResponse), 10, NO_AUTO_FLUSH);
+
+		CompletableFuture<JsonNode> first = batcher.submit("getSlot");
+		CompletableFuture<JsonNode> second = batcher.submit("getBalance", "11111111111111111111111111111111");
+		batcher.flush();
+
+		for (CompletableFuture<JsonNode> future : List.of(first, second)) {
+			CompletionException error = assertThrows(CompletionException.class, future::join);
+			assertTrue(error.getCause() instanceof SolanaRpcException);
+			assertEquals(-32600, (int) ((SolanaRpcException) error.getCause()).getCode());
+		}
+		batcher.shutdown();
+	}
+
+	@Test
+	void sendsCallsBeyondMaxBatchSizeInLaterBatches() throws Exception {
+		StubSender sender = new StubSender(this::reversedResults);
+		SolanaRpcBatcher batcher = batcher(sender, 2, 20);
+
+		List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			futures.add(batcher.submit("getSlot"));
+		}
+		for (CompletableFuture<JsonNode> future : futures) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+
+		// 兩個滿批立即送出，剩下的一個由排程的 flush 送出
+		List<Integer> sizes = new ArrayList<>();
+		synchronized (sender.batches) {
+			for (List<Long> batch : sender.batches) {
+				sizes.add(batch.size());
+			}
+		}
+		sizes.sort(null);
+		assertEquals(List.of(1, 2, 2), sizes);
+		assertEquals(0, batcher.getPendingCount());
+		batcher.shutdown();
+	}
+
+	private SolanaRpcBatcher batcher(StubSender sender, int maxBatchSize, long flushDelayMs) {
+		return new SolanaRpcBatcher(sender, new RpcRequestWriter(mapper), new AtomicLong(1), maxBatchSize, flushDelayMs);
+	}
+
+	/**
+	 * 依相反順序回傳每個請求的結果（id * 10）
+	 */
+	private ArrayNode reversedResults(JsonNode request) {
+		ArrayNode response = mapper.createArrayNode();
+		for (int i = request.size() - 1; i >= 0; i--) {
+			long id = request.get(i).get("id").asLong();
+			response.addObject().put("jsonrpc", "2.0").put("id", id).put("result", id * 10);
+		}
+		return response;
+	}
+
+	/**
+	 * 記錄每個批次的請求 id，並以指定函式產生節點回應
+	 */
+	private class StubSender implements SolanaRpcBatcher.BatchSender {
+
+		private final Function<JsonNode, JsonNode> responder;
+		private final List<List<Long>> batches = new ArrayList<>();
+
+		StubSender(Function<JsonNode, JsonNode> responder) {
+			this.responder = responder;
+		}
+
+		@Override
+		public CompletableFuture<JsonNode> send(byte[] body) {
+			try {
+				JsonNode request = mapper.readTree(body);
+				List<Long> ids = new ArrayList<>();
+				for (JsonNode call : request) {
+					ids.add(call.get("id").asLong());
+				}
+				synchronized (batches) {
+					batches.add(ids);
+				}
+				return CompletableFuture.completedFuture(responder.apply(request));
+			} catch (Exception e) {
+				return CompletableFuture.failedFuture(e);
+			}
+		}
+	}
+}
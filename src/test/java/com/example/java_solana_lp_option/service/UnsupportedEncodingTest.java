@@ -0,0 +1,45 @@
+package com.example.java_solana_lp_option.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 只有 -32602 且訊息指名 base64+zstd 的錯誤才會關閉 zstd
+ */
+class UnsupportedEncodingTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	void invalidParamsNamingZstdIsUnsupported() throws Exception {
+		SolanaRpcException error = rpcError(-32602, "Invalid params: unknown variant `base64+zstd`, expected one of `binary`, `base64`");
+
+		assertTrue(SolanaService.isUnsupportedEncoding(error));
+		assertTrue(SolanaService.isUnsupportedEncoding(new CompletionException(error)));
+	}
+
+	@Test
+	void otherEncodingErrorsDoNotDisableZstd() throws Exception {
+		assertFalse(SolanaService.isUnsupportedEncoding(
+			rpcError(-32600, "Encoded binary (base 58) data should be less than 128 bytes, please use Base64 encoding.")));
+		assertFalse(SolanaService.isUnsupportedEncoding(
+			rpcError(-32602, "Invalid params: jsonParsed encoding is not supported for this account")));
+		assertFalse(SolanaService.isUnsupportedEncoding(rpcError(-32005, "base64+zstd node is behind")));
+	}
+
+	@Test
+	void nonRpcErrorsAreNotUnsupportedEncoding() {
+		assertFalse(SolanaService.isUnsupportedEncoding(new RuntimeException("unknown variant base64+zstd")));
+		assertFalse(SolanaService.isUnsupportedEncoding(new RuntimeException((String) null)));
+	}
+
+	private SolanaRpcException rpcError(int code, String message) throws Exception {
+		return new SolanaRpcException("Solana RPC 錯誤: ",
+			mapper.readTree("{\"code\":" + code + ",\"message\":" + mapper.writeValueAsString(message) + "}"));
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.java_solana_lp_option.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * zstd frame 標頭的 Frame_Content_Size 解析（RFC 8878），快取路徑依此配置剛好等長的陣列
+ */
+class ZstdFrameHeaderTest {
+
+	@Test
+	void singleSegmentOneByteSize() {
+		// zstd 壓縮 "hello" 的實際輸出開頭
+		assertEquals(5L, contentSize(0x28, 0xB5, 0x2F, 0xFD, 0x24, 0x05, 0x29, 0x00, 0x00));
+	}
+
+	@Test
+	void twoByteSizeIsOffsetBy256() {
+		assertEquals(272L, contentSize(0x28, 0xB5, 0x2F, 0xFD, 0x60, 0x10, 0x00));
+	}
+
+	@Test
+	void skipsWindowDescriptorAndDictionaryId() {
+		// FCS 4 bytes、有 window descriptor、dictionary id 1 byte
+		assertEquals(10L * 1024 * 1024, contentSize(0x28, 0xB5, 0x2F, 0xFD, 0x81, 0x58, 0x07, 0x00, 0x00, 0xA0, 0x00));
+		// FCS 8 bytes、dictionary id 4 bytes
+		assertEquals(300L, contentSize(0x28, 0xB5, 0x2F, 0xFD, 0xC3, 0x58, 1, 2, 3, 4, 0x2C, 0x01, 0, 0, 0, 0, 0, 0));
+	}
+
+	@Test
+	void unknownSizeOrInvalidHeaderReturnsMinusOne() {
+		assertEquals(-1L, contentSize(0x28, 0xB5, 0x2F, 0xFD, 0x00, 0x58));
+		assertEquals(-1L, contentSize(0x00, 0xB5, 0x2F, 0xFD, 0x24, 0x05));
+		assertEquals(-1L, contentSize(0x28, 0xB5, 0x2F, 0xFD, 0x80, 0x58, 0x00));
+		assertEquals(-1L, contentSize(0x28, 0xB5));
+	}
+
+	@Test
+	void readsFromBufferPosition() {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes(0xFF, 0xFF, 0x28, 0xB5, 0x2F, 0xFD, 0x24, 0x07));
+		buffer.position(2);
+
+		assertEquals(7L, ZstdDecompressor.frameContentSize(buffer));
+		assertEquals(2, buffer.position());
+	}
+
+	private static long contentSize(int... header) {
+		return ZstdDecompressor.frameContentSize(ByteBuffer.wrap(bytes(header)));
+	}
+
+	private static byte[] bytes(int... values) {
+		byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,117 @@
+package com.example.java_solana_lp_option.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Base58 編解碼：Bitcoin 的標準向量與已知的 Solana pubkey
+ */
+class Base58Test {
+
+	private static final String[][] VECTORS = {
+		{ "", "" },
+		{ "61", "2g" },
+		{ "626262", "a3gV" },
+		{ "636363", "aPEr" },
+		{ "73696d706c792061206c6f6e6720737472696e67", "2cFupjhnEsSn59qHXstmK2ffpLv2" },
+		{ "00eb15231dfceb60925886b67d065299925915aeb172c06647", "1NS17iag9jJgTHD1VXjvLCEnZuQ3rJDE9L" },
+		{ "516b6fcd0f", "ABnLTmg" },
+		{ "bf4f89001e670274dd", "3SEo3LWLoPntC" },
+		{ "572e4794", "3EFU7m" },
+		{ "ecac89cad93923c02321", "EJDM8drfXA6uyA" },
+		{ "10c8511e", "Rt5zm" },
+		{ "00000000000000000000", "1111111111" },
+	};
+
+	private static final byte[] WRAPPED_SOL = bytes(
+		6, 155, 136, 87, 254, 171, 129, 132, 251, 104, 127, 99, 70, 24, 192, 53,
+		218, 196, 57, 220, 26, 235, 59, 85, 152, 160, 240, 0, 0, 0, 0, 1);
+
+	private static final byte[] TOKEN_PROGRAM = bytes(
+		6, 221, 246, 225, 215, 101, 161, 147, 217, 203, 225, 70, 206, 235, 121, 172,
+		28, 180, 133, 237, 95, 91, 55, 145, 58, 140, 245, 133, 126, 255, 0, 169);
+
+	@Test
+	void encodesAndDecodesStandardVectors() {
+		for (String[] vector : VECTORS) {
+			byte[] raw = HexFormat.of().parseHex(vector[0]);
+			assertEquals(vector[1], Base58.encode(raw), vector[0]);
+			assertArrayEquals(raw, Base58.decode(vector[1]), vector[1]);
+		}
+	}
+
+	@Test
+	void encodesSlice() {
+		byte[] padded = HexFormat.of().parseHex("ff626262ff");
+		assertEquals("a3gV", Base58.encode(padded, 1, 3));
+	}
+
+	@Test
+	void decodesKnownPubkeys() {
+		assertArrayEquals(WRAPPED_SOL, Base58.decodePubkey("So11111111111111111111111111111111111111112"));
+		assertArrayEquals(TOKEN_PROGRAM, Base58.decodePubkey("TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA"));
+		assertArrayEquals(new byte[32], Base58.decodePubkey("11111111111111111111111111111111"));
+
+		assertEquals("So11111111111111111111111111111111111111112", Base58.encode(WRAPPED_SOL));
+		assertEquals("TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA", Base58.encode(TOKEN_PROGRAM));
+		assertEquals("11111111111111111111111111111111", Base58.encode(new byte[32]));
+	}
+
+	@Test
+	void pubkeyRoundTrips() {
+		Pubkey pubkey = Pubkey.of("TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA");
+		assertArrayEquals(TOKEN_PROGRAM, pubkey.toBytes());
+		assertEquals("TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA", pubkey.toBase58());
+		assertEquals(pubkey, Pubkey.fromBytes(TOKEN_PROGRAM, 0));
+		assertNull(Pubkey.tryOf("not-a-pubkey"));
+		assertNull(Pubkey.tryOf(null));
+	}
+
+	@Test
+	void randomBytesRoundTrip() {
+		Random random = new Random(58);
+		for (int i = 0; i < 2000; i++) {
+			byte[] raw = new byte[random.nextInt(64)];
+			random.nextBytes(raw);
+			// 前導 0 會編碼成前導 '1'
+			for (int z = random.nextInt(4); z > 0 && z <= raw.length; z--) {
+				raw[z - 1] = 0;
+			}
+			assertArrayEquals(raw, Base58.decode(Base58.encode(raw)));
+		}
+	}
+
+	@Test
+	void rejectsInvalidInput() {
+		// 0、O、I、l 不在字母表中
+		assertThrows(IllegalArgumentException.class, () -> Base58.decode("0OIl"));
+		assertThrows(IllegalArgumentException.class, () -> Base58.decode("abcé"));
+
+		assertThrows(IllegalArgumentException.class, () -> Base58.decodePubkey("2g"));
+		assertThrows(IllegalArgumentException.class,
+			() -> Base58.decodePubkey("TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DAx"));
+		// 長度在 32 到 44 個字元之間，但解碼後不是 32 bytes
+		assertThrows(IllegalArgumentException.class, () -> Base58.decodePubkey("1111111111111111111111111111111111"));
+
+		assertTrue(Base58.isPubkey("So11111111111111111111111111111111111111112"));
+		assertFalse(Base58.isPubkey("So1111111111111111111111111111111111111111O"));
+	}
+
+	private static byte[] bytes(int... values) {
+		byte[] out = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			out[i] = (byte) values[i];
+		}
+		return out;
+	}
+
+}
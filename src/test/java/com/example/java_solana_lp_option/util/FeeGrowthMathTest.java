@@ -0,0 +1,115 @@
+package com.example.java_solana_lp_option.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 區間內成長值、應得數量與獎勵累計值的推進，以 BigInteger mod 2^128 為對照
+ */
+class FeeGrowthMathTest {
+
+	private static final BigInteger MOD = BigInteger.ONE.shiftLeft(128);
+	private static final BigInteger MASK_64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+	private static final int TICK_LOWER = -600;
+	private static final int TICK_UPPER = 600;
+
+	@Test
+	void growthInsideMatchesReferenceInAllRanges() {
+		Random random = new Random(17);
+		int[] currentTicks = { TICK_LOWER - 1, TICK_LOWER, 0, TICK_UPPER - 1, TICK_UPPER, TICK_UPPER + 1 };
+		for (int i = 0; i < 5000; i++) {
+			U128 global = random(random);
+			U128 outsideLower = random(random);
+			U128 outsideUpper = random(random);
+			for (int tickCurrent : currentTicks) {
+				BigInteger below = tickCurrent >= TICK_LOWER ? big(outsideLower) : big(global).subtract(big(outsideLower));
+				BigInteger above = tickCurrent < TICK_UPPER ? big(outsideUpper) : big(global).subtract(big(outsideUpper));
+				BigInteger expected = big(global).subtract(below).subtract(above).mod(MOD);
+
+				U128 actual = FeeGrowthMath.growthInside(tickCurrent, global,
+					TICK_LOWER, outsideLower, TICK_UPPER, outsideUpper, new U128());
+				assertEquals(expected, big(actual), "tick " + tickCurrent);
+			}
+		}
+	}
+
+	@Test
+	void growthInsideWrapsAroundZero() {
+		// 價格在區間內，但 outside 合計大於 global：結果在 mod 2^128 下環繞，差值仍正確
+		U128 global = U128.ofUnsigned(100);
+		U128 outsideLower = U128.ofUnsigned(70);
+		U128 outsideUpper = U128.ofUnsigned(50);
+		U128 inside = FeeGrowthMath.growthInside(0, global, TICK_LOWER, outsideLower, TICK_UPPER, outsideUpper, new U128());
+		assertEquals(U128.of(-1L, -20L), inside);
+
+		U128 later = FeeGrowthMath.growthInside(0, U128.ofUnsigned(130), TICK_LOWER, outsideLower, TICK_UPPER, outsideUpper, new U128());
+		assertEquals(U128.ofUnsigned(30), later.copy().sub(inside));
+	}
+
+	@Test
+	void accruedMatchesReference() {
+		Random random = new Random(23);
+		for (int i = 0; i < 5000; i++) {
+			U128 inside = random(random);
+			U128 insideLast = inside.copy().sub(U128.of(0, random.nextLong() >>> 1));
+			U128 liquidity = U128.ofUnsigned(random.nextLong() >>> 1);
+
+			BigInteger delta = big(inside).subtract(big(insideLast)).mod(MOD);
+			BigInteger expected = delta.multiply(big(liquidity)).shiftRight(64);
+			assertEquals(expected, big(FeeGrowthMath.accrued(inside, insideLast, liquidity, new U128())));
+		}
+	}
+
+	@Test
+	void accruedAcrossWraparound() {
+		// growthInsideLast 接近 2^128，growthInside 已環繞回小數值：差值為 3.0（Q64.64）
+		U128 insideLast = U128.of(-2L, 0);
+		U128 inside = U128.of(1, 0);
+		assertEquals(U128.ofUnsigned(3000), FeeGrowthMath.accrued(inside, insideLast, U128.ofUnsigned(1000), new U128()));
+	}
+
+	@Test
+	void projectsRewardGrowthUntilEndTime() {
+		U128 emissions = U128.of(5, 0); // 每秒 5.0
+		U128 liquidity = U128.ofUnsigned(10);
+
+		U128 global = FeeGrowthMath.projectRewardGrowthGlobal(U128.of(1, 0), 1_100, 1_000, 2_000, 1_050,
+			emissions, liquidity, new U128());
+		// 1.0 + 50 * 5.0 / 10 = 26.0
+		assertEquals(U128.of(26, 0), global);
+
+		// now 超過 endTime 時只計到 endTime：1.0 + 950 * 5.0 / 10 = 476.0
+		U128 clamped = FeeGrowthMath.projectRewardGrowthGlobal(U128.of(1, 0), 5_000, 1_000, 2_000, 1_050,
+			emissions, liquidity, new U128());
+		assertEquals(U128.of(476, 0), clamped);
+	}
+
+	@Test
+	void leavesGlobalUnchangedWhenNothingAccrues() {
+		U128 emissions = U128.of(5, 0);
+		U128 global = U128.of(1, 0);
+
+		assertSame(global, FeeGrowthMath.projectRewardGrowthGlobal(global, 1_000, 1_000, 2_000, 900,
+			emissions, U128.ofUnsigned(10), new U128()));
+		assertSame(global, FeeGrowthMath.projectRewardGrowthGlobal(global, 1_500, 1_000, 2_000, 1_200,
+			emissions, new U128(), new U128()));
+		assertSame(global, FeeGrowthMath.projectRewardGrowthGlobal(global, 2_500, 1_000, 2_000, 2_000,
+			emissions, U128.ofUnsigned(10), new U128()));
+		assertEquals(U128.of(1, 0), global);
+	}
+
+	private static U128 random(Random random) {
+		return U128.of(random.nextLong(), random.nextLong());
+	}
+
+	private static BigInteger big(U128 value) {
+		return BigInteger.valueOf(value.hi()).and(MASK_64).shiftLeft(64).or(BigInteger.valueOf(value.lo()).and(MASK_64));
+	}
+
+}
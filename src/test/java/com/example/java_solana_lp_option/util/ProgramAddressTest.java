@@ -0,0 +1,72 @@
+package com.example.java_solana_lp_option.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PDA 推導：向量取自 solana-program 的 test_create_program_address
+ */
+class ProgramAddressTest {
+
+	private static final Pubkey PROGRAM = Pubkey.of("BPFLoaderUpgradeab1e11111111111111111111111");
+
+	@Test
+	void matchesSolanaCreateProgramAddressVectors() {
+		assertEquals(Pubkey.of("BwqrghZA2htAcqq8dzP1WDAhTXYTYWj7CHxF5j7TDBAe"),
+			ProgramAddress.create(PROGRAM, 1, new byte[0]));
+		assertEquals(Pubkey.of("13yWmRpaTR4r5nAktwLqMpRNr28tnVUZw26rTvPSSB19"),
+			ProgramAddress.create(PROGRAM, 0, "☉".getBytes(StandardCharsets.UTF_8)));
+		assertEquals(Pubkey.of("976ymqVnfE32QFe6NfGDctSvVa36LWnvYxhU6G2232YL"),
+			ProgramAddress.create(PROGRAM, 1, Pubkey.of("SeedPubey1111111111111111111111111111111111").toBytes()));
+	}
+
+	@Test
+	void findReturnsFirstOffCurveBump() {
+		byte[] seed = "position".getBytes(StandardCharsets.US_ASCII);
+		byte[] mint = Pubkey.of("So11111111111111111111111111111111111111112").toBytes();
+
+		Pubkey found = ProgramAddress.find(PROGRAM, seed, mint);
+		Pubkey expected = null;
+		for (int bump = 255; bump >= 0 && expected == null; bump--) {
+			expected = ProgramAddress.create(PROGRAM, bump, seed, mint);
+		}
+		assertEquals(expected, found);
+		assertFalse(ProgramAddress.isOnCurve(found.toBytes()));
+	}
+
+	@Test
+	void createReturnsNullOnCurve() {
+		// 找一個落在曲線上的 bump，create 必須回傳 null
+		byte[] seed = "on-curve".getBytes(StandardCharsets.US_ASCII);
+		int onCurve = 0;
+		for (int bump = 255; bump >= 0; bump--) {
+			if (ProgramAddress.create(PROGRAM, bump, seed) == null) {
+				onCurve++;
+			}
+		}
+		// 約一半的雜湊值落在曲線上
+		assertTrue(onCurve > 64 && onCurve < 192, "落在曲線上的 bump 數: " + onCurve);
+	}
+
+	@Test
+	void realPublicKeysAreOnCurve() {
+		// 一般錢包地址是 ed25519 公鑰，必定在曲線上；PDA 則不在
+		assertTrue(ProgramAddress.isOnCurve(Pubkey.of("9WzDXwBbmkg8ZTbNMqUxvQRAyrZzDsGYdLVL9zYtAWWM").toBytes()));
+		assertFalse(ProgramAddress.isOnCurve(Pubkey.of("BwqrghZA2htAcqq8dzP1WDAhTXYTYWj7CHxF5j7TDBAe").toBytes()));
+	}
+
+	@Test
+	void rejectsSeedLongerThan32Bytes() {
+		assertThrows(IllegalArgumentException.class,
+			() -> ProgramAddress.create(PROGRAM, 255, new byte[ProgramAddress.MAX_SEED_LENGTH + 1]));
+		assertNotNull(ProgramAddress.find(PROGRAM, new byte[ProgramAddress.MAX_SEED_LENGTH]));
+	}
+
+}
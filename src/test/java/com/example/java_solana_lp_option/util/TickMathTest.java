@@ -0,0 +1,109 @@
+package com.example.java_solana_lp_option.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TickMath 的邊界常數與 tick / sqrt_price_x64 互轉，常數值與 Raydium CLMM tick_math 相同
+ */
+class TickMathTest {
+
+	@Test
+	void minSqrtPriceMatchesMinTick() {
+		assertEquals(U128.of(0, TickMath.MIN_SQRT_PRICE_X64), TickMath.getSqrtPriceAtTick(TickMath.MIN_TICK));
+	}
+
+	@Test
+	void maxSqrtPriceMatchesMaxTick() {
+		U128 max = U128.of(TickMath.MAX_SQRT_PRICE_X64_HI, TickMath.MAX_SQRT_PRICE_X64_LO);
+		assertEquals("79226673521066979257578248091", max.toString());
+		assertEquals(max, TickMath.getSqrtPriceAtTick(TickMath.MAX_TICK));
+	}
+
+	@Test
+	void tickZeroIsOne() {
+		assertEquals(U128.of(1, 0), TickMath.getSqrtPriceAtTick(0));
+		assertEquals(0, TickMath.getTickAtSqrtPrice(U128.of(1, 0)));
+	}
+
+	@Test
+	void tickRoundTrips() {
+		for (int tick = TickMath.MIN_TICK; tick < TickMath.MAX_TICK; tick += 997) {
+			assertRoundTrip(tick);
+		}
+		for (int tick = -2000; tick <= 2000; tick++) {
+			assertRoundTrip(tick);
+		}
+		assertRoundTrip(TickMath.MIN_TICK);
+		assertRoundTrip(TickMath.MIN_TICK + 1);
+		assertRoundTrip(TickMath.MAX_TICK - 1);
+	}
+
+	@Test
+	void sqrtPriceIsStrictlyIncreasing() {
+		U128 previous = TickMath.getSqrtPriceAtTick(TickMath.MIN_TICK);
+		U128 current = new U128();
+		for (int tick = TickMath.MIN_TICK + 1; tick <= TickMath.MAX_TICK; tick += 101) {
+			TickMath.getSqrtPriceAtTick(tick, current);
+			assertTrue(current.compareTo(previous) > 0, "tick " + tick);
+			previous.set(current);
+		}
+	}
+
+	@Test
+	void sqrtPriceMatchesPower() {
+		BigDecimal q64 = new BigDecimal(BigInteger.ONE.shiftLeft(64));
+		for (int tick = -100_000; tick <= 100_000; tick += 9973) {
+			double expected = Math.pow(1.0001, tick / 2.0);
+			double actual = new BigDecimal(TickMath.getSqrtPriceAtTick(tick).toString()).divide(q64).doubleValue();
+			// 定點常數的截斷誤差會隨位元數累積，相對誤差維持在 1e-10 以內
+			assertEquals(expected, actual, expected * 1e-10, "tick " + tick);
+		}
+	}
+
+	@Test
+	void outOfRangeThrows() {
+		assertThrows(IllegalArgumentException.class, () -> TickMath.getSqrtPriceAtTick(TickMath.MIN_TICK - 1));
+		assertThrows(IllegalArgumentException.class, () -> TickMath.getSqrtPriceAtTick(TickMath.MAX_TICK + 1));
+		assertThrows(IllegalArgumentException.class, () -> TickMath.priceAtTick(TickMath.MAX_TICK + 1));
+		assertThrows(IllegalArgumentException.class,
+			() -> TickMath.getTickAtSqrtPrice(U128.of(0, TickMath.MIN_SQRT_PRICE_X64 - 1)));
+		assertThrows(IllegalArgumentException.class,
+			() -> TickMath.getTickAtSqrtPrice(U128.of(TickMath.MAX_SQRT_PRICE_X64_HI, TickMath.MAX_SQRT_PRICE_X64_LO)));
+	}
+
+	@Test
+	void priceAtTickMatchesPower() {
+		for (int tick = TickMath.MIN_TICK; tick <= TickMath.MAX_TICK; tick += 4999) {
+			double expected = Math.pow(1.0001, tick);
+			assertEquals(expected, TickMath.priceAtTick(tick), expected * 1e-12, "tick " + tick);
+		}
+		// 10^(9 - 6) 的小數位數調整，例如 SOL(9) / USDC(6)
+		assertEquals(Math.pow(1.0001, -20000) * 1000, TickMath.priceAtTick(-20000, 9, 6), 1e-9);
+	}
+
+	@Test
+	void floorsToSpacingTowardNegativeInfinity() {
+		assertEquals(120, TickMath.floorToSpacing(179, 60));
+		assertEquals(-180, TickMath.floorToSpacing(-121, 60));
+		assertEquals(-120, TickMath.floorToSpacing(-120, 60));
+	}
+
+	/**
+	 * tick 的 sqrt price 換回同一個 tick，下一個 tick 的 sqrt price 減 1 仍屬於同一個 tick
+	 */
+	private static void assertRoundTrip(int tick) {
+		U128 sqrtPrice = TickMath.getSqrtPriceAtTick(tick);
+		assertEquals(tick, TickMath.getTickAtSqrtPrice(sqrtPrice), "tick " + tick);
+
+		U128 belowNext = TickMath.getSqrtPriceAtTick(tick + 1).sub(0, 1);
+		assertEquals(tick, TickMath.getTickAtSqrtPrice(belowNext), "tick " + tick + " 的上緣");
+	}
+
+}
@@ -0,0 +1,197 @@
+package com.example.java_solana_lp_option.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * U128 的運算以 BigInteger 為對照：環繞運算取 mod 2^128，256 位元中間值的運算結果超過 128 位元時必須拋出例外
+ */
+class U128Test {
+
+	private static final BigInteger MOD = BigInteger.ONE.shiftLeft(128);
+	private static final BigInteger MASK_64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+	private static final int ROUNDS = 20_000;
+
+	@Test
+	void wrappingArithmeticMatchesBigInteger() {
+		Random random = new Random(42);
+		for (int i = 0; i < ROUNDS; i++) {
+			U128 a = random(random);
+			U128 b = random(random);
+			BigInteger x = big(a);
+			BigInteger y = big(b);
+
+			assertEquals(x.add(y).mod(MOD), big(a.copy().add(b)));
+			assertEquals(x.subtract(y).mod(MOD), big(a.copy().sub(b)));
+			assertEquals(x.multiply(y).mod(MOD), big(a.copy().mul(b)));
+		}
+	}
+
+	@Test
+	void shiftsMatchBigInteger() {
+		Random random = new Random(7);
+		for (int i = 0; i < ROUNDS; i++) {
+			U128 a = random(random);
+			int bits = random.nextInt(128);
+			assertEquals(big(a).shiftLeft(bits).mod(MOD), big(a.copy().shiftLeft(bits)), "<< " + bits);
+			assertEquals(big(a).shiftRight(bits), big(a.copy().shiftRight(bits)), ">> " + bits);
+		}
+	}
+
+	@Test
+	void divisionMatchesBigInteger() {
+		Random random = new Random(11);
+		for (int i = 0; i < ROUNDS; i++) {
+			U128 a = random(random);
+			U128 b = random(random);
+			if (b.isZero()) {
+				continue;
+			}
+			assertEquals(big(a).divide(big(b)), big(a.copy().div(b)));
+
+			long divisor = random.nextLong() | 1;
+			assertEquals(big(a).divide(unsigned(divisor)), big(a.copy().divUnsigned(divisor)));
+		}
+	}
+
+	@Test
+	void mulDivMatchesBigInteger() {
+		Random random = new Random(1234);
+		int checked = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			U128 a = random(random);
+			U128 b = random(random);
+			U128 d = random(random);
+			if (d.isZero()) {
+				continue;
+			}
+			BigInteger product = big(a).multiply(big(b));
+			BigInteger[] quotient = product.divideAndRemainder(big(d));
+			BigInteger roundedUp = quotient[1].signum() == 0 ? quotient[0] : quotient[0].add(BigInteger.ONE);
+
+			if (quotient[0].bitLength() > 128) {
+				assertThrows(ArithmeticException.class, () -> a.copy().mulDiv(b, d));
+			} else {
+				assertEquals(quotient[0], big(a.copy().mulDiv(b, d)));
+				checked++;
+			}
+			if (roundedUp.bitLength() > 128) {
+				assertThrows(ArithmeticException.class, () -> a.copy().mulDivRoundingUp(b, d));
+			} else {
+				assertEquals(roundedUp, big(a.copy().mulDivRoundingUp(b, d)));
+			}
+		}
+		assertTrue(checked > ROUNDS / 10, "未溢位的案例太少: " + checked);
+	}
+
+	@Test
+	void mulQ64MatchesBigInteger() {
+		Random random = new Random(99);
+		int checked = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			U128 a = random(random);
+			U128 b = random(random);
+			BigInteger expected = big(a).multiply(big(b)).shiftRight(64);
+			if (expected.bitLength() > 128) {
+				assertThrows(ArithmeticException.class, () -> a.copy().mulQ64(b));
+			} else {
+				assertEquals(expected, big(a.copy().mulQ64(b)));
+				checked++;
+			}
+		}
+		assertTrue(checked > ROUNDS / 10, "未溢位的案例太少: " + checked);
+	}
+
+	@Test
+	void divQ64MatchesBigInteger() {
+		Random random = new Random(5);
+		for (int i = 0; i < ROUNDS; i++) {
+			U128 a = random(random);
+			U128 d = random(random);
+			if (d.isZero()) {
+				continue;
+			}
+			BigInteger expected = big(a).shiftLeft(64).divide(big(d));
+			if (expected.bitLength() > 128) {
+				assertThrows(ArithmeticException.class, () -> a.copy().divQ64(d));
+			} else {
+				assertEquals(expected, big(a.copy().divQ64(d)));
+			}
+		}
+	}
+
+	@Test
+	void overflowAndDivisionByZeroThrow() {
+		U128 max = U128.of(-1L, -1L);
+		assertThrows(ArithmeticException.class, () -> max.copy().mulDiv(U128.ofUnsigned(2), U128.ofUnsigned(1)));
+		assertThrows(ArithmeticException.class, () -> max.copy().mulQ64(U128.of(1, 1)));
+		assertThrows(ArithmeticException.class, () -> max.copy().mulDiv(max, new U128()));
+		assertThrows(ArithmeticException.class, () -> max.copy().div(new U128()));
+
+		// 中間乘積超過 128 位元但結果不溢位：(2^128 - 1) * (2^128 - 1) / (2^128 - 1)
+		assertEquals(max, max.copy().mulDiv(max, max));
+		// 1.0 * 1.0 = 1.0（Q64.64）
+		assertEquals(U128.of(1, 0), U128.of(1, 0).mulQ64(U128.of(1, 0)));
+	}
+
+	@Test
+	void readsLittleEndianAtOffset() {
+		ByteBuffer buffer = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putLong(8, 0x0123456789abcdefL);
+		buffer.putLong(16, 0xfedcba9876543210L);
+
+		U128 value = new U128().read(buffer, 8);
+		assertEquals(0x0123456789abcdefL, value.lo());
+		assertEquals(0xfedcba9876543210L, value.hi());
+	}
+
+	@Test
+	void conversionsMatchBigInteger() {
+		Random random = new Random(3);
+		for (int i = 0; i < 1000; i++) {
+			U128 a = random(random);
+			BigInteger expected = big(a);
+			assertEquals(expected.toString(), a.toString());
+			assertEquals(expected.doubleValue(), a.doubleValue(), 0.0);
+			assertEquals(Integer.signum(expected.compareTo(big(U128.ofUnsigned(i)))),
+				Integer.signum(a.compareTo(U128.ofUnsigned(i))));
+		}
+		assertEquals(1.5, new U128().setQ64(1.5).q64ToDouble(), 0.0);
+	}
+
+	/**
+	 * 高低位元各自隨機取 0、小數值或完整 64 位元，讓溢位與不溢位的案例都會出現
+	 */
+	private static U128 random(Random random) {
+		return U128.of(word(random), word(random));
+	}
+
+	private static long word(Random random) {
+		switch (random.nextInt(4)) {
+			case 0:
+				return 0;
+			case 1:
+				return random.nextInt(1 << 16);
+			default:
+				return random.nextLong();
+		}
+	}
+
+	private static BigInteger big(U128 value) {
+		return unsigned(value.hi()).shiftLeft(64).or(unsigned(value.lo()));
+	}
+
+	private static BigInteger unsigned(long value) {
+		return BigInteger.valueOf(value).and(MASK_64);
+	}
+
+}